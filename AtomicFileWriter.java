@@ -0,0 +1,183 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * AtomicFileWriter replaces whole data files without ever leaving them half-written.
+ *
+ * This class is responsible for:
+ * - Writing new file contents to a temporary file beside the live file
+ * - Forcing the temporary file to disk and moving it over the live file in one step
+ * - Forcing the directory to disk so the move survives a power loss
+ * - Making sure only one save of a file runs at a time
+ * - Streaming large files out a batch of lines at a time
+ *
+ * Every save is on disk when it returns. A crash leaves either the old file
+ * or the new one, never a truncated file.
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class AtomicFileWriter {
+    /** Writer for each file, so saves of a file never overlap */
+    private static final ConcurrentHashMap<Path, AtomicFileWriter> WRITERS = new ConcurrentHashMap<>();
+
+    /** The live file */
+    private final Path file;
+    /** Description of the file's contents used in messages */
+    private final String description;
+
+    /**
+     * Constructs a writer for a file
+     *
+     * @param file The live file
+     * @param description Description of the file's contents used in messages
+     */
+    private AtomicFileWriter(Path file, String description) {
+        this.file = file;
+        this.description = description;
+    }
+
+    /**
+     * Gets the writer for a file
+     *
+     * @param path Path to the live file
+     * @param description Description of the file's contents used in messages, e.g. "inventory"
+     * @return The file's writer
+     */
+    public static AtomicFileWriter forPath(String path, String description) {
+        return WRITERS.computeIfAbsent(Paths.get(path).toAbsolutePath(), file -> new AtomicFileWriter(file, description));
+    }
+
+    /**
+     * Replaces the file's contents and returns once they are on disk
+     *
+     * @param contents The complete new contents of the file
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void save(String contents) throws IOException {
+        try {
+            writeAtomically(file, contents);
+        } catch (IOException e) {
+            System.out.println("Error saving " + description + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the file line by line and returns once it is on disk
+     * Only one batch of lines is held in memory at a time
+     *
+     * @param <E> The type of items written
+     * @param header First line of the file, or null for none
+     * @param items Items to write, one line each, read once in order
+     * @param format Turns an item into its line
+     * @param batchSize Number of lines written at a time
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized <E> void saveLines(String header, Iterable<E> items, Function<E, String> format,
+                                           int batchSize) throws IOException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+        }
+        writeAtomically(file, channel -> {
+            StringBuilder batch = new StringBuilder();
+            if (header != null) {
+                batch.append(header).append(System.lineSeparator());
+            }
+            int lines = 0;
+            for (E item : items) {
+                batch.append(format.apply(item)).append(System.lineSeparator());
+                if (++lines % batchSize == 0) {
+                    writeFully(channel, batch);
+                    batch.setLength(0);
+                }
+            }
+            writeFully(channel, batch);
+        });
+    }
+
+    /**
+     * Replaces a file's contents through a forced temporary file and an atomic move
+     *
+     * @param file The live file
+     * @param contents The new contents
+     * @throws IOException if the file cannot be written
+     */
+    static void writeAtomically(Path file, String contents) throws IOException {
+        writeAtomically(file, channel -> writeFully(channel, contents));
+    }
+
+    /**
+     * Replaces a file's contents through a forced temporary file and an atomic move
+     *
+     * @param file The live file
+     * @param writer Writes the new contents to the temporary file
+     * @throws IOException if the file cannot be written
+     */
+    static void writeAtomically(Path file, ContentsWriter writer) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            writer.write(channel);
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Forces a directory's entries to disk, so files just created, renamed or
+     * removed in it keep their names after a power loss
+     * Platforms that cannot open a directory, such as Windows, are left to the file system
+     *
+     * @param directory The directory
+     * @throws IOException if the directory was opened but cannot be forced
+     */
+    static void syncDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (FileChannel open = channel) {
+            open.force(true);
+        }
+    }
+
+    /**
+     * Writes text to a channel in the platform charset, which the data file readers use
+     *
+     * @param channel The channel
+     * @param text The text
+     * @throws IOException if the channel cannot be written
+     */
+    private static void writeFully(FileChannel channel, CharSequence text) throws IOException {
+        ByteBuffer bytes = Charset.defaultCharset().encode(CharBuffer.wrap(text));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Interface for code writing a file's new contents to its temporary file
+     */
+    interface ContentsWriter {
+        void write(FileChannel channel) throws IOException;
+    }
+}
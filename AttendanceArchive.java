@@ -0,0 +1,494 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AttendanceArchive stores years of attendance history in a compact binary file.
+ *
+ * This class is responsible for:
+ * - Writing each employee's completed attendance records grouped together in blocks
+ * - Encoding dates as day deltas and punch times as minutes of the day, both as varints
+ * - Keeping a sparse index of each block's first and last date for seeking by date
+ * - Reading one employee's records for a date range without decoding the rest of the file
+ *
+ * File format (little-endian):
+ * Header (HEADER_SIZE bytes): magic "MPAA", version, employee count, record count,
+ * index offset (long), day the archive ends before (long, epoch day)
+ * Blocks: up to BLOCK_RECORDS records each, in date order. The first record's date is
+ * a zigzag varint epoch day, later dates are varint days since the record before.
+ * Each date is followed by its login and logout punches.
+ * Index: for each employee, the employee number, last name and first name (short
+ * length then UTF-8 bytes) and a block count, then for each block its first epoch day,
+ * last epoch day, offset and length in bytes (ints) and record count (int)
+ *
+ * A punch is a varint: 0 when missing, otherwise 1 + (minute of the day * 2 + s),
+ * where s is 1 when the time has seconds and a varint of the seconds follows.
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class AttendanceArchive {
+    /** Size of the file header in bytes */
+    static final int HEADER_SIZE = 32;
+    /** Largest number of records in a block */
+    static final int BLOCK_RECORDS = 64;
+
+    /** Marks an attendance archive, "MPAA" in ASCII */
+    private static final int MAGIC = 0x4D504141;
+    private static final int VERSION = 1;
+
+    /** The archive file */
+    private final Path file;
+    /** Number of records archived */
+    private final int recordCount;
+    /** Day the archived records end before */
+    private final LocalDate archivedBefore;
+    /** Block index of each archived employee, in file order */
+    private final Map<String, EmployeeBlocks> index;
+
+    /**
+     * Constructs a reader for an archive file
+     *
+     * @param file The archive file
+     * @param recordCount Number of records archived
+     * @param archivedBefore Day the archived records end before
+     * @param index Block index of each archived employee
+     */
+    private AttendanceArchive(Path file, int recordCount, LocalDate archivedBefore,
+                              Map<String, EmployeeBlocks> index) {
+        this.file = file;
+        this.recordCount = recordCount;
+        this.archivedBefore = archivedBefore;
+        this.index = index;
+    }
+
+    /**
+     * Writes the completed attendance records dated before a day, replacing the archive file
+     * Records without a logout are left out, as they may still change
+     *
+     * @param file The archive file
+     * @param employees Employees whose records are archived
+     * @param before Day the archived records end before
+     * @return Number of records archived
+     * @throws IOException if the archive cannot be written
+     */
+    public static int write(Path file, List<Employee> employees, LocalDate before) throws IOException {
+        VarintOutput data = new VarintOutput();
+        VarintOutput blocks = new VarintOutput();
+        int employeeCount = 0;
+        int recordCount = 0;
+
+        for (Employee employee : employees) {
+            List<Map.Entry<LocalDate, Employee.AttendanceRecord>> records = new ArrayList<>();
+            for (Map.Entry<LocalDate, Employee.AttendanceRecord> entry
+                    : employee.getAttendanceRecords(LocalDate.MIN, before.minusDays(1)).entrySet()) {
+                if (entry.getValue().getLogoutTime() != null) {
+                    records.add(entry);
+                }
+            }
+            if (records.isEmpty()) {
+                continue;
+            }
+            employeeCount++;
+            recordCount += records.size();
+
+            blocks.writeString(employee.getId());
+            blocks.writeString(employee.getLastName());
+            blocks.writeString(employee.getFirstName());
+            int blockCount = (records.size() + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+            blocks.writeInt(blockCount);
+            for (int start = 0; start < records.size(); start += BLOCK_RECORDS) {
+                int end = Math.min(start + BLOCK_RECORDS, records.size());
+                int offset = data.size();
+                long previousDay = 0;
+                for (int i = start; i < end; i++) {
+                    long day = records.get(i).getKey().toEpochDay();
+                    if (i == start) {
+                        data.writeVarint((day << 1) ^ (day >> 63));
+                    } else {
+                        data.writeVarint(day - previousDay);
+                    }
+                    previousDay = day;
+                    Employee.AttendanceRecord record = records.get(i).getValue();
+                    writePunch(data, record.getLoginTime());
+                    writePunch(data, record.getLogoutTime());
+                }
+                blocks.writeInt(toInt(records.get(start).getKey().toEpochDay()));
+                blocks.writeInt(toInt(previousDay));
+                blocks.writeInt(offset);
+                blocks.writeInt(data.size() - offset);
+                blocks.writeInt(end - start);
+            }
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(employeeCount).putInt(recordCount)
+              .putLong(HEADER_SIZE + (long) data.size()).putLong(before.toEpochDay());
+        header.flip();
+        AtomicFileWriter.writeAtomically(file, channel -> {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            data.writeTo(channel);
+            blocks.writeTo(channel);
+        });
+        return recordCount;
+    }
+
+    /**
+     * Opens an archive file, reading its index
+     *
+     * @param file The archive file
+     * @return The archive, or null if the file does not exist
+     * @throws IOException if the file cannot be read or is not an attendance archive
+     */
+    public static AttendanceArchive open(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not an attendance archive: " + file);
+            }
+            int employeeCount = header.getInt(8);
+            int recordCount = header.getInt(12);
+            long indexOffset = header.getLong(16);
+            LocalDate archivedBefore = LocalDate.ofEpochDay(header.getLong(24));
+            if (indexOffset < HEADER_SIZE || indexOffset > channel.size()) {
+                throw new IOException("Attendance archive is cut short: " + file);
+            }
+
+            ByteBuffer in = readFully(channel, indexOffset, channel.size() - indexOffset);
+            Map<String, EmployeeBlocks> index = new LinkedHashMap<>();
+            try {
+                for (int i = 0; i < employeeCount; i++) {
+                    String employeeId = readString(in);
+                    String lastName = readString(in);
+                    String firstName = readString(in);
+                    EmployeeBlocks blocks = new EmployeeBlocks(lastName, firstName, in.getInt());
+                    for (int b = 0; b < blocks.firstDays.length; b++) {
+                        blocks.firstDays[b] = in.getInt();
+                        blocks.lastDays[b] = in.getInt();
+                        blocks.offsets[b] = in.getInt();
+                        blocks.lengths[b] = in.getInt();
+                        blocks.counts[b] = in.getInt();
+                    }
+                    index.put(employeeId, blocks);
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("Attendance archive index is damaged: " + file, e);
+            }
+            return new AttendanceArchive(file, recordCount, archivedBefore, index);
+        }
+    }
+
+    /**
+     * Gets the employee numbers with archived records, in file order
+     *
+     * @return The employee numbers
+     */
+    public List<String> getEmployeeIds() {
+        return new ArrayList<>(index.keySet());
+    }
+
+    /**
+     * Gets the name an employee had when their records were archived
+     *
+     * @param employeeId The employee number
+     * @return First and last name, or null if the employee has no archived records
+     */
+    public String getEmployeeName(String employeeId) {
+        EmployeeBlocks blocks = index.get(employeeId);
+        return blocks != null ? blocks.firstName + " " + blocks.lastName : null;
+    }
+
+    /**
+     * Gets the number of archived records
+     *
+     * @return Record count
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Gets the day the archived records end before
+     *
+     * @return The first day not archived
+     */
+    public LocalDate getArchivedBefore() {
+        return archivedBefore;
+    }
+
+    /**
+     * Passes an employee's archived records in a date range to a visitor, oldest first
+     * Only the blocks that overlap the range are read
+     *
+     * @param employeeId The employee number, matched exactly
+     * @param startDate First day of the range
+     * @param endDate Last day of the range
+     * @param visitor Visitor receiving each record
+     * @return Number of records visited
+     * @throws IOException if the archive cannot be read
+     */
+    public int forEach(String employeeId, LocalDate startDate, LocalDate endDate, PunchVisitor visitor)
+            throws IOException {
+        EmployeeBlocks blocks = index.get(employeeId);
+        if (blocks == null || endDate.isBefore(startDate)) {
+            return 0;
+        }
+        long startDay = startDate.toEpochDay();
+        long endDay = endDate.toEpochDay();
+
+        // Binary search for the first block that ends on or after the start day
+        int low = 0;
+        int high = blocks.lastDays.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (blocks.lastDays[middle] < startDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int last = low;
+        while (last < blocks.firstDays.length && blocks.firstDays[last] <= endDay) {
+            last++;
+        }
+        if (low == last) {
+            return 0;
+        }
+
+        int visited = 0;
+        long from = blocks.offsets[low];
+        long to = (long) blocks.offsets[last - 1] + blocks.lengths[last - 1];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer in = readFully(channel, HEADER_SIZE + from, to - from);
+            for (int b = low; b < last; b++) {
+                long day = 0;
+                for (int i = 0; i < blocks.counts[b]; i++) {
+                    long value = readVarint(in);
+                    day = i == 0 ? (value >>> 1) ^ -(value & 1) : day + value;
+                    LocalTime login = readPunch(in);
+                    LocalTime logout = readPunch(in);
+                    if (day > endDay) {
+                        return visited;
+                    }
+                    if (day >= startDay) {
+                        visitor.visit(LocalDate.ofEpochDay(day), login, logout);
+                        visited++;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Attendance archive is damaged: " + file, e);
+        }
+        return visited;
+    }
+
+    /**
+     * Records an employee's archived records in a date range on the employee
+     *
+     * @param employee The employee, matched by employee number
+     * @param startDate First day of the range
+     * @param endDate Last day of the range
+     * @return Number of records applied
+     * @throws IOException if the archive cannot be read
+     */
+    public int readInto(Employee employee, LocalDate startDate, LocalDate endDate) throws IOException {
+        return forEach(employee.getId(), startDate, endDate, (date, login, logout) -> {
+            if (login != null) {
+                employee.recordLogin(date, login);
+            }
+            if (logout != null) {
+                employee.recordLogout(date, logout);
+            }
+        });
+    }
+
+    /**
+     * Writes a punch time as a varint, to the second
+     *
+     * @param out Output for the punch
+     * @param time The punch time, or null if missing
+     */
+    private static void writePunch(VarintOutput out, LocalTime time) {
+        if (time == null) {
+            out.writeVarint(0);
+            return;
+        }
+        int minute = time.getHour() * 60 + time.getMinute();
+        boolean hasSeconds = time.getSecond() != 0;
+        out.writeVarint(1 + ((long) minute << 1) + (hasSeconds ? 1 : 0));
+        if (hasSeconds) {
+            out.writeVarint(time.getSecond());
+        }
+    }
+
+    /**
+     * Reads a punch time written by writePunch
+     *
+     * @param in Buffer positioned at the punch
+     * @return The punch time, or null if missing
+     */
+    private static LocalTime readPunch(ByteBuffer in) {
+        long value = readVarint(in);
+        if (value == 0) {
+            return null;
+        }
+        int minute = (int) ((value - 1) >>> 1);
+        int second = ((value - 1) & 1) != 0 ? (int) readVarint(in) : 0;
+        return LocalTime.of(minute / 60, minute % 60, second);
+    }
+
+    /**
+     * Reads an unsigned varint, seven bits per byte with the low bits first
+     *
+     * @param in Buffer positioned at the varint
+     * @return The value
+     */
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint is too long");
+    }
+
+    /**
+     * Reads a string written as a short length and UTF-8 bytes
+     */
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a range of a file into a little-endian buffer
+     *
+     * @param channel The open file
+     * @param position Position of the first byte
+     * @param length Number of bytes
+     * @return Buffer holding the bytes
+     * @throws IOException if the file ends before the range does
+     */
+    private static ByteBuffer readFully(FileChannel channel, long position, long length) throws IOException {
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IOException("Invalid range in attendance archive: " + length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Attendance archive is cut short");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Narrows an epoch day to an int for the block index
+     */
+    private static int toInt(long day) {
+        if (day < Integer.MIN_VALUE || day > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Date out of range for the attendance archive: "
+                + LocalDate.ofEpochDay(day));
+        }
+        return (int) day;
+    }
+
+    /**
+     * Interface for code receiving archived attendance records
+     */
+    public interface PunchVisitor {
+        /**
+         * Receives one record
+         *
+         * @param date The day of the record
+         * @param login The login time, or null if missing
+         * @param logout The logout time, or null if missing
+         */
+        void visit(LocalDate date, LocalTime login, LocalTime logout);
+    }
+
+    /**
+     * Inner class holding the sparse index of one employee's blocks
+     */
+    private static class EmployeeBlocks {
+        private final String lastName;
+        private final String firstName;
+        private final int[] firstDays;
+        private final int[] lastDays;
+        private final int[] offsets;
+        private final int[] lengths;
+        private final int[] counts;
+
+        EmployeeBlocks(String lastName, String firstName, int blockCount) {
+            this.lastName = lastName;
+            this.firstName = firstName;
+            this.firstDays = new int[blockCount];
+            this.lastDays = new int[blockCount];
+            this.offsets = new int[blockCount];
+            this.lengths = new int[blockCount];
+            this.counts = new int[blockCount];
+        }
+    }
+
+    /**
+     * Inner class collecting varints and little-endian values in a growable byte array
+     */
+    private static class VarintOutput extends ByteArrayOutputStream {
+        VarintOutput() {
+            super(8192);
+        }
+
+        void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeInt(int value) {
+            write(value);
+            write(value >>> 8);
+            write(value >>> 16);
+            write(value >>> 24);
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("Text is too long for the attendance archive");
+            }
+            write(bytes.length);
+            write(bytes.length >>> 8);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeTo(FileChannel channel) throws IOException {
+            ByteBuffer bytes = ByteBuffer.wrap(buf, 0, count);
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+import java.time.LocalDate;
+
+/**
+ * Interface for objects that need to react to attendance changes
+ * 
+ * This interface defines the contract for classes that need to:
+ * - Be notified when an employee's login or logout is recorded
+ * - Be notified when hours worked are entered for an employee
+ * - Update derived data such as payroll totals for the affected day
+ * 
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public interface AttendanceListener {
+    /**
+     * Called after a login or logout has been recorded for an employee
+     * 
+     * @param employee The employee whose attendance changed
+     * @param date The date of the changed attendance record
+     */
+    void attendanceChanged(Employee employee, LocalDate date);
+    
+    /**
+     * Called after hours worked have been entered for an employee
+     * Listeners that only follow punches can ignore it
+     * 
+     * @param employee The employee whose hours changed
+     * @param date The date of the changed hours
+     */
+    default void hoursWorkedChanged(Employee employee, LocalDate date) {
+    }
+}
@@ -0,0 +1,934 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+
+/**
+ * BPlusTreeStore keeps records in a page-based B+tree file, ordered by a key.
+ *
+ * This class is responsible for:
+ * - Finding, adding, replacing and removing single records by key
+ * - Scanning a range of keys in order by following the linked leaf pages
+ * - Keeping recently used pages in a buffer pool and writing changed pages back
+ * - Committing changed pages through a redo log, so a crash never leaves a torn tree
+ * - Offering the whole tree through the FileStorage interface
+ *
+ * File format (PAGE_SIZE byte pages):
+ * Page 0: magic, page size, root page, page count, record count
+ * Leaf page: type 1, entry count, next leaf page, then key and record pairs
+ * Branch page: type 2, key count, first child page, then key and child pairs
+ * Keys and records are UTF-8 strings preceded by their length in bytes.
+ *
+ * Redo log ("<tree file>.log"): magic, page count, then page number and page
+ * image pairs, then a CRC32 of everything before it
+ *
+ * Only the pages a lookup or scan touches are read, so the records never have
+ * to fit in memory at once. Pages left empty by removals stay in the tree and
+ * are skipped by scans. Changes reach the file on flush, and when a changed
+ * page has to leave the buffer pool. A flush first writes every changed page
+ * and page 0 to the redo log and forces it, then writes them in place and
+ * empties the log. Opening the tree replays a complete log left by a crash
+ * and ignores an incomplete one, so the file always holds the last flush.
+ *
+ * @param <T> The type of records stored
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class BPlusTreeStore<T> implements FileStorage<T>, Closeable {
+    /** Size of every page in the file */
+    static final int PAGE_SIZE = 4096;
+    /** Largest key in bytes */
+    static final int MAX_KEY_BYTES = 255;
+    /** Largest key and record together in bytes, so a split always leaves two pages that fit */
+    static final int MAX_ENTRY_BYTES = 1000;
+
+    /** Marks the file as a MotorPH B+tree ("MPBT") */
+    private static final int MAGIC = 0x4D504254;
+    private static final byte LEAF = 1;
+    private static final byte BRANCH = 2;
+    /** Bytes before the first entry of a page: type, entry count and leaf link or first child */
+    private static final int PAGE_HEADER_BYTES = 7;
+    /** Marks the last leaf page */
+    private static final int NO_PAGE = -1;
+    /** Marks a redo log ("MPBL") */
+    private static final int LOG_MAGIC = 0x4D50424C;
+
+    private final String filePath;
+    private final Path logPath;
+    private final FileChannel channel;
+    private final Function<T, String> keyOf;
+    private final Function<T, String> encoder;
+    private final Function<String, T> decoder;
+    /** Number of pages the buffer pool keeps between operations */
+    private final int bufferPages;
+
+    /** Pages in least recently used order */
+    private final LinkedHashMap<Integer, Node> bufferPool = new LinkedHashMap<>(16, 0.75f, true);
+
+    private int rootPage;
+    private int pageCount;
+    private long recordCount;
+    /** Whether page 0 needs writing */
+    private boolean headerDirty;
+
+    /**
+     * Opens a store, creating an empty tree if the file does not exist
+     *
+     * @param filePath Path to the tree file
+     * @param keyOf Gets a record's key
+     * @param encoder Turns a record into the string kept in the file
+     * @param decoder Turns a stored string back into a record
+     * @param bufferPages Number of pages kept in memory between operations
+     * @throws IOException if the file cannot be opened or is not a tree file
+     */
+    public BPlusTreeStore(String filePath, Function<T, String> keyOf, Function<T, String> encoder,
+                          Function<String, T> decoder, int bufferPages) throws IOException {
+        if (bufferPages < 4) {
+            throw new IllegalArgumentException("Buffer pool must hold at least 4 pages: " + bufferPages);
+        }
+        this.filePath = filePath;
+        this.keyOf = keyOf;
+        this.encoder = encoder;
+        this.decoder = decoder;
+        this.bufferPages = bufferPages;
+        this.logPath = Paths.get(filePath + ".log");
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                        StandardOpenOption.WRITE);
+
+        try {
+            recover();
+            if (channel.size() == 0) {
+                Node root = new Node(1, true);
+                root.next = NO_PAGE;
+                root.dirty = true;
+                bufferPool.put(root.page, root);
+                rootPage = root.page;
+                pageCount = 2;
+                recordCount = 0;
+                headerDirty = true;
+                flush();
+            } else {
+                readHeader();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Finds the record with a key
+     *
+     * @param key The key
+     * @return The record, or null if none has the key
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized T get(String key) throws IOException {
+        try {
+            Node leaf = findLeaf(key);
+            int index = Collections.binarySearch(leaf.keys, key);
+            return index >= 0 ? decoder.apply(leaf.values.get(index)) : null;
+        } finally {
+            trimBufferPool();
+        }
+    }
+
+    /**
+     * Adds a record, replacing any record with the same key
+     *
+     * @param item The record
+     * @throws IOException if the file cannot be read or written
+     * @throws IllegalArgumentException if the key or record is too large for a page
+     */
+    public synchronized void put(T item) throws IOException {
+        String key = keyOf.apply(item);
+        String value = encoder.apply(item);
+        int keyBytes = utf8Length(key);
+        if (keyBytes > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("Key is longer than " + MAX_KEY_BYTES + " bytes: " + key);
+        }
+        if (keyBytes + utf8Length(value) > MAX_ENTRY_BYTES) {
+            throw new IllegalArgumentException("Record is larger than " + MAX_ENTRY_BYTES + " bytes: " + key);
+        }
+
+        try {
+            Split split = insert(readPage(rootPage), key, value);
+            if (split != null) {
+                // The root split, so the tree grows one level
+                Node root = allocate(false);
+                root.children.add(rootPage);
+                root.keys.add(split.key);
+                root.children.add(split.rightPage);
+                rootPage = root.page;
+                headerDirty = true;
+            }
+        } finally {
+            trimBufferPool();
+        }
+    }
+
+    /**
+     * Removes the record with a key
+     *
+     * @param key The key
+     * @return true if a record was removed
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized boolean remove(String key) throws IOException {
+        try {
+            Node leaf = findLeaf(key);
+            int index = Collections.binarySearch(leaf.keys, key);
+            if (index < 0) {
+                return false;
+            }
+            leaf.keys.remove(index);
+            leaf.values.remove(index);
+            leaf.dirty = true;
+            recordCount--;
+            headerDirty = true;
+            return true;
+        } finally {
+            trimBufferPool();
+        }
+    }
+
+    /**
+     * Passes the records in a key range to an action in key order
+     * Only the leaf pages holding the range are read
+     *
+     * @param fromKey Lowest key included, or null to start at the first record
+     * @param toKey Key the range stops before, or null to run to the last record
+     * @param action Action receiving each record
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized void scan(String fromKey, String toKey, Consumer<T> action) throws IOException {
+        try {
+            Node leaf = fromKey != null ? findLeaf(fromKey) : firstLeaf();
+            int index = fromKey != null ? lowerBound(leaf.keys, fromKey) : 0;
+            while (true) {
+                for (; index < leaf.keys.size(); index++) {
+                    if (toKey != null && leaf.keys.get(index).compareTo(toKey) >= 0) {
+                        return;
+                    }
+                    action.accept(decoder.apply(leaf.values.get(index)));
+                }
+                if (leaf.next == NO_PAGE) {
+                    return;
+                }
+                int next = leaf.next;
+                trimBufferPool();
+                leaf = readPage(next);
+                index = 0;
+            }
+        } finally {
+            trimBufferPool();
+        }
+    }
+
+    /**
+     * Gets the records in a key range in key order
+     *
+     * @param fromKey Lowest key included, or null to start at the first record
+     * @param toKey Key the range stops before, or null to run to the last record
+     * @return The records in the range
+     * @throws IOException if the file cannot be read
+     */
+    public List<T> getRange(String fromKey, String toKey) throws IOException {
+        List<T> items = new ArrayList<>();
+        scan(fromKey, toKey, items::add);
+        return items;
+    }
+
+    /**
+     * Gets the number of records in the tree
+     *
+     * @return Record count
+     */
+    public synchronized long size() {
+        return recordCount;
+    }
+
+    /**
+     * Loads every record in key order
+     *
+     * @return List of records, empty if the tree cannot be read
+     */
+    @Override
+    public List<T> load() {
+        try {
+            return getRange(null, null);
+        } catch (IOException e) {
+            System.out.println("Error reading " + filePath + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Makes the tree hold exactly the given records and writes it to disk
+     *
+     * @param items The records to keep
+     */
+    @Override
+    public void save(List<T> items) {
+        saveAll(items, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Makes the tree hold exactly the given records, flushing after every batch
+     * Only the keys are kept in memory, to find the records that are no longer wanted
+     *
+     * @param items The records to keep, read once in order
+     * @param batchSize Number of records put between flushes
+     */
+    @Override
+    public synchronized void saveAll(Iterable<T> items, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+        }
+        try {
+            Set<String> keys = new HashSet<>();
+            for (T item : items) {
+                put(item);
+                keys.add(keyOf.apply(item));
+                if (keys.size() % batchSize == 0) {
+                    flush();
+                }
+            }
+            List<String> removed = new ArrayList<>();
+            scan(null, null, item -> {
+                String key = keyOf.apply(item);
+                if (!keys.contains(key)) {
+                    removed.add(key);
+                }
+            });
+            for (String key : removed) {
+                remove(key);
+            }
+            flush();
+        } catch (IOException e) {
+            System.out.println("Error saving " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the records in key order, one leaf page at a time
+     * Records changed while the stream is open may or may not be seen
+     *
+     * @return Stream of records
+     * @throws UncheckedIOException from the stream if a page cannot be read
+     */
+    @Override
+    public Stream<T> stream() {
+        Iterator<T> records = new Iterator<T>() {
+            private Node leaf;
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    if (leaf == null) {
+                        leaf = streamFirstLeaf();
+                    }
+                    while (index >= leaf.keys.size() && leaf.next != NO_PAGE) {
+                        leaf = streamPage(leaf.next);
+                        index = 0;
+                    }
+                    return index < leaf.keys.size();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return decoder.apply(leaf.values.get(index++));
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(records, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Adds a record, replacing any record with the same key
+     *
+     * @param item The record
+     */
+    @Override
+    public void upsert(T item) {
+        try {
+            put(item);
+        } catch (IOException e) {
+            System.out.println("Error saving " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the record with the same key as a record
+     *
+     * @param item The record
+     * @return true if a record was removed
+     */
+    @Override
+    public boolean delete(T item) {
+        try {
+            return remove(keyOf.apply(item));
+        } catch (IOException e) {
+            System.out.println("Error saving " + filePath + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Gets the file path used for storage
+     *
+     * @return The tree file path
+     */
+    @Override
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Commits every changed page and page 0 to disk as one change
+     * The pages go to the redo log first, so a crash part way through leaves
+     * either the previous flush or this one
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        List<Node> changed = new ArrayList<>();
+        for (Node node : bufferPool.values()) {
+            if (node.dirty) {
+                changed.add(node);
+            }
+        }
+        if (changed.isEmpty() && !headerDirty) {
+            return;
+        }
+
+        List<Integer> pages = new ArrayList<>();
+        List<ByteBuffer> images = new ArrayList<>();
+        ByteBuffer header = ByteBuffer.allocate(PAGE_SIZE);
+        header.putInt(MAGIC).putInt(PAGE_SIZE).putInt(rootPage).putInt(pageCount).putLong(recordCount);
+        header.clear();
+        pages.add(0);
+        images.add(header);
+        for (Node node : changed) {
+            pages.add(node.page);
+            images.add(pageImage(node));
+        }
+
+        writeLog(pages, images);
+        writePages(pages, images);
+        for (Node node : changed) {
+            node.dirty = false;
+        }
+        headerDirty = false;
+        clearLog();
+    }
+
+    /**
+     * Flushes the tree and closes the file
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            bufferPool.clear();
+            channel.close();
+        }
+    }
+
+    /**
+     * Adds a key and record below a page
+     *
+     * @param node The page
+     * @param key The key
+     * @param value The encoded record
+     * @return The page's new right sibling if the page split, otherwise null
+     * @throws IOException if the file cannot be read
+     */
+    private Split insert(Node node, String key, String value) throws IOException {
+        if (node.leaf) {
+            int index = Collections.binarySearch(node.keys, key);
+            if (index >= 0) {
+                node.values.set(index, value);
+            } else {
+                node.keys.add(-index - 1, key);
+                node.values.add(-index - 1, value);
+                recordCount++;
+                headerDirty = true;
+            }
+            node.dirty = true;
+            return node.byteSize() > PAGE_SIZE ? splitLeaf(node) : null;
+        }
+
+        int child = childIndex(node.keys, key);
+        Split split = insert(readPage(node.children.get(child)), key, value);
+        if (split == null) {
+            return null;
+        }
+        node.keys.add(child, split.key);
+        node.children.add(child + 1, split.rightPage);
+        node.dirty = true;
+        return node.byteSize() > PAGE_SIZE ? splitBranch(node) : null;
+    }
+
+    /**
+     * Moves the upper half of a full leaf, by bytes, into a new leaf
+     *
+     * @param left The full leaf
+     * @return The first key of the new leaf and its page
+     */
+    private Split splitLeaf(Node left) {
+        int from = splitPoint(left);
+        Node right = allocate(true);
+        moveTail(left.keys, right.keys, from);
+        moveTail(left.values, right.values, from);
+        right.next = left.next;
+        left.next = right.page;
+        return new Split(right.keys.get(0), right.page);
+    }
+
+    /**
+     * Moves the upper half of a full branch, by bytes, into a new branch
+     * The middle key moves up to the parent
+     *
+     * @param left The full branch
+     * @return The key moved up and the new branch's page
+     */
+    private Split splitBranch(Node left) {
+        int middle = Math.max(1, Math.min(splitPoint(left), left.keys.size() - 1));
+        Node right = allocate(false);
+        String separator = left.keys.get(middle);
+        moveTail(left.keys, right.keys, middle + 1);
+        moveTail(left.children, right.children, middle + 1);
+        left.keys.remove(middle);
+        return new Split(separator, right.page);
+    }
+
+    /**
+     * Finds the first entry of a page's upper half by bytes
+     *
+     * @param node The page
+     * @return Index of the first entry that moves to the new page
+     */
+    private static int splitPoint(Node node) {
+        int half = (node.byteSize() - PAGE_HEADER_BYTES) / 2;
+        int bytes = 0;
+        for (int i = 0; i < node.keys.size(); i++) {
+            bytes += node.entryBytes(i);
+            if (bytes >= half) {
+                return Math.min(i + 1, node.keys.size() - 1);
+            }
+        }
+        return node.keys.size() - 1;
+    }
+
+    private static <E> void moveTail(List<E> from, List<E> to, int index) {
+        List<E> tail = from.subList(index, from.size());
+        to.addAll(tail);
+        tail.clear();
+    }
+
+    /**
+     * Follows the branches from the root to the leaf that holds or would hold a key
+     *
+     * @param key The key
+     * @return The leaf
+     * @throws IOException if the file cannot be read
+     */
+    private Node findLeaf(String key) throws IOException {
+        Node node = readPage(rootPage);
+        while (!node.leaf) {
+            node = readPage(node.children.get(childIndex(node.keys, key)));
+        }
+        return node;
+    }
+
+    /**
+     * Follows the first child of every branch down to the first leaf
+     *
+     * @return The first leaf
+     * @throws IOException if the file cannot be read
+     */
+    private Node firstLeaf() throws IOException {
+        Node node = readPage(rootPage);
+        while (!node.leaf) {
+            node = readPage(node.children.get(0));
+        }
+        return node;
+    }
+
+    /**
+     * Reads the first leaf for a stream, then shrinks the buffer pool again
+     */
+    private synchronized Node streamFirstLeaf() throws IOException {
+        try {
+            return firstLeaf();
+        } finally {
+            trimBufferPool();
+        }
+    }
+
+    /**
+     * Reads a leaf for a stream, then shrinks the buffer pool again
+     */
+    private synchronized Node streamPage(int page) throws IOException {
+        try {
+            return readPage(page);
+        } finally {
+            trimBufferPool();
+        }
+    }
+
+    /**
+     * Gets the child of a branch that covers a key
+     * Child i holds the keys from key i-1 up to, but not including, key i
+     */
+    private static int childIndex(List<String> keys, String key) {
+        int index = Collections.binarySearch(keys, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Gets the index of the first key not below a key
+     */
+    private static int lowerBound(List<String> keys, String key) {
+        int index = Collections.binarySearch(keys, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Adds a new empty page to the end of the file and the buffer pool
+     *
+     * @param leaf Whether the page is a leaf
+     * @return The new page
+     */
+    private Node allocate(boolean leaf) {
+        Node node = new Node(pageCount++, leaf);
+        node.next = NO_PAGE;
+        node.dirty = true;
+        bufferPool.put(node.page, node);
+        headerDirty = true;
+        return node;
+    }
+
+    /**
+     * Gets a page from the buffer pool, reading it from the file if needed
+     *
+     * @param page The page number
+     * @return The page
+     * @throws IOException if the page cannot be read or is damaged
+     */
+    private Node readPage(int page) throws IOException {
+        Node cached = bufferPool.get(page);
+        if (cached != null) {
+            return cached;
+        }
+        if (page <= 0 || page >= pageCount) {
+            throw new IOException("Page " + page + " is outside the tree file");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        readFully(buffer, (long) page * PAGE_SIZE);
+        buffer.flip();
+        byte type = buffer.get();
+        if (type != LEAF && type != BRANCH) {
+            throw new IOException("Page " + page + " is damaged");
+        }
+        Node node = new Node(page, type == LEAF);
+        int count = buffer.getShort() & 0xFFFF;
+        if (node.leaf) {
+            node.next = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                node.keys.add(readString(buffer));
+                node.values.add(readString(buffer));
+            }
+        } else {
+            node.children.add(buffer.getInt());
+            for (int i = 0; i < count; i++) {
+                node.keys.add(readString(buffer));
+                node.children.add(buffer.getInt());
+            }
+        }
+        bufferPool.put(page, node);
+        return node;
+    }
+
+    /**
+     * Lays a page out as it is stored in the file
+     *
+     * @param node The page
+     * @return Buffer holding the PAGE_SIZE byte image
+     */
+    private static ByteBuffer pageImage(Node node) {
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        buffer.put(node.leaf ? LEAF : BRANCH);
+        buffer.putShort((short) node.keys.size());
+        if (node.leaf) {
+            buffer.putInt(node.next);
+            for (int i = 0; i < node.keys.size(); i++) {
+                writeString(buffer, node.keys.get(i));
+                writeString(buffer, node.values.get(i));
+            }
+        } else {
+            buffer.putInt(node.children.get(0));
+            for (int i = 0; i < node.keys.size(); i++) {
+                writeString(buffer, node.keys.get(i));
+                buffer.putInt(node.children.get(i + 1));
+            }
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Writes page images to their places in the tree file and forces them to disk
+     *
+     * @param pages Page number of each image
+     * @param images The page images
+     * @throws IOException if the file cannot be written
+     */
+    private void writePages(List<Integer> pages, List<ByteBuffer> images) throws IOException {
+        for (int i = 0; i < pages.size(); i++) {
+            writeFully(images.get(i).duplicate(), (long) pages.get(i) * PAGE_SIZE);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Writes page images to the redo log and forces it to disk
+     *
+     * @param pages Page number of each image
+     * @param images The page images
+     * @throws IOException if the log cannot be written
+     */
+    private void writeLog(List<Integer> pages, List<ByteBuffer> images) throws IOException {
+        boolean created = !Files.exists(logPath);
+        ByteBuffer log = ByteBuffer.allocate(8 + pages.size() * (4 + PAGE_SIZE) + 8);
+        log.putInt(LOG_MAGIC).putInt(pages.size());
+        for (int i = 0; i < pages.size(); i++) {
+            log.putInt(pages.get(i));
+            log.put(images.get(i).duplicate());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(log.array(), 0, log.position());
+        log.putLong(crc.getValue());
+        log.flip();
+
+        try (FileChannel out = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (log.hasRemaining()) {
+                out.write(log);
+            }
+            out.force(true);
+        }
+        if (created) {
+            AtomicFileWriter.syncDirectory(logPath.toAbsolutePath().getParent());
+        }
+    }
+
+    /**
+     * Empties the redo log once its pages are in the tree file
+     *
+     * @throws IOException if the log cannot be written
+     */
+    private void clearLog() throws IOException {
+        try (FileChannel out = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+            out.truncate(0);
+            out.force(true);
+        }
+    }
+
+    /**
+     * Replays a complete redo log left by a crash, or drops an incomplete one
+     * An incomplete log means the crash came before any page was written in place
+     *
+     * @throws IOException if the log or the tree file cannot be read or written
+     */
+    private void recover() throws IOException {
+        if (!Files.exists(logPath) || Files.size(logPath) == 0) {
+            return;
+        }
+        ByteBuffer log = ByteBuffer.wrap(Files.readAllBytes(logPath));
+        int count = log.limit() >= 8 && log.getInt(0) == LOG_MAGIC ? log.getInt(4) : -1;
+        boolean complete = count > 0 && log.limit() == 8 + (long) count * (4 + PAGE_SIZE) + 8;
+        if (complete) {
+            CRC32 crc = new CRC32();
+            crc.update(log.array(), 0, log.limit() - 8);
+            complete = crc.getValue() == log.getLong(log.limit() - 8);
+        }
+        if (!complete) {
+            System.out.println("Ignoring incomplete redo log " + logPath + " from an interrupted save.");
+            clearLog();
+            return;
+        }
+
+        List<Integer> pages = new ArrayList<>();
+        List<ByteBuffer> images = new ArrayList<>();
+        log.position(8);
+        for (int i = 0; i < count; i++) {
+            pages.add(log.getInt());
+            ByteBuffer image = log.slice();
+            image.limit(PAGE_SIZE);
+            images.add(image);
+            log.position(log.position() + PAGE_SIZE);
+        }
+        writePages(pages, images);
+        clearLog();
+        System.out.println("Recovered " + filePath + " from its redo log.");
+    }
+
+    /**
+     * Shrinks the buffer pool back to its size
+     * A changed page can only leave through a flush, so the file never holds half an operation.
+     * Only called between operations, so no page in use can be dropped
+     *
+     * @throws IOException if the changed pages cannot be written
+     */
+    private void trimBufferPool() throws IOException {
+        Iterator<Node> eldest = bufferPool.values().iterator();
+        while (bufferPool.size() > bufferPages) {
+            Node node = eldest.next();
+            if (node.dirty) {
+                flush();
+            }
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Reads and checks page 0
+     *
+     * @throws IOException if the file is not a tree file
+     */
+    private void readHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(24);
+        readFully(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a B+tree file: " + filePath);
+        }
+        int pageSize = header.getInt();
+        if (pageSize != PAGE_SIZE) {
+            throw new IOException("Unsupported page size " + pageSize + " in " + filePath);
+        }
+        rootPage = header.getInt();
+        pageCount = header.getInt();
+        recordCount = header.getLong();
+        if (pageCount < 2 || rootPage <= 0 || rootPage >= pageCount) {
+            throw new IOException("Damaged header in " + filePath);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Tree file ends early: " + filePath);
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Inner class holding one page while it is in the buffer pool
+     */
+    private static class Node {
+        final int page;
+        final boolean leaf;
+        final List<String> keys = new ArrayList<>();
+        /** Encoded records of a leaf, matching keys */
+        final List<String> values = new ArrayList<>();
+        /** Child pages of a branch, one more than keys */
+        final List<Integer> children = new ArrayList<>();
+        /** Next leaf page, or NO_PAGE for the last leaf */
+        int next;
+        boolean dirty;
+
+        Node(int page, boolean leaf) {
+            this.page = page;
+            this.leaf = leaf;
+        }
+
+        /** Bytes entry i takes in the page */
+        int entryBytes(int i) {
+            int bytes = 2 + utf8Length(keys.get(i));
+            return leaf ? bytes + 2 + utf8Length(values.get(i)) : bytes + 4;
+        }
+
+        /** Bytes the page takes when written */
+        int byteSize() {
+            int bytes = PAGE_HEADER_BYTES;
+            for (int i = 0; i < keys.size(); i++) {
+                bytes += entryBytes(i);
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Inner class holding the result of a page split
+     */
+    private static class Split {
+        final String key;
+        final int rightPage;
+
+        Split(String key, int rightPage) {
+            this.key = key;
+            this.rightPage = rightPage;
+        }
+    }
+}
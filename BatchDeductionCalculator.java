@@ -0,0 +1,147 @@
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * BatchDeductionCalculator computes government deductions for many employees at once.
+ *
+ * This class is responsible for:
+ * - Calculating SSS, PhilHealth, Pag-IBIG and withholding tax for an array of gross incomes
+ * - Keeping each deduction in its own tight loop over primitive arrays
+ * - Producing the same amounts as the per-employee methods in Employee
+ * - Checking that match and timing both paths when run on its own
+ *
+ * The kernel is scalar Java rather than jdk.incubator.vector, which would need
+ * --add-modules when compiling and running the whole project. The PhilHealth and
+ * Pag-IBIG loops are plain counted loops over double arrays so the JIT can compile
+ * them to SIMD instructions; SSS and tax use the compiled contribution and tax tables.
+ *
+ * Usage: java BatchDeductionCalculator [employee count, default 1000000]
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class BatchDeductionCalculator {
+    /** SSS contribution table used for lookups */
+    private final SSSContributionTable sssTable;
+    /** Withholding tax table used for tax */
+    private final WithholdingTaxTable taxTable;
+
+    /**
+     * Constructs a calculator using the shared rate tables
+     */
+    public BatchDeductionCalculator() {
+        this(SSSContributionTable.getDefault(), WithholdingTaxTable.getDefault());
+    }
+
+    /**
+     * Constructs a calculator using specific rate tables
+     *
+     * @param sssTable SSS contribution table
+     * @param taxTable Withholding tax table
+     */
+    public BatchDeductionCalculator(SSSContributionTable sssTable, WithholdingTaxTable taxTable) {
+        this.sssTable = sssTable;
+        this.taxTable = taxTable;
+    }
+
+    /**
+     * Calculates all four deductions for an array of gross incomes
+     * Output arrays must be at least as long as the input array
+     *
+     * @param grossIncomes Array of gross incomes
+     * @param periodEnd End date of the pay period, used to pick the SSS schedule
+     * @param periodicity Pay periodicity, used to pick the tax table
+     * @param sss Output array for SSS contributions
+     * @param philHealth Output array for PhilHealth contributions
+     * @param pagIbig Output array for Pag-IBIG contributions
+     * @param tax Output array for withholding tax
+     */
+    public void calculate(double[] grossIncomes, LocalDate periodEnd, WithholdingTaxTable.Periodicity periodicity,
+                          double[] sss, double[] philHealth, double[] pagIbig, double[] tax) {
+        calculatePhilHealth(grossIncomes, philHealth);
+        calculatePagIbig(grossIncomes, pagIbig);
+        sssTable.lookupAll(periodEnd, grossIncomes, sss);
+        taxTable.calculateAll(periodicity, grossIncomes, tax);
+    }
+
+    /**
+     * Checks the batch kernel against Employee's per-employee methods and times both
+     *
+     * @param args Optional number of random gross incomes to use
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        LocalDate periodEnd = LocalDate.now();
+        WithholdingTaxTable.Periodicity periodicity = WithholdingTaxTable.Periodicity.MONTHLY;
+
+        // Gross incomes from 0 to 200,000, so every SSS bracket and tax bracket is used
+        Random random = new Random(42);
+        double[] grossIncomes = new double[count];
+        for (int i = 0; i < count; i++) {
+            grossIncomes[i] = Math.round(random.nextDouble() * 20_000_000) / 100.0;
+        }
+        double[] sss = new double[count];
+        double[] philHealth = new double[count];
+        double[] pagIbig = new double[count];
+        double[] tax = new double[count];
+        double[] expected = new double[count * 4];
+
+        BatchDeductionCalculator calculator = new BatchDeductionCalculator();
+        Employee employee = new Employee("00000", "Batch", "Check", "Rank and File", "N/A",
+                                         "", "", "", "", 0);
+        for (int run = 1; run <= 5; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                expected[i * 4] = employee.calculateSSSDeduction(grossIncomes[i], periodEnd);
+                expected[i * 4 + 1] = employee.calculatePhilHealthDeduction(grossIncomes[i]);
+                expected[i * 4 + 2] = employee.calculatePagIBIGDeduction(grossIncomes[i]);
+                expected[i * 4 + 3] = employee.calculateTaxDeduction(grossIncomes[i], periodicity);
+            }
+            long middle = System.nanoTime();
+            calculator.calculate(grossIncomes, periodEnd, periodicity, sss, philHealth, pagIbig, tax);
+            long end = System.nanoTime();
+            System.out.printf("Run %d: per-employee %.1f ms, batch %.1f ms (%.1fx)%n", run,
+                (middle - start) / 1e6, (end - middle) / 1e6, (middle - start) / (double) (end - middle));
+        }
+
+        int mismatches = 0;
+        for (int i = 0; i < count; i++) {
+            if (sss[i] != expected[i * 4] || philHealth[i] != expected[i * 4 + 1]
+                    || pagIbig[i] != expected[i * 4 + 2] || tax[i] != expected[i * 4 + 3]) {
+                if (mismatches++ < 10) {
+                    System.out.println("Mismatch for gross income " + grossIncomes[i]);
+                }
+            }
+        }
+        System.out.println(mismatches == 0
+            ? "All " + count + " employees match the per-employee deductions."
+            : mismatches + " of " + count + " employees do not match the per-employee deductions.");
+    }
+
+    /**
+     * Calculates PhilHealth contributions for an array of gross incomes
+     *
+     * @param grossIncomes Array of gross incomes
+     * @param out Output array for PhilHealth contributions
+     */
+    static void calculatePhilHealth(double[] grossIncomes, double[] out) {
+        double rate = Employee.PHILHEALTH_RATE;
+        for (int i = 0; i < grossIncomes.length; i++) {
+            out[i] = grossIncomes[i] * rate;
+        }
+    }
+
+    /**
+     * Calculates capped Pag-IBIG contributions for an array of gross incomes
+     *
+     * @param grossIncomes Array of gross incomes
+     * @param out Output array for Pag-IBIG contributions
+     */
+    static void calculatePagIbig(double[] grossIncomes, double[] out) {
+        double rate = Employee.PAGIBIG_RATE;
+        double cap = Employee.PAGIBIG_CAP;
+        for (int i = 0; i < grossIncomes.length; i++) {
+            out[i] = Math.min(grossIncomes[i] * rate, cap);
+        }
+    }
+}
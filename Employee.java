@@ -1,11 +1,16 @@
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.Duration;
+import java.time.YearMonth;
 import java.util.HashMap;
 import java.util.Map;
 import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 /**
  * Employee class represents an employee in the MotorPH Payroll System.
@@ -65,8 +70,25 @@ public class Employee extends Person implements Payable {
     private final Map<LocalDate, Double> hoursWorked;
     
     // Attendance Records
-    /** Stores daily attendance records with login and logout times */
-    private final Map<LocalDate, AttendanceRecord> attendanceRecords;
+    /** Stores daily attendance records with login and logout times, ordered by date */
+    private final TreeMap<LocalDate, AttendanceRecord> attendanceRecords;
+    /** Attendance counters for each month, kept up to date as punches are recorded */
+    private final TreeMap<YearMonth, AttendanceSummary> monthlySummaries;
+
+    /** Listeners notified whenever a login or logout is recorded */
+    private final List<AttendanceListener> attendanceListeners = new ArrayList<>();
+    /** Incremented whenever a login or logout is recorded */
+    private long attendanceVersion;
+    /** Incremented whenever an allowance is changed */
+    private long compensationVersion;
+
+    // Contribution Rates
+    /** PhilHealth contribution rate (2023) */
+    static final double PHILHEALTH_RATE = 0.04;
+    /** Pag-IBIG contribution rate (2023) */
+    static final double PAGIBIG_RATE = 0.02;
+    /** Maximum Pag-IBIG contribution per period */
+    static final double PAGIBIG_CAP = 100;
 
     /**
      * Constructs a new Employee with the specified details.
@@ -94,7 +116,8 @@ public class Employee extends Person implements Payable {
         this.tin = tin;
         this.hourlyRate = hourlyRate;
         this.hoursWorked = new HashMap<>();
-        this.attendanceRecords = new HashMap<>();
+        this.attendanceRecords = new TreeMap<>();
+        this.monthlySummaries = new TreeMap<>();
         
         // Initialize compensation components with default values
         this.basicSalary = hourlyRate * 160; // Assuming 160 hours per month
@@ -159,6 +182,16 @@ public class Employee extends Person implements Payable {
         return new HashMap<>(hoursWorked);
     }
 
+    /**
+     * Gets the hours worked recorded for a specific date
+     * 
+     * @param date The date of work
+     * @return Hours worked, or 0 if none are recorded
+     */
+    public double getHoursWorked(LocalDate date) {
+        return hoursWorked.getOrDefault(date, 0.0);
+    }
+
     /**
      * Sets the employee's department
      * 
@@ -177,140 +210,136 @@ public class Employee extends Person implements Payable {
      */
     public void addHoursWorked(LocalDate date, double hours) {
         hoursWorked.put(date, hoursWorked.getOrDefault(date, 0.0) + hours);
+        for (AttendanceListener listener : attendanceListeners) {
+            listener.hoursWorkedChanged(this, date);
+        }
+    }
+
+    /**
+     * Replaces the worked hours recorded for a specific date
+     * Used when restoring hours from the write-ahead log
+     * 
+     * @param date The date of work
+     * @param hours Number of hours worked
+     */
+    public void setHoursWorked(LocalDate date, double hours) {
+        hoursWorked.put(date, hours);
     }
 
     /**
      * Calculates total pay based on hours worked and hourly rate
      * Uses actual login and logout times from attendance records to calculate hours worked
+     * Falls back to an estimate when there are no attendance records in the period
+     * Prints nothing; use explainPay for a per-day breakdown
      * 
      * @param startDate Start date of the period
      * @param endDate End date of the period
      * @return Total pay for the period
      */
     public double calculatePay(LocalDate startDate, LocalDate endDate) {
-        System.out.println("Calculating pay for " + this.getName() + " (ID: " + this.getId() + ")");
-        System.out.println("Period: " + startDate + " to " + endDate);
-        System.out.println("Hourly rate: PHP " + this.hourlyRate);
-        
-        // Check if we have attendance records
-        if (attendanceRecords.isEmpty()) {
-            System.out.println("WARNING: No attendance records found for this employee!");
-            System.out.println("Using fallback calculation method...");
+        NavigableMap<LocalDate, AttendanceRecord> periodRecords = attendanceRecords.subMap(startDate, true, endDate, true);
+        if (periodRecords.isEmpty()) {
             return calculatePayWithoutAttendance(startDate, endDate);
         }
         
-        // Filter attendance records for the specified period and sort by date
-        List<Map.Entry<LocalDate, AttendanceRecord>> periodRecords = attendanceRecords.entrySet().stream()
-            .filter(entry -> !entry.getKey().isBefore(startDate) && !entry.getKey().isAfter(endDate))
-            .sorted(Map.Entry.comparingByKey())
-            .collect(java.util.stream.Collectors.toList());
+        double totalBasePay = 0.0;
+        for (AttendanceRecord record : periodRecords.values()) {
+            double hoursForDay = record.getHoursWorked();
+            if (hoursForDay > 0) {
+                totalBasePay += hoursForDay * hourlyRate;
+            }
+        }
+        return totalBasePay;
+    }
+    
+    /**
+     * Explains how calculatePay arrives at the pay for a period
+     * Lists the hourly rate, each day's hours and pay, and the totals
+     * 
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @return Multi-line explanation of the pay calculation
+     */
+    public String explainPay(LocalDate startDate, LocalDate endDate) {
+        StringBuilder trace = new StringBuilder();
+        trace.append("Calculating pay for ").append(this.getName()).append(" (ID: ").append(this.getId()).append(")\n");
+        trace.append("Period: ").append(startDate).append(" to ").append(endDate).append('\n');
+        trace.append("Hourly rate: PHP ").append(this.hourlyRate).append('\n');
         
+        NavigableMap<LocalDate, AttendanceRecord> periodRecords = attendanceRecords.subMap(startDate, true, endDate, true);
         if (periodRecords.isEmpty()) {
-            System.out.println("WARNING: No attendance records found for the specified period!");
-            System.out.println("Using fallback calculation method...");
-            return calculatePayWithoutAttendance(startDate, endDate);
+            int days = WorkingDayCalendar.getDefault().countWorkingDays(startDate, endDate);
+            trace.append(attendanceRecords.isEmpty()
+                ? "WARNING: No attendance records found for this employee!\n"
+                : "WARNING: No attendance records found for the specified period!\n");
+            trace.append("WARNING: Using estimated pay calculation!\n");
+            trace.append("Workdays in period: ").append(days).append('\n');
+            trace.append(String.format("Estimated hours (8 per workday): %.2f%n", days * 8.0));
+            trace.append(String.format("Estimated pay: PHP %.2f%n", calculatePayWithoutAttendance(startDate, endDate)));
+            return trace.toString();
         }
         
-        System.out.println("Found " + periodRecords.size() + " attendance records in the specified period");
+        trace.append("Found ").append(periodRecords.size()).append(" attendance records in the specified period\n");
         
-        // Calculate total hours worked and pay for each day
         double totalHoursWorked = 0.0;
         double totalBasePay = 0.0;
-        
-        for (Map.Entry<LocalDate, AttendanceRecord> entry : periodRecords) {
-            LocalDate date = entry.getKey();
-            AttendanceRecord record = entry.getValue();
-            double hoursForDay = record.getHoursWorked();
-            
+        for (Map.Entry<LocalDate, AttendanceRecord> entry : periodRecords.entrySet()) {
+            double hoursForDay = entry.getValue().getHoursWorked();
             if (hoursForDay > 0) {
                 double payForDay = hoursForDay * hourlyRate;
                 totalHoursWorked += hoursForDay;
                 totalBasePay += payForDay;
-                
-                System.out.printf("  %s: %.2f hours × PHP %.2f = PHP %.2f%n", 
-                    date, hoursForDay, hourlyRate, payForDay);
+                trace.append(String.format("  %s: %.2f hours × PHP %.2f = PHP %.2f%n",
+                    entry.getKey(), hoursForDay, hourlyRate, payForDay));
             } else {
-                System.out.println("  " + date + ": No valid hours recorded (login/logout may be missing)");
+                trace.append("  ").append(entry.getKey()).append(": No valid hours recorded (login/logout may be missing)\n");
             }
         }
         
-        System.out.println("Total hours worked: " + totalHoursWorked);
-        System.out.println("Total base pay: PHP " + totalBasePay);
-        
-        // Add allowances if employee was present at least one day
-        double totalPay = totalBasePay;
+        trace.append(String.format("Total hours worked: %.2f%n", totalHoursWorked));
+        trace.append(String.format("Total base pay: PHP %.2f%n", totalBasePay));
         if (totalHoursWorked > 0) {
-            // Add allowances (these will be prorated in the Payroll class)
-            System.out.println("Employee was present during the period - eligible for allowances");
+            trace.append("Employee was present during the period - eligible for allowances\n");
         }
-        
-        return totalBasePay;
+        return trace.toString();
     }
     
     /**
      * Fallback method to calculate pay without attendance records
      * Used when no attendance records are available
+     * Assumes 8 hours per workday
      * 
      * @param startDate Start date of the period
      * @param endDate End date of the period
      * @return Estimated pay for the period
      */
     private double calculatePayWithoutAttendance(LocalDate startDate, LocalDate endDate) {
-        // Calculate number of workdays in the period (excluding weekends)
-        long days = 0;
-        LocalDate current = startDate;
-        while (!current.isAfter(endDate)) {
-            // Skip weekends (Saturday and Sunday)
-            if (current.getDayOfWeek().getValue() < 6) {
-                days++;
-            }
-            current = current.plusDays(1);
-        }
-        
-        // Assume 8 hours per workday
-        double estimatedHours = days * 8.0;
-        double estimatedPay = estimatedHours * hourlyRate;
-        
-        System.out.println("WARNING: Using estimated pay calculation!");
-        System.out.println("Workdays in period: " + days);
-        System.out.println("Estimated hours (8 per workday): " + estimatedHours);
-        System.out.println("Estimated pay: PHP " + estimatedPay);
-        
-        return estimatedPay;
+        // Workdays exclude weekends and holidays
+        return WorkingDayCalendar.getDefault().countWorkingDays(startDate, endDate) * 8.0 * hourlyRate;
     }
 
     /**
      * Calculates SSS deduction based on gross pay
-     * Uses the latest SSS contribution table (2023)
+     * Uses the SSS contribution table currently in force
      * 
      * @param grossPay The gross pay amount
      * @return SSS deduction amount
      */
     public double calculateSSSDeduction(double grossPay) {
-        // Latest SSS contribution table (2023)
-        if (grossPay <= 3250) return 135.00;
-        if (grossPay <= 4250) return 157.50;
-        if (grossPay <= 5250) return 180.00;
-        if (grossPay <= 6250) return 202.50;
-        if (grossPay <= 7250) return 225.00;
-        if (grossPay <= 8250) return 247.50;
-        if (grossPay <= 9250) return 270.00;
-        if (grossPay <= 10250) return 292.50;
-        if (grossPay <= 11250) return 315.00;
-        if (grossPay <= 12250) return 337.50;
-        if (grossPay <= 13250) return 360.00;
-        if (grossPay <= 14250) return 382.50;
-        if (grossPay <= 15250) return 405.00;
-        if (grossPay <= 16250) return 427.50;
-        if (grossPay <= 17250) return 450.00;
-        if (grossPay <= 18250) return 472.50;
-        if (grossPay <= 19250) return 495.00;
-        if (grossPay <= 20250) return 517.50;
-        if (grossPay <= 21250) return 540.00;
-        if (grossPay <= 22250) return 562.50;
-        if (grossPay <= 23250) return 585.00;
-        if (grossPay <= 24250) return 607.50;
-        return 630.00; // Maximum contribution
+        return SSSContributionTable.getDefault().lookup(grossPay);
+    }
+
+    /**
+     * Calculates SSS deduction based on gross pay for a specific pay period
+     * Uses the SSS contribution table that was in force on the given date,
+     * so older periods are recomputed with the rates that applied at the time
+     * 
+     * @param grossPay The gross pay amount
+     * @param periodDate A date within the pay period (usually the period end)
+     * @return SSS deduction amount
+     */
+    public double calculateSSSDeduction(double grossPay, LocalDate periodDate) {
+        return SSSContributionTable.getDefault().lookup(periodDate, grossPay);
     }
 
     /**
@@ -322,7 +351,7 @@ public class Employee extends Person implements Payable {
      */
     public double calculatePhilHealthDeduction(double grossPay) {
         // Latest PhilHealth contribution rate (2023) - 4%
-        return grossPay * 0.04;
+        return grossPay * PHILHEALTH_RATE;
     }
 
     /**
@@ -334,24 +363,30 @@ public class Employee extends Person implements Payable {
      */
     public double calculatePagIBIGDeduction(double grossPay) {
         // Latest Pag-IBIG contribution rate (2023) - 2% with 100 peso cap
-        return Math.min(grossPay * 0.02, 100);
+        return Math.min(grossPay * PAGIBIG_RATE, PAGIBIG_CAP);
     }
 
     /**
      * Calculates tax deduction based on gross pay
-     * Uses simplified tax calculation (2023), assumes no exemptions
+     * Uses the monthly BIR withholding tax table, assumes no exemptions
      * 
      * @param grossPay The gross pay amount
      * @return Tax deduction amount
      */
     public double calculateTaxDeduction(double grossPay) {
-        // Simplified tax calculation (2023), assumes no exemptions
-        if (grossPay <= 20833) return 0; // No tax for income up to 20,833
-        if (grossPay <= 33333) return (grossPay - 20833) * 0.20; // 20% of excess over 20,833
-        if (grossPay <= 66667) return 2500 + (grossPay - 33333) * 0.25; // 2,500 + 25% of excess over 33,333
-        if (grossPay <= 166667) return 10833.33 + (grossPay - 66667) * 0.30; // 10,833.33 + 30% of excess over 66,667
-        if (grossPay <= 666667) return 40833.33 + (grossPay - 166667) * 0.32; // 40,833.33 + 32% of excess over 166,667
-        return 200833.33 + (grossPay - 666667) * 0.35; // 200,833.33 + 35% of excess over 666,667
+        return calculateTaxDeduction(grossPay, WithholdingTaxTable.Periodicity.MONTHLY);
+    }
+
+    /**
+     * Calculates tax deduction based on gross pay for a given pay periodicity
+     * Uses the BIR withholding tax table for that periodicity, assumes no exemptions
+     * 
+     * @param grossPay The gross pay amount
+     * @param periodicity The pay periodicity the gross pay covers
+     * @return Tax deduction amount
+     */
+    public double calculateTaxDeduction(double grossPay, WithholdingTaxTable.Periodicity periodicity) {
+        return WithholdingTaxTable.getDefault().calculate(periodicity, grossPay);
     }
 
     /**
@@ -392,9 +427,12 @@ public class Employee extends Person implements Payable {
 
     /**
      * Converts employee data to CSV format for storage
+     * Every date and hours pair is appended to the row
      * 
      * @return CSV string representation of the employee
+     * @deprecated Use toDetailsCSV, with EmployeeCodec keeping hours in their own file
      */
+    @Deprecated
     public String toCSV() {
         StringBuilder csv = new StringBuilder();
         csv.append(employeeId).append(",")
@@ -415,8 +453,38 @@ public class Employee extends Person implements Payable {
         return csv.toString();
     }
 
+    /**
+     * Converts employee data to a row of the employee details file
+     * Fields follow the file's header order; fields containing commas are quoted
+     * 
+     * @return CSV row for the employee details file
+     */
+    public String toDetailsCSV() {
+        String[] fields = {
+            employeeId, getLastName(), getFirstName(), birthday, address, phoneNumber,
+            sssNumber, philHealthNumber, tin, pagIbigNumber, status, position, supervisor,
+            String.valueOf(basicSalary), String.valueOf(riceSubsidy), String.valueOf(phoneAllowance),
+            String.valueOf(clothingAllowance), String.valueOf(grossSemiMonthlyRate), String.valueOf(hourlyRate)
+        };
+        
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                csv.append(',');
+            }
+            String field = fields[i] != null ? fields[i].replace("\"", "") : "";
+            if (field.indexOf(',') >= 0) {
+                csv.append('"').append(field).append('"');
+            } else {
+                csv.append(field);
+            }
+        }
+        return csv.toString();
+    }
+
     /**
      * Creates an Employee object from CSV data
+     * Reads rows written by toCSV; EmployeeCodec uses it to migrate such files
      * 
      * @param csv CSV string containing employee data
      * @return New Employee object
@@ -581,9 +649,12 @@ public class Employee extends Person implements Payable {
      * @param loginTime The time of login
      */
     public void recordLogin(LocalDate date, LocalTime loginTime) {
-        AttendanceRecord record = attendanceRecords.getOrDefault(date, new AttendanceRecord());
+        AttendanceRecord record = removeFromMonthlySummary(date);
+        record.applyShiftRule(ShiftRule.forPosition(position));
         record.setLoginTime(loginTime);
         attendanceRecords.put(date, record);
+        monthlySummaries.computeIfAbsent(YearMonth.from(date), month -> new AttendanceSummary()).add(record);
+        attendanceVersion++;
         
         // If logout is already recorded, calculate hours worked
         if (record.getLogoutTime() != null) {
@@ -592,6 +663,8 @@ public class Employee extends Person implements Payable {
         
         // For debugging
         System.out.println("Recorded login for employee " + getId() + " on " + date + " at " + loginTime);
+        
+        notifyAttendanceChanged(date);
     }
     
     /**
@@ -601,9 +674,12 @@ public class Employee extends Person implements Payable {
      * @param logoutTime The time of logout
      */
     public void recordLogout(LocalDate date, LocalTime logoutTime) {
-        AttendanceRecord record = attendanceRecords.getOrDefault(date, new AttendanceRecord());
+        AttendanceRecord record = removeFromMonthlySummary(date);
+        record.applyShiftRule(ShiftRule.forPosition(position));
         record.setLogoutTime(logoutTime);
         attendanceRecords.put(date, record);
+        monthlySummaries.computeIfAbsent(YearMonth.from(date), month -> new AttendanceSummary()).add(record);
+        attendanceVersion++;
         
         // If login is already recorded, calculate hours worked
         if (record.getLoginTime() != null) {
@@ -612,6 +688,52 @@ public class Employee extends Person implements Payable {
         
         // For debugging
         System.out.println("Recorded logout for employee " + getId() + " on " + date + " at " + logoutTime);
+        
+        notifyAttendanceChanged(date);
+    }
+    
+    /**
+     * Takes a day's attendance record out of its month's counters before it changes
+     * 
+     * @param date The date of the attendance record
+     * @return The existing record, or a new record if the date has none
+     */
+    private AttendanceRecord removeFromMonthlySummary(LocalDate date) {
+        AttendanceRecord record = attendanceRecords.get(date);
+        if (record == null) {
+            return new AttendanceRecord();
+        }
+        monthlySummaries.get(YearMonth.from(date)).remove(record);
+        return record;
+    }
+    
+    /**
+     * Registers a listener to be notified of attendance changes
+     * 
+     * @param listener The listener to add
+     */
+    public void addAttendanceListener(AttendanceListener listener) {
+        attendanceListeners.add(listener);
+    }
+    
+    /**
+     * Removes a previously registered attendance listener
+     * 
+     * @param listener The listener to remove
+     */
+    public void removeAttendanceListener(AttendanceListener listener) {
+        attendanceListeners.remove(listener);
+    }
+    
+    /**
+     * Notifies all registered listeners that attendance changed on a date
+     * 
+     * @param date The date of the changed attendance record
+     */
+    private void notifyAttendanceChanged(LocalDate date) {
+        for (AttendanceListener listener : attendanceListeners) {
+            listener.attendanceChanged(this, date);
+        }
     }
     
     /**
@@ -654,12 +776,114 @@ public class Employee extends Person implements Payable {
         return new HashMap<>(attendanceRecords);
     }
     
+    /**
+     * Gets the attendance records within a period without copying them
+     * 
+     * @param startDate Start date of the period (inclusive)
+     * @param endDate End date of the period (inclusive)
+     * @return Read-only view of the period's records, ordered by date
+     */
+    public SortedMap<LocalDate, AttendanceRecord> getAttendanceRecords(LocalDate startDate, LocalDate endDate) {
+        return Collections.unmodifiableSortedMap(attendanceRecords.subMap(startDate, true, endDate, true));
+    }
+    
+    /**
+     * Counts attendance classifications for a period
+     * Whole months are read from the monthly counters; only the days of
+     * months cut by the start or end of the period are scanned
+     * 
+     * @param startDate Start date of the period (inclusive)
+     * @param endDate End date of the period (inclusive)
+     * @return Counters for the period
+     */
+    public AttendanceSummary getAttendanceSummary(LocalDate startDate, LocalDate endDate) {
+        AttendanceSummary summary = new AttendanceSummary();
+        if (endDate.isBefore(startDate)) {
+            return summary;
+        }
+        for (Map.Entry<YearMonth, AttendanceSummary> entry
+                : monthlySummaries.subMap(YearMonth.from(startDate), true, YearMonth.from(endDate), true).entrySet()) {
+            YearMonth month = entry.getKey();
+            LocalDate first = month.atDay(1);
+            LocalDate last = month.atEndOfMonth();
+            if (!first.isBefore(startDate) && !last.isAfter(endDate)) {
+                summary.merge(entry.getValue());
+            } else {
+                LocalDate from = first.isBefore(startDate) ? startDate : first;
+                LocalDate to = last.isAfter(endDate) ? endDate : last;
+                for (AttendanceRecord record : attendanceRecords.subMap(from, true, to, true).values()) {
+                    summary.add(record);
+                }
+            }
+        }
+        return summary;
+    }
+    
+    /**
+     * Gets the attendance counters for one month
+     * 
+     * @param month The month
+     * @return Counters for the month, or empty counters if it has no records
+     */
+    public AttendanceSummary getMonthlySummary(YearMonth month) {
+        AttendanceSummary summary = new AttendanceSummary();
+        AttendanceSummary stored = monthlySummaries.get(month);
+        if (stored != null) {
+            summary.merge(stored);
+        }
+        return summary;
+    }
+    
+    /**
+     * Gets the attendance version of this employee
+     * The version changes every time a login or logout is recorded
+     * 
+     * @return The attendance version
+     */
+    public long getAttendanceVersion() {
+        return attendanceVersion;
+    }
+
+    /**
+     * Gets the compensation version of this employee
+     * The version changes every time an allowance is changed
+     * 
+     * @return The compensation version
+     */
+    public long getCompensationVersion() {
+        return compensationVersion;
+    }
+    
     /**
      * Inner class to represent a daily attendance record with login and logout times
+     * 
+     * Hours worked and the day's classification are computed whenever a time is set,
+     * using the shift rule for the employee's position, and stored as compact flags
      */
     public static class AttendanceRecord {
+        /** Flag set when the day has positive hours worked */
+        public static final int PRESENT = 1;
+        /** Flag set when the login is after the shift start */
+        public static final int LATE = 1 << 1;
+        /** Flag set when the logout is after the shift end */
+        public static final int OVERTIME = 1 << 2;
+        /** Flag set when a present day ends before the shift end */
+        public static final int UNDERTIME = 1 << 3;
+        /** Flag set when the hours worked reach a full day */
+        public static final int COMPLETE = 1 << 4;
+
         private LocalTime loginTime;
         private LocalTime logoutTime;
+        /** Shift rule used to classify the day */
+        private ShiftRule shiftRule = ShiftRule.STANDARD;
+        /** Classification flags for the day */
+        private byte flags;
+        /** Minutes between login and logout, or 0 if either is missing */
+        private int minutesWorked;
+        /** Minutes after the shift start the login happened */
+        private int lateMinutes;
+        /** Minutes after the shift end the logout happened */
+        private int overtimeMinutes;
         
         /**
          * Gets the login time
@@ -677,6 +901,7 @@ public class Employee extends Person implements Payable {
          */
         public void setLoginTime(LocalTime loginTime) {
             this.loginTime = loginTime;
+            classify();
         }
         
         /**
@@ -695,6 +920,7 @@ public class Employee extends Person implements Payable {
          */
         public void setLogoutTime(LocalTime logoutTime) {
             this.logoutTime = logoutTime;
+            classify();
         }
         
         /**
@@ -703,12 +929,115 @@ public class Employee extends Person implements Payable {
          * @return Hours worked or 0 if login or logout is missing
          */
         public double getHoursWorked() {
-            if (loginTime == null || logoutTime == null) {
-                return 0;
+            return minutesWorked / 60.0;
+        }
+        
+        /**
+         * Sets the shift rule used to classify the day and reclassifies it
+         * 
+         * @param shiftRule The shift rule for the employee's position
+         */
+        void applyShiftRule(ShiftRule shiftRule) {
+            if (shiftRule != this.shiftRule) {
+                this.shiftRule = shiftRule;
+                classify();
             }
+        }
+        
+        /**
+         * Computes hours worked and the day's flags from the login and logout times
+         */
+        private void classify() {
+            int dayFlags = 0;
+            minutesWorked = 0;
+            lateMinutes = 0;
+            overtimeMinutes = 0;
             
-            Duration duration = Duration.between(loginTime, logoutTime);
-            return duration.toMinutes() / 60.0;
+            if (loginTime != null && logoutTime != null) {
+                minutesWorked = (int) Duration.between(loginTime, logoutTime).toMinutes();
+            }
+            if (minutesWorked > 0) {
+                dayFlags |= PRESENT;
+                if (minutesWorked >= shiftRule.getFullDayHours() * 60) {
+                    dayFlags |= COMPLETE;
+                }
+                if (logoutTime.isBefore(shiftRule.getShiftEnd())) {
+                    dayFlags |= UNDERTIME;
+                }
+            }
+            if (loginTime != null && loginTime.isAfter(shiftRule.getShiftStart())) {
+                dayFlags |= LATE;
+                lateMinutes = (int) Duration.between(shiftRule.getShiftStart(), loginTime).toMinutes();
+            }
+            if (logoutTime != null && logoutTime.isAfter(shiftRule.getShiftEnd())) {
+                dayFlags |= OVERTIME;
+                overtimeMinutes = (int) Duration.between(shiftRule.getShiftEnd(), logoutTime).toMinutes();
+            }
+            flags = (byte) dayFlags;
+        }
+        
+        /**
+         * Gets the day's classification flags
+         * 
+         * @return Bitwise combination of PRESENT, LATE, OVERTIME, UNDERTIME and COMPLETE
+         */
+        public int getFlags() {
+            return flags;
+        }
+        
+        /**
+         * Checks whether a classification flag is set
+         * 
+         * @param flag One of the flag constants
+         * @return true if the flag is set
+         */
+        public boolean hasFlag(int flag) {
+            return (flags & flag) != 0;
+        }
+        
+        /**
+         * Checks whether the employee logged in after the shift start
+         * 
+         * @return true if late
+         */
+        public boolean isLate() {
+            return hasFlag(LATE);
+        }
+        
+        /**
+         * Checks whether the employee logged out after the shift end
+         * 
+         * @return true if overtime
+         */
+        public boolean isOvertime() {
+            return hasFlag(OVERTIME);
+        }
+        
+        /**
+         * Gets the day's status from its hours worked
+         * 
+         * @return COMPLETE, PARTIAL or ABSENT
+         */
+        public String getStatus() {
+            return hasFlag(COMPLETE) ? "COMPLETE" : hasFlag(PRESENT) ? "PARTIAL" : "ABSENT";
+        }
+        
+        /**
+         * Gets the minutes the login was after the shift start
+         * 
+         * @return Late minutes, or 0 if not late
+         */
+        public int getLateMinutes() {
+            return lateMinutes;
+        }
+        
+        /**
+         * Gets the hours worked after the shift end
+         * 
+         * @return Overtime hours, or 0 if no overtime
+         */
+        public double getOvertimeHours() {
+            return overtimeMinutes / 60.0;
         }
         
         /**
@@ -723,6 +1052,183 @@ public class Employee extends Person implements Payable {
         }
     }
 
+    /**
+     * Inner class holding attendance counters for a period
+     * Counters are built from the precomputed flags of each attendance record,
+     * and a record can be taken back out so monthly counters follow later punches
+     */
+    public static class AttendanceSummary {
+        private int daysRecorded;
+        private int daysIncomplete;
+        private int daysPresent;
+        private int daysLate;
+        private int daysOvertime;
+        private int daysUndertime;
+        private int daysComplete;
+        private long minutesWorked;
+        private long lateMinutes;
+        private long overtimeMinutes;
+        
+        /**
+         * Adds one attendance record to the counters
+         * Lateness, overtime and undertime only count on days with hours worked
+         * 
+         * @param record The attendance record
+         */
+        void add(AttendanceRecord record) {
+            count(record, 1);
+        }
+        
+        /**
+         * Takes one attendance record, previously added, back out of the counters
+         * 
+         * @param record The attendance record, unchanged since it was added
+         */
+        void remove(AttendanceRecord record) {
+            count(record, -1);
+        }
+        
+        /**
+         * Adds another summary's counters to these counters
+         * 
+         * @param other The summary to add
+         */
+        void merge(AttendanceSummary other) {
+            daysRecorded += other.daysRecorded;
+            daysIncomplete += other.daysIncomplete;
+            daysPresent += other.daysPresent;
+            daysLate += other.daysLate;
+            daysOvertime += other.daysOvertime;
+            daysUndertime += other.daysUndertime;
+            daysComplete += other.daysComplete;
+            minutesWorked += other.minutesWorked;
+            lateMinutes += other.lateMinutes;
+            overtimeMinutes += other.overtimeMinutes;
+        }
+        
+        /**
+         * Adds or subtracts one attendance record's contribution to the counters
+         * 
+         * @param record The attendance record
+         * @param sign 1 to add the record, -1 to remove it
+         */
+        private void count(AttendanceRecord record, int sign) {
+            daysRecorded += sign;
+            if ((record.getLoginTime() == null) != (record.getLogoutTime() == null)) {
+                daysIncomplete += sign;
+            }
+            if (!record.hasFlag(AttendanceRecord.PRESENT)) {
+                return;
+            }
+            daysPresent += sign;
+            minutesWorked += sign * record.minutesWorked;
+            if (record.hasFlag(AttendanceRecord.LATE)) {
+                daysLate += sign;
+                lateMinutes += sign * record.lateMinutes;
+            }
+            if (record.hasFlag(AttendanceRecord.OVERTIME)) {
+                daysOvertime += sign;
+                overtimeMinutes += sign * record.overtimeMinutes;
+            }
+            if (record.hasFlag(AttendanceRecord.UNDERTIME)) {
+                daysUndertime += sign;
+            }
+            if (record.hasFlag(AttendanceRecord.COMPLETE)) {
+                daysComplete += sign;
+            }
+        }
+        
+        /**
+         * Gets the number of attendance records in the period
+         * 
+         * @return Number of attendance records in the period
+         */
+        public int getDaysRecorded() {
+            return daysRecorded;
+        }
+        
+        /**
+         * Gets the number of days with only a login or only a logout
+         * 
+         * @return Number of days missing a punch
+         */
+        public int getDaysIncomplete() {
+            return daysIncomplete;
+        }
+        
+        /**
+         * Gets the number of days with hours worked
+         * 
+         * @return Number of days with hours worked
+         */
+        public int getDaysPresent() {
+            return daysPresent;
+        }
+        
+        /**
+         * Gets the number of present days with a late login
+         * 
+         * @return Number of present days with a late login
+         */
+        public int getDaysLate() {
+            return daysLate;
+        }
+        
+        /**
+         * Gets the number of present days with overtime
+         * 
+         * @return Number of present days with overtime
+         */
+        public int getDaysOvertime() {
+            return daysOvertime;
+        }
+        
+        /**
+         * Gets the number of present days ending before the shift end
+         * 
+         * @return Number of present days ending before the shift end
+         */
+        public int getDaysUndertime() {
+            return daysUndertime;
+        }
+        
+        /**
+         * Gets the number of days with a full day's hours
+         * 
+         * @return Number of days with a full day's hours
+         */
+        public int getDaysComplete() {
+            return daysComplete;
+        }
+        
+        /**
+         * Gets the total hours worked on present days
+         * 
+         * @return Total hours worked on present days
+         */
+        public double getTotalHours() {
+            return minutesWorked / 60.0;
+        }
+        
+        /**
+         * Gets the total minutes late on present days
+         * 
+         * @return Total minutes late on present days
+         */
+        public long getLateMinutes() {
+            return lateMinutes;
+        }
+        
+        /**
+         * Gets the total overtime hours on present days
+         * 
+         * @return Total overtime hours on present days
+         */
+        public double getOvertimeHours() {
+            return overtimeMinutes / 60.0;
+        }
+    }
+
     /**
      * Gets the employee's basic monthly salary
      * 
@@ -757,6 +1263,7 @@ public class Employee extends Person implements Payable {
      */
     public void setRiceSubsidy(double riceSubsidy) {
         this.riceSubsidy = riceSubsidy;
+        compensationVersion++;
     }
     
     /**
@@ -775,6 +1282,7 @@ public class Employee extends Person implements Payable {
      */
     public void setPhoneAllowance(double phoneAllowance) {
         this.phoneAllowance = phoneAllowance;
+        compensationVersion++;
     }
     
     /**
@@ -793,6 +1301,7 @@ public class Employee extends Person implements Payable {
      */
     public void setClothingAllowance(double clothingAllowance) {
         this.clothingAllowance = clothingAllowance;
+        compensationVersion++;
     }
     
     /**
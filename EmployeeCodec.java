@@ -0,0 +1,417 @@
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * EmployeeCodec reads and writes each employee's hours worked beside the employee data file.
+ *
+ * This class is responsible for:
+ * - Writing per-day hours to a versioned CSV file, or a compact binary file, next to the employee data file
+ * - Reading the hours back by employee number, detecting which of the two formats the file uses
+ * - Detecting an employee data file in the old inline format, which Employee.toCSV wrote
+ * - Migrating such a file to the employee details layout and the hours file
+ *
+ * Employee data file (schema 2): the employee details header row, then one
+ * details row per employee, as written by Employee.toDetailsCSV
+ * Text hours file ("<data file name> Hours.csv"): "#MotorPH Hours v2", a header row,
+ * then one row per employee and date
+ * Fields containing commas or quotes are quoted, with quotes doubled.
+ * Binary hours file ("<data file name> Hours.bin"): magic "MPHB" (int), schema
+ * version (int), employee count (int), then per employee its number (UTF),
+ * day count (int) and that many epoch day (long) and hours (double) pairs.
+ * Reading it needs no date or number parsing.
+ *
+ * Only one hours file is kept; writing one format removes the other. If a
+ * crash leaves both, the newer one is read.
+ *
+ * The old inline format (schema 1) has no header row and appends every date
+ * and hours pair to the employee's row. Migrating it backs the file up as
+ * "<data file>.v1" and rewrites it in the current format.
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class EmployeeCodec {
+    /** Schema version written by this codec */
+    public static final int SCHEMA_VERSION = 2;
+
+    /** Start of the header row of an employee data file in the details layout */
+    private static final String DETAILS_HEADER_PREFIX = "Employee #,";
+    /** Start of the version line of an hours file */
+    private static final String HOURS_VERSION_PREFIX = "#MotorPH Hours v";
+    private static final String HOURS_HEADER = "Employee #,Date,Hours";
+    /** Marks a binary hours file, "MPHB" in ASCII */
+    private static final int BINARY_MAGIC = 0x4D504842;
+
+    /**
+     * Encodings an hours file can use
+     */
+    public enum HoursFormat {
+        /** Versioned CSV, readable in a spreadsheet */
+        TEXT(" Hours.csv"),
+        /** Compact binary, read without parsing */
+        BINARY(" Hours.bin");
+
+        /** Ending added to the employee data file name */
+        private final String suffix;
+
+        HoursFormat(String suffix) {
+            this.suffix = suffix;
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private EmployeeCodec() {
+    }
+
+    /**
+     * Gets the hours file in a format that goes with an employee data file
+     *
+     * @param rosterPath Path to the employee data file
+     * @param format The hours file format
+     * @return Path to the hours file
+     */
+    public static String hoursPath(String rosterPath, HoursFormat format) {
+        String base = rosterPath.toLowerCase().endsWith(".csv")
+            ? rosterPath.substring(0, rosterPath.length() - 4) : rosterPath;
+        return base + format.suffix;
+    }
+
+    /**
+     * Writes every employee's hours worked to the hours file, removing an hours file in the other format
+     *
+     * @param rosterPath Path to the employee data file the hours belong to
+     * @param employees The employees
+     * @param format The hours file format to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeHours(String rosterPath, List<Employee> employees, HoursFormat format)
+            throws IOException {
+        Path path = Paths.get(hoursPath(rosterPath, format));
+        if (format == HoursFormat.BINARY) {
+            writeBinaryHours(path, employees);
+        } else {
+            writeTextHours(path, employees);
+        }
+        for (HoursFormat other : HoursFormat.values()) {
+            if (other != format) {
+                Files.deleteIfExists(Paths.get(hoursPath(rosterPath, other)));
+            }
+        }
+    }
+
+    /**
+     * Reads the hours file, in whichever format it was written
+     * A missing hours file means no hours are recorded
+     *
+     * @param rosterPath Path to the employee data file the hours belong to
+     * @return Map of employee ID to that employee's hours by date
+     * @throws IOException if the file cannot be read, or was written by a newer schema
+     */
+    public static Map<String, Map<LocalDate, Double>> readHours(String rosterPath) throws IOException {
+        Path path = null;
+        for (HoursFormat format : HoursFormat.values()) {
+            Path candidate = Paths.get(hoursPath(rosterPath, format));
+            if (Files.exists(candidate) && (path == null
+                    || Files.getLastModifiedTime(candidate).compareTo(Files.getLastModifiedTime(path)) > 0)) {
+                path = candidate;
+            }
+        }
+        if (path == null) {
+            return new HashMap<>();
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 65536))) {
+            boolean binary;
+            try {
+                binary = in.readInt() == BINARY_MAGIC;
+            } catch (EOFException e) {
+                binary = false;
+            }
+            if (binary) {
+                return readBinaryHours(in, path.toString());
+            }
+        }
+        return readTextHours(path);
+    }
+
+    /**
+     * Writes the hours as a versioned CSV file
+     *
+     * @param path Path to the hours file
+     * @param employees The employees
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeTextHours(Path path, List<Employee> employees) throws IOException {
+        AtomicFileWriter.writeAtomically(path, channel -> {
+            Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), Charset.defaultCharset()));
+            writeLine(out, HOURS_VERSION_PREFIX + SCHEMA_VERSION);
+            writeLine(out, HOURS_HEADER);
+            for (Employee employee : employees) {
+                for (Map.Entry<LocalDate, Double> entry : new TreeMap<>(employee.getHoursWorked()).entrySet()) {
+                    writeLine(out, quote(employee.getId()) + "," + entry.getKey() + "," + entry.getValue());
+                }
+            }
+            out.flush();
+        });
+    }
+
+    /**
+     * Writes the hours as a binary file
+     *
+     * @param path Path to the hours file
+     * @param employees The employees
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeBinaryHours(Path path, List<Employee> employees) throws IOException {
+        AtomicFileWriter.writeAtomically(path, channel -> {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 65536));
+            out.writeInt(BINARY_MAGIC);
+            out.writeInt(SCHEMA_VERSION);
+            out.writeInt(employees.size());
+            for (Employee employee : employees) {
+                Map<LocalDate, Double> days = employee.getHoursWorked();
+                out.writeUTF(nullToEmpty(employee.getId()));
+                out.writeInt(days.size());
+                for (Map.Entry<LocalDate, Double> entry : days.entrySet()) {
+                    out.writeLong(entry.getKey().toEpochDay());
+                    out.writeDouble(entry.getValue());
+                }
+            }
+            out.flush();
+        });
+    }
+
+    /**
+     * Reads a binary hours file after its magic number
+     *
+     * @param in Stream positioned after the magic number
+     * @param path Path to the file, used in messages
+     * @return Map of employee ID to that employee's hours by date
+     * @throws IOException if the file is cut short or was written by a newer schema
+     */
+    private static Map<String, Map<LocalDate, Double>> readBinaryHours(DataInputStream in, String path)
+            throws IOException {
+        int version = in.readInt();
+        if (version > SCHEMA_VERSION) {
+            throw new IOException("Hours schema " + version + " is newer than supported (" + SCHEMA_VERSION + "): "
+                + path);
+        }
+        int employees = in.readInt();
+        Map<String, Map<LocalDate, Double>> hours = new HashMap<>(employees * 2);
+        for (int i = 0; i < employees; i++) {
+            String employeeId = in.readUTF();
+            int days = in.readInt();
+            Map<LocalDate, Double> recorded = new HashMap<>(days * 2);
+            for (int d = 0; d < days; d++) {
+                recorded.put(LocalDate.ofEpochDay(in.readLong()), in.readDouble());
+            }
+            hours.put(employeeId, recorded);
+        }
+        return hours;
+    }
+
+    /**
+     * Reads a versioned CSV hours file
+     *
+     * @param path Path to the hours file
+     * @return Map of employee ID to that employee's hours by date
+     * @throws IOException if the file cannot be read, or was written by a newer schema
+     */
+    private static Map<String, Map<LocalDate, Double>> readTextHours(Path path) throws IOException {
+        String hoursPath = path.toString();
+        Map<String, Map<LocalDate, Double>> hours = new HashMap<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(path.toFile()))) {
+            String versionLine = br.readLine();
+            if (versionLine == null || !versionLine.startsWith(HOURS_VERSION_PREFIX)) {
+                throw new IOException("Not an hours file: " + hoursPath);
+            }
+            checkVersion(versionLine, HOURS_VERSION_PREFIX, hoursPath);
+            br.readLine(); // Skip header row
+
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                List<String> fields = parseRow(line);
+                try {
+                    if (fields.size() != 3) {
+                        throw new IllegalArgumentException("Expected 3 fields, got " + fields.size());
+                    }
+                    hours.computeIfAbsent(fields.get(0), id -> new HashMap<>())
+                         .put(LocalDate.parse(fields.get(1)), Double.parseDouble(fields.get(2)));
+                } catch (DateTimeParseException | IllegalArgumentException e) {
+                    System.out.println("Skipping invalid hours entry: " + line);
+                }
+            }
+        }
+        return hours;
+    }
+
+    /**
+     * Checks whether an employee data file is in the old inline format
+     *
+     * @param rosterPath Path to the employee data file
+     * @return true if the file's first row is not a details header row
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isInlineFormat(String rosterPath) throws IOException {
+        Path path = Paths.get(rosterPath);
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (BufferedReader br = new BufferedReader(new FileReader(path.toFile()))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    return !line.startsWith(DETAILS_HEADER_PREFIX);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Migrates an employee data file in the old inline format to the current format
+     * The old file is kept as "<data file>.v1"; the hours are written first, so a
+     * migrated data file always has its hours beside it
+     *
+     * @param rosterPath Path to the employee data file
+     * @param header Header row of the employee details layout
+     * @param format The hours file format to write
+     * @return The migrated employees, with their hours
+     * @throws IOException if a file cannot be read or written
+     */
+    public static List<Employee> migrateInline(String rosterPath, String header, HoursFormat format)
+            throws IOException {
+        Path path = Paths.get(rosterPath);
+        List<Employee> employees = readInline(path);
+        System.out.println("Migrating " + employees.size() + " employees in " + rosterPath
+            + " to employee data schema " + SCHEMA_VERSION + ".");
+        Files.copy(path, Paths.get(rosterPath + ".v1"), StandardCopyOption.REPLACE_EXISTING);
+        writeHours(rosterPath, employees, format);
+        AtomicFileWriter.writeAtomically(path, channel -> {
+            Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), Charset.defaultCharset()));
+            writeLine(out, header);
+            for (Employee employee : employees) {
+                writeLine(out, employee.toDetailsCSV());
+            }
+            out.flush();
+        });
+        return employees;
+    }
+
+    /**
+     * Reads an employee data file in the old inline format
+     *
+     * @param path Path to the file
+     * @return The employees
+     * @throws IOException if the file cannot be read
+     */
+    private static List<Employee> readInline(Path path) throws IOException {
+        List<Employee> employees = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(path.toFile()))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    employees.add(Employee.fromCSV(line));
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Skipping invalid employee entry: " + line);
+                    System.out.println("Error: " + e.getMessage());
+                }
+            }
+        }
+        return employees;
+    }
+
+    /**
+     * Checks that a file's version line names a schema this codec can read
+     *
+     * @param versionLine The file's first line
+     * @param prefix Expected start of the line
+     * @param path Path to the file, used in messages
+     * @throws IOException if the version is missing or newer than SCHEMA_VERSION
+     */
+    private static void checkVersion(String versionLine, String prefix, String path) throws IOException {
+        int version;
+        try {
+            version = Integer.parseInt(versionLine.substring(prefix.length()).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid schema version line in " + path + ": " + versionLine);
+        }
+        if (version > SCHEMA_VERSION) {
+            throw new IOException("Hours schema " + version + " is newer than supported (" + SCHEMA_VERSION + "): "
+                + path);
+        }
+    }
+
+    /**
+     * Quotes a field if it holds a comma or quote
+     *
+     * @param field The field, may be null
+     * @return The field as written to the file
+     */
+    private static String quote(String field) {
+        String value = nullToEmpty(field).replace('\r', ' ').replace('\n', ' ');
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Splits a row into fields, undoing the quoting done by quote
+     *
+     * @param line The row
+     * @return The row's fields
+     */
+    private static List<String> parseRow(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
+            } else if (c == ',' && !inQuotes) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static void writeLine(Writer out, String line) throws IOException {
+        out.write(line);
+        out.write(System.lineSeparator());
+    }
+}
@@ -0,0 +1,397 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * EmployeeIndex maps employee numbers to where their rows are in the data files.
+ *
+ * This class is responsible for:
+ * - Writing a sorted index with one fixed-width entry per employee
+ * - Finding one employee's entry by binary search, reading only the probed entries
+ * - Telling whether the data files have changed since the index was written
+ * - Reading the bytes of a row or a range of rows from a data file
+ *
+ * File format (little-endian):
+ * Header (HEADER_SIZE bytes): magic "MPEI", version, entry count, unused, then the
+ * length and last-modified time of the employee data file and the attendance file
+ * Entry (ENTRY_SIZE bytes): employee number (KEY_SIZE bytes, zero padded),
+ * details row offset (long), details row length (int), unused (int),
+ * attendance range start (long), attendance range end (long)
+ *
+ * An employee's attendance range runs from its first to its last row in the
+ * attendance file and may include other employees' rows. A start of -1 means
+ * the rows cannot be found by employee number alone.
+ *
+ * The index is read with positional reads and never mapped, so the file is not
+ * held open between lookups and can be replaced by the next rebuild on any platform.
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class EmployeeIndex {
+    /** Size of the file header in bytes */
+    static final int HEADER_SIZE = 48;
+    /** Size of each entry in bytes */
+    static final int ENTRY_SIZE = 48;
+    /** Largest employee number in bytes */
+    static final int KEY_SIZE = 16;
+
+    /** Marks an index file, "MPEI" in ASCII */
+    private static final int MAGIC = 0x4D504549;
+    private static final int VERSION = 1;
+
+    /** Path to the index file */
+    private final Path file;
+    private final int count;
+    private final long detailsLength;
+    private final long detailsModified;
+    private final long attendanceLength;
+    private final long attendanceModified;
+
+    /**
+     * Constructs an index from its file header
+     *
+     * @param file Path to the index file
+     * @param header The file header
+     */
+    private EmployeeIndex(Path file, ByteBuffer header) {
+        this.file = file;
+        this.count = header.getInt(8);
+        this.detailsLength = header.getLong(16);
+        this.detailsModified = header.getLong(24);
+        this.attendanceLength = header.getLong(32);
+        this.attendanceModified = header.getLong(40);
+    }
+
+    /**
+     * Opens an index file, reading its header
+     *
+     * @param path Path to the index file
+     * @return The index, or null if the file does not exist
+     * @throws IOException if the file cannot be read or is not an index file
+     */
+    public static EmployeeIndex open(String path) throws IOException {
+        File file = new File(path);
+        if (!file.exists()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Employee index is cut short: " + path);
+            }
+            ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not an employee index: " + path);
+            }
+            if (size != HEADER_SIZE + (long) header.getInt(8) * ENTRY_SIZE) {
+                throw new IOException("Employee index is cut short: " + path);
+            }
+            return new EmployeeIndex(file.toPath(), header);
+        }
+    }
+
+    /**
+     * Writes an index for the current data files
+     *
+     * @param path Path to the index file
+     * @param entries One entry per employee, in any order
+     * @param detailsFile The employee data file the entries point into
+     * @param attendanceFile The attendance file the entries point into
+     * @throws IOException if the index cannot be written
+     */
+    public static void write(String path, List<Entry> entries, File detailsFile, File attendanceFile)
+            throws IOException {
+        List<Entry> sorted = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.employeeId.getBytes(StandardCharsets.UTF_8).length <= KEY_SIZE) {
+                sorted.add(entry); // Longer employee numbers are looked up without the index
+            }
+        }
+        sorted.sort(Comparator.comparing((Entry entry) -> entry.employeeId));
+
+        AtomicFileWriter.writeAtomically(Paths.get(path), channel -> {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(sorted.size()).putInt(0)
+                  .putLong(detailsFile.length()).putLong(detailsFile.lastModified())
+                  .putLong(attendanceFile.length()).putLong(attendanceFile.lastModified());
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 65536);
+            out.write(header.array());
+
+            ByteBuffer record = ByteBuffer.allocate(ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            for (Entry entry : sorted) {
+                record.clear();
+                record.put(entry.employeeId.getBytes(StandardCharsets.UTF_8));
+                record.position(KEY_SIZE);
+                record.putLong(entry.detailsOffset).putInt(entry.detailsLength).putInt(0)
+                      .putLong(entry.attendanceStart).putLong(entry.attendanceEnd);
+                out.write(record.array());
+            }
+            out.flush();
+        });
+    }
+
+    /**
+     * Checks whether the data files are exactly as they were when the index was written
+     *
+     * @param detailsFile The employee data file
+     * @param attendanceFile The attendance file
+     * @return true if the index still points at the right rows
+     */
+    public boolean isCurrent(File detailsFile, File attendanceFile) {
+        return detailsFile.length() == detailsLength && detailsFile.lastModified() == detailsModified
+            && attendanceFile.length() == attendanceLength && attendanceFile.lastModified() == attendanceModified;
+    }
+
+    /**
+     * Finds an employee's entry by binary search
+     * Only the entries the search probes are read
+     *
+     * @param employeeId The employee number, matched exactly
+     * @return The entry, or null if the employee is not indexed
+     * @throws IOException if the index file cannot be read or has been replaced since it was opened
+     */
+    public Entry find(String employeeId) throws IOException {
+        byte[] key = employeeId.getBytes(StandardCharsets.UTF_8);
+        if (key.length > KEY_SIZE) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != HEADER_SIZE + (long) count * ENTRY_SIZE) {
+                throw new IOException("Employee index changed while in use: " + file);
+            }
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                ByteBuffer entry = readFully(channel, HEADER_SIZE + (long) middle * ENTRY_SIZE, ENTRY_SIZE);
+                int comparison = compareKey(entry, key);
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else if (comparison > 0) {
+                    high = middle - 1;
+                } else {
+                    return new Entry(employeeId, entry.getLong(KEY_SIZE), entry.getInt(KEY_SIZE + 8),
+                                     entry.getLong(KEY_SIZE + 16), entry.getLong(KEY_SIZE + 24));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of employees in the index
+     *
+     * @return Entry count
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Compares a stored employee number with a key as unsigned bytes, like String order for ASCII
+     *
+     * @param entry The entry, starting with the stored employee number
+     * @param key The key, at most KEY_SIZE bytes
+     * @return Negative, zero or positive as the stored number is below, equal to or above the key
+     */
+    private static int compareKey(ByteBuffer entry, byte[] key) {
+        for (int i = 0; i < KEY_SIZE; i++) {
+            int stored = entry.get(i) & 0xFF;
+            int wanted = i < key.length ? key[i] & 0xFF : 0;
+            if (stored != wanted) {
+                return stored - wanted;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Reads a range of the index file into a little-endian buffer
+     *
+     * @param channel The open index file
+     * @param position Position of the first byte
+     * @param length Number of bytes
+     * @return Buffer holding the bytes
+     * @throws IOException if the file ends before the range does
+     */
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Employee index is cut short");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Reads a range of bytes from a data file as text
+     *
+     * @param file The data file
+     * @param offset Position of the first byte
+     * @param length Number of bytes
+     * @return The text, in the platform charset the data files use
+     * @throws IOException if the file cannot be read
+     */
+    public static String readText(File file, long offset, long length) throws IOException {
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IOException("Invalid range in " + file.getPath() + ": " + length + " bytes");
+        }
+        ByteBuffer bytes = ByteBuffer.allocate((int) length);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, offset + bytes.position()) < 0) {
+                    throw new EOFException("Data file ends early: " + file.getPath());
+                }
+            }
+        }
+        bytes.flip();
+        return Charset.defaultCharset().decode(bytes).toString();
+    }
+
+    /**
+     * Passes every line of a data file to a visitor with its byte position
+     *
+     * @param file The data file
+     * @param visitor Visitor receiving each line
+     * @throws IOException if the file cannot be read
+     */
+    public static void scanLines(File file, LineVisitor visitor) throws IOException {
+        Charset charset = Charset.defaultCharset();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), 65536)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long lineStart = 0;
+            long position = 0;
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                if (b == '\n') {
+                    visitor.visit(lineStart, (int) (position - lineStart), decodeLine(line, charset));
+                    line.reset();
+                    lineStart = position;
+                } else {
+                    line.write(b);
+                }
+            }
+            if (position > lineStart) {
+                visitor.visit(lineStart, (int) (position - lineStart), decodeLine(line, charset));
+            }
+        }
+    }
+
+    /**
+     * Decodes a line's bytes, dropping a trailing carriage return
+     */
+    private static String decodeLine(ByteArrayOutputStream line, Charset charset) {
+        String text = new String(line.toByteArray(), charset);
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    /**
+     * Interface for code receiving the lines of a data file
+     */
+    public interface LineVisitor {
+        /**
+         * Receives one line
+         *
+         * @param offset Byte position of the line
+         * @param length Length of the line in bytes, line break included
+         * @param line The line's text without its line break
+         */
+        void visit(long offset, int length, String line);
+    }
+
+    /**
+     * Inner class holding where one employee's rows are in the data files
+     */
+    public static class Entry {
+        private final String employeeId;
+        private final long detailsOffset;
+        private final int detailsLength;
+        private long attendanceStart;
+        private long attendanceEnd;
+
+        /**
+         * Constructs an entry
+         *
+         * @param employeeId The employee number
+         * @param detailsOffset Byte position of the employee's details row
+         * @param detailsLength Length of the details row in bytes
+         * @param attendanceStart Byte position of the employee's first attendance row, or -1
+         * @param attendanceEnd Byte position just past the employee's last attendance row
+         */
+        public Entry(String employeeId, long detailsOffset, int detailsLength, long attendanceStart,
+                     long attendanceEnd) {
+            this.employeeId = employeeId;
+            this.detailsOffset = detailsOffset;
+            this.detailsLength = detailsLength;
+            this.attendanceStart = attendanceStart;
+            this.attendanceEnd = attendanceEnd;
+        }
+
+        public String getEmployeeId() {
+            return employeeId;
+        }
+
+        public long getDetailsOffset() {
+            return detailsOffset;
+        }
+
+        public int getDetailsLength() {
+            return detailsLength;
+        }
+
+        public long getAttendanceStart() {
+            return attendanceStart;
+        }
+
+        public long getAttendanceEnd() {
+            return attendanceEnd;
+        }
+
+        /**
+         * Widens the attendance range to cover one more row
+         *
+         * @param offset Byte position of the row
+         * @param length Length of the row in bytes
+         */
+        public void addAttendanceRow(long offset, int length) {
+            if (attendanceStart == -1 && attendanceEnd == -1) {
+                return; // Already marked as not findable by number
+            }
+            if (attendanceEnd == 0) {
+                attendanceStart = offset;
+            }
+            attendanceEnd = offset + length;
+        }
+
+        /**
+         * Marks the employee's attendance rows as not findable by employee number
+         */
+        public void markAttendanceUnindexed() {
+            attendanceStart = -1;
+            attendanceEnd = -1;
+        }
+
+        /**
+         * Checks whether the employee has any attendance rows
+         *
+         * @return true if the attendance range is not empty
+         */
+        public boolean hasAttendance() {
+            return attendanceEnd > attendanceStart;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * EmployeeJournal keeps employee changes in an append-only file next to the employee data file.
+ *
+ * This class is responsible for:
+ * - Appending one short line for each added, updated or removed employee
+ * - Returning the recorded changes so the current roster can be rebuilt at load
+ * - Compacting the roster into a new base file on a background thread
+ * - Clearing the journal once a full save has written a new base file
+ *
+ * File format (one change per line):
+ * ADD,employee details row
+ * UPDATE,employee details row
+ * DELETE,employee details row
+ *
+ * Compaction first renames the journal aside, so changes made while the new
+ * base file is written go to a fresh journal. At load the set-aside journal,
+ * if a crash left one, is replayed before the current journal. Replaying a
+ * change that the base file already holds simply rewrites the same employee.
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class EmployeeJournal {
+    /** Operation recorded for a new employee */
+    public static final String ADD = "ADD";
+    /** Operation recorded for a changed employee */
+    public static final String UPDATE = "UPDATE";
+    /** Operation recorded for a removed employee */
+    public static final String DELETE = "DELETE";
+
+    /** Number of journal entries that triggers a compaction */
+    static final int COMPACTION_THRESHOLD = 200;
+
+    /** The employee data file the journal applies to */
+    private final File baseFile;
+    /** The journal receiving new changes */
+    private final File journalFile;
+    /** A journal set aside while its changes are compacted into the base file */
+    private final File compactingFile;
+
+    /** Background thread writing compacted base files */
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Compaction in progress, or null if none has started */
+    private Future<?> compaction;
+    /** Number of entries in the journals not yet compacted */
+    private int entryCount;
+
+    /**
+     * Constructs a journal for an employee data file
+     *
+     * @param basePath Path to the employee data file
+     */
+    public EmployeeJournal(String basePath) {
+        this.baseFile = new File(basePath);
+        this.journalFile = new File(basePath + ".journal");
+        this.compactingFile = new File(basePath + ".journal.compacting");
+    }
+
+    /**
+     * Reads the changes recorded since the base file was written, oldest first
+     *
+     * @return Pairs of operation and employee details row
+     */
+    public synchronized List<String[]> readEntries() {
+        List<String[]> entries = new ArrayList<>();
+        readEntries(compactingFile, entries);
+        readEntries(journalFile, entries);
+        entryCount = entries.size();
+        return entries;
+    }
+
+    /**
+     * Appends one change to the journal
+     *
+     * @param operation ADD, UPDATE or DELETE
+     * @param row The employee's details row
+     * @throws IOException if the journal cannot be written
+     */
+    public synchronized void append(String operation, String row) throws IOException {
+        // Start on a new line if a crash cut the previous entry short
+        String separator = endsMidLine() ? "\n" : "";
+        try (FileOutputStream out = new FileOutputStream(journalFile, true)) {
+            out.write((separator + operation + "," + row + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        entryCount++;
+    }
+
+    /**
+     * Checks whether enough changes have built up to compact the journal
+     *
+     * @return true if a compaction is due and none is running
+     */
+    public synchronized boolean needsCompaction() {
+        return entryCount >= COMPACTION_THRESHOLD && (compaction == null || compaction.isDone());
+    }
+
+    /**
+     * Starts writing a snapshot of the roster as the new base file in the background
+     * The snapshot must include every change appended so far
+     *
+     * @param header Header line of the base file
+     * @param rows Employee details rows of the whole roster
+     */
+    public synchronized void compactInBackground(String header, List<String> rows) {
+        if (compaction != null && !compaction.isDone()) {
+            return;
+        }
+        if (compactingFile.exists()) {
+            // A previous compaction did not finish; its changes are already in the snapshot
+            compactingFile.delete();
+        }
+        if (journalFile.exists() && !journalFile.renameTo(compactingFile)) {
+            System.out.println("Could not set aside employee journal for compaction: " + journalFile.getPath());
+            return;
+        }
+        entryCount = 0;
+        compaction = compactor.submit(() -> {
+            try {
+                writeBase(header, rows, Function.identity(), FileStorage.DEFAULT_BATCH_SIZE);
+                synchronized (this) {
+                    compactingFile.delete();
+                }
+            } catch (IOException e) {
+                System.out.println("Error compacting employee journal: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Writes the whole roster as the new base file and clears the journal
+     *
+     * @param <E> The type of roster entries
+     * @param header Header line of the base file
+     * @param roster The whole roster, read once in order
+     * @param format Turns a roster entry into its employee details row
+     * @param batchSize Number of rows written at a time
+     * @throws IOException if the base file cannot be written
+     */
+    public <E> void checkpoint(String header, Iterable<E> roster, Function<E, String> format, int batchSize)
+            throws IOException {
+        awaitCompaction();
+        synchronized (this) {
+            writeBase(header, roster, format, batchSize);
+            journalFile.delete();
+            compactingFile.delete();
+            entryCount = 0;
+        }
+    }
+
+    /**
+     * Waits for a background compaction to finish
+     */
+    public void awaitCompaction() {
+        Future<?> running;
+        synchronized (this) {
+            running = compaction;
+        }
+        if (running == null) {
+            return;
+        }
+        try {
+            running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("Error compacting employee journal: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Gets the path of the journal receiving new changes
+     *
+     * @return The journal path
+     */
+    public String getPath() {
+        return journalFile.getPath();
+    }
+
+    /**
+     * Writes a new base file, returning once it has replaced the old one on disk
+     *
+     * @param <E> The type of roster entries
+     * @param header Header line of the base file
+     * @param roster The roster
+     * @param format Turns a roster entry into its employee details row
+     * @param batchSize Number of rows written at a time
+     * @throws IOException if the file cannot be written
+     */
+    private <E> void writeBase(String header, Iterable<E> roster, Function<E, String> format, int batchSize)
+            throws IOException {
+        AtomicFileWriter.forPath(baseFile.getPath(), "employee data").saveLines(header, roster, format, batchSize);
+    }
+
+    /**
+     * Checks whether the journal ends without a line break
+     *
+     * @return true if the last entry was cut short
+     * @throws IOException if the journal cannot be read
+     */
+    private boolean endsMidLine() throws IOException {
+        if (journalFile.length() == 0) {
+            return false;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "r")) {
+            file.seek(file.length() - 1);
+            return file.read() != '\n';
+        }
+    }
+
+    /**
+     * Reads the entries of one journal file
+     * A line cut short by a crash is skipped
+     *
+     * @param file The journal file
+     * @param entries List receiving the entries
+     */
+    private static void readEntries(File file, List<String[]> entries) {
+        if (!file.exists()) {
+            return;
+        }
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                int comma = line.indexOf(',');
+                String operation = comma > 0 ? line.substring(0, comma) : "";
+                if (!operation.equals(ADD) && !operation.equals(UPDATE) && !operation.equals(DELETE)) {
+                    if (!line.trim().isEmpty()) {
+                        System.out.println("Skipping invalid employee journal entry: " + line);
+                    }
+                    continue;
+                }
+                entries.add(new String[] {operation, line.substring(comma + 1)});
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading employee journal: " + e.getMessage());
+        }
+    }
+}
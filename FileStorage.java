@@ -1,4 +1,6 @@
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface for objects that need file storage capabilities
@@ -7,6 +9,8 @@ import java.util.List;
  * - Load data from files
  * - Save data to files
  * - Manage file paths
+ * - Add, replace and remove single items without rewriting the rest
+ * - Optionally read and write large data one item or one batch at a time
  * 
  * @param <T> The type of objects to be stored
  * 
@@ -14,6 +18,9 @@ import java.util.List;
  * @version 1.0
  */
 public interface FileStorage<T> {
+    /** Number of items written between flushes when saving in batches */
+    int DEFAULT_BATCH_SIZE = 500;
+    
     /**
      * Loads objects from a file
      * 
@@ -34,4 +41,41 @@ public interface FileStorage<T> {
      * @return The file path
      */
     String getFilePath();
+    
+    /**
+     * Reads objects from a file as they are needed
+     * The stream should be closed so the file is released
+     * 
+     * @return Stream of stored objects
+     */
+    default Stream<T> stream() {
+        return load().stream();
+    }
+    
+    /**
+     * Saves objects to a file a batch at a time, replacing the stored objects
+     * 
+     * @param items Objects to save, read once in order
+     * @param batchSize Number of objects written between flushes
+     */
+    default void saveAll(Iterable<T> items, int batchSize) {
+        List<T> list = new ArrayList<>();
+        items.forEach(list::add);
+        save(list);
+    }
+    
+    /**
+     * Adds an object, or replaces the stored object with the same key
+     * 
+     * @param item The object to store
+     */
+    void upsert(T item);
+    
+    /**
+     * Removes the stored object with the same key as an object
+     * 
+     * @param item The object to remove
+     * @return true if an object was removed
+     */
+    boolean delete(T item);
 } 
\ No newline at end of file
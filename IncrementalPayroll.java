@@ -0,0 +1,247 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IncrementalPayroll keeps payroll results and company totals up to date for open pay periods.
+ *
+ * This class is responsible for:
+ * - Calculating every employee's payroll once when a pay period is opened
+ * - Keeping running company totals for each open period
+ * - Recomputing only the affected employee and period when a punch is recorded
+ * - Applying the difference between the old and new result to the totals
+ *
+ * Totals are kept in centavos (hundredths of an hour for hours worked) so that
+ * repeated corrections never accumulate rounding drift.
+ *
+ * Implements AttendanceListener to receive punch changes from employees
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class IncrementalPayroll implements AttendanceListener {
+    /** Payroll system used to calculate per-employee results */
+    private final Payroll payroll;
+
+    /** Open pay periods in the order they were opened */
+    private final List<OpenPeriod> openPeriods = new ArrayList<>();
+
+    /**
+     * Constructs an incremental payroll model for a payroll system
+     *
+     * @param payroll The payroll system providing employees and calculations
+     */
+    public IncrementalPayroll(Payroll payroll) {
+        this.payroll = payroll;
+    }
+
+    /**
+     * Opens a pay period and calculates the initial results for every employee
+     * Opening a period that is already open has no effect
+     *
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     */
+    public synchronized void openPeriod(LocalDate startDate, LocalDate endDate) {
+        if (findPeriod(startDate, endDate) != null) {
+            return;
+        }
+        if (openPeriods.isEmpty()) {
+            for (Employee employee : payroll.getEmployees()) {
+                employee.addAttendanceListener(this);
+            }
+        }
+
+        OpenPeriod period = new OpenPeriod(startDate, endDate);
+        for (Employee employee : payroll.getEmployees()) {
+            period.replace(employee.getId(), payroll.getEmployeePayroll(employee, startDate, endDate));
+        }
+        openPeriods.add(period);
+    }
+
+    /**
+     * Closes a pay period and stops tracking its results
+     *
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     */
+    public synchronized void closePeriod(LocalDate startDate, LocalDate endDate) {
+        OpenPeriod period = findPeriod(startDate, endDate);
+        if (period == null) {
+            return;
+        }
+        openPeriods.remove(period);
+        if (openPeriods.isEmpty()) {
+            for (Employee employee : payroll.getEmployees()) {
+                employee.removeAttendanceListener(this);
+            }
+        }
+    }
+
+    /**
+     * Starts tracking an employee added after periods were opened
+     *
+     * @param employee The new employee
+     */
+    public synchronized void employeeAdded(Employee employee) {
+        if (openPeriods.isEmpty()) {
+            return;
+        }
+        employee.addAttendanceListener(this);
+        for (OpenPeriod period : openPeriods) {
+            period.replace(employee.getId(), payroll.getEmployeePayroll(employee, period.startDate, period.endDate));
+        }
+    }
+
+    /**
+     * Stops tracking a removed employee and takes its results out of the totals
+     *
+     * @param employee The removed employee
+     */
+    public synchronized void employeeRemoved(Employee employee) {
+        employee.removeAttendanceListener(this);
+        for (OpenPeriod period : openPeriods) {
+            period.remove(employee.getId());
+        }
+    }
+
+    /**
+     * Recomputes the employee's results for every open period containing the date
+     * Implementation of AttendanceListener interface
+     *
+     * @param employee The employee whose attendance changed
+     * @param date The date of the changed attendance record
+     */
+    @Override
+    public synchronized void attendanceChanged(Employee employee, LocalDate date) {
+        for (OpenPeriod period : openPeriods) {
+            if (!date.isBefore(period.startDate) && !date.isAfter(period.endDate)) {
+                period.replace(employee.getId(), payroll.getEmployeePayroll(employee, period.startDate, period.endDate));
+            }
+        }
+    }
+
+    /**
+     * Gets the current company totals for an open period
+     * Only employees with hours worked contribute, as in Payroll.processPayroll
+     *
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @return Map of summary field to total, plus employee counts, or null if the period is not open
+     */
+    public synchronized Map<String, Double> getTotals(LocalDate startDate, LocalDate endDate) {
+        OpenPeriod period = findPeriod(startDate, endDate);
+        if (period == null) {
+            return null;
+        }
+
+        Map<String, Double> totals = new LinkedHashMap<>();
+        totals.put("employeesProcessed", (double) period.results.size());
+        totals.put("employeesWithHours", (double) period.employeesWithHours);
+        for (int i = 0; i < PayrollSummary.SUMMARY_FIELDS.length; i++) {
+            totals.put(PayrollSummary.SUMMARY_FIELDS[i], period.totals[i] / 100.0);
+        }
+        return totals;
+    }
+
+    /**
+     * Gets the current result of one employee in an open period
+     *
+     * @param employeeId ID of the employee
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @return The employee's payroll values, or null if unknown
+     */
+    public synchronized Map<String, Double> getEmployeeResult(String employeeId, LocalDate startDate, LocalDate endDate) {
+        OpenPeriod period = findPeriod(startDate, endDate);
+        return period != null ? period.results.get(employeeId) : null;
+    }
+
+    /**
+     * Gets the open pay periods in the order they were opened
+     *
+     * @return Start and end date of each open period
+     */
+    public synchronized List<LocalDate[]> getOpenPeriods() {
+        List<LocalDate[]> periods = new ArrayList<>();
+        for (OpenPeriod period : openPeriods) {
+            periods.add(new LocalDate[] {period.startDate, period.endDate});
+        }
+        return periods;
+    }
+
+    /**
+     * Finds an open period by its dates
+     *
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @return The open period, or null if not open
+     */
+    private OpenPeriod findPeriod(LocalDate startDate, LocalDate endDate) {
+        for (OpenPeriod period : openPeriods) {
+            if (period.startDate.equals(startDate) && period.endDate.equals(endDate)) {
+                return period;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Inner class holding the results and running totals of one open period
+     */
+    private static class OpenPeriod {
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        /** Current result per employee ID */
+        private final Map<String, Map<String, Double>> results = new HashMap<>();
+        /** Running totals in hundredths, indexed like PayrollSummary.SUMMARY_FIELDS */
+        private final long[] totals = new long[PayrollSummary.SUMMARY_FIELDS.length];
+        /** Number of employees with hours worked in the period */
+        private int employeesWithHours;
+
+        OpenPeriod(LocalDate startDate, LocalDate endDate) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        /**
+         * Replaces an employee's result and applies the difference to the totals
+         *
+         * @param employeeId ID of the employee
+         * @param result The employee's new payroll values
+         */
+        void replace(String employeeId, Map<String, Double> result) {
+            Map<String, Double> previous = results.put(employeeId, result);
+            apply(previous, -1);
+            apply(result, 1);
+        }
+
+        /**
+         * Drops an employee's result and subtracts it from the totals
+         *
+         * @param employeeId ID of the employee
+         */
+        void remove(String employeeId) {
+            apply(results.remove(employeeId), -1);
+        }
+
+        /**
+         * Adds or subtracts one employee's contribution to the totals
+         *
+         * @param result The employee's payroll values, may be null
+         * @param sign 1 to add, -1 to subtract
+         */
+        private void apply(Map<String, Double> result, int sign) {
+            if (result == null || result.get("totalHoursWorked") <= 0) {
+                return;
+            }
+            employeesWithHours += sign;
+            for (int i = 0; i < PayrollSummary.SUMMARY_FIELDS.length; i++) {
+                totals[i] += sign * PayrollSummary.toCentavos(result.get(PayrollSummary.SUMMARY_FIELDS[i]));
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 
 
@@ -35,7 +36,6 @@ public class Main {
         checkDataFileExists();
 
         scanner = new Scanner(System.in);
-        payroll = new Payroll();
 
         // Display welcome message
         System.out.println("=======================================");
@@ -53,10 +53,10 @@ public class Main {
 
                 switch (choice) {
                     case 1:
-                        adminMenu(payroll, scanner);
+                        adminMenu(getPayroll(), scanner);
                         break;
                     case 2:
-                        employeeLoginMenu(payroll, scanner);
+                        employeeLoginMenu(scanner);
                         break;
                     case 3:
                         exit = true;
@@ -70,9 +70,24 @@ public class Main {
             }
         }
 
+        if (payroll != null) {
+            payroll.close();
+        }
         scanner.close();
     }
 
+    /**
+     * Gets the payroll system, loading the roster the first time it is needed
+     * 
+     * @return The payroll system instance
+     */
+    private static Payroll getPayroll() {
+        if (payroll == null) {
+            payroll = new Payroll();
+        }
+        return payroll;
+    }
+
     /**
      * Displays the role selection menu
      */
@@ -134,6 +149,33 @@ public class Main {
                         searchEmployeeInformation(scanner);
                         break;
                     case 5:
+                        exportPayroll(scanner);
+                        break;
+                    case 6:
+                        generatePayslips(scanner);
+                        break;
+                    case 7:
+                        archiveAttendance(scanner);
+                        break;
+                    case 8:
+                        correctAttendance(scanner);
+                        break;
+                    case 9:
+                        processYearEnd(scanner);
+                        break;
+                    case 10:
+                        runWhatIfSimulation(scanner);
+                        break;
+                    case 11:
+                        summarizePayroll(scanner);
+                        break;
+                    case 12:
+                        closePayPeriod(scanner);
+                        break;
+                    case 13:
+                        viewPayrollAnalytics(scanner);
+                        break;
+                    case 14:
                         backToRoleSelection = true;
                         break;
                     default:
@@ -157,9 +199,420 @@ public class Main {
         System.out.println("2. Process Payroll");
         System.out.println("3. View Attendance Records");
         System.out.println("4. Search Employee Information");
-        System.out.println("5. Back to Role Selection");
+        System.out.println("5. Export Payroll");
+        System.out.println("6. Generate Payslips");
+        System.out.println("7. Archive Attendance");
+        System.out.println("8. Correct Attendance Record");
+        System.out.println("9. Year-End Payroll");
+        System.out.println("10. What-If Simulation");
+        System.out.println("11. Payroll Summary by Group");
+        System.out.println("12. Close Pay Period");
+        System.out.println("13. Payroll Analytics");
+        System.out.println("14. Back to Role Selection");
         System.out.println("=======================================");
-        System.out.print("Choose an option (1-5): ");
+        System.out.print("Choose an option (1-14): ");
+    }
+
+    /**
+     * Exports payroll for all employees to a CSV or JSON Lines file
+     * Prompts for the date range and file format
+     * 
+     * @param scanner Scanner for user input
+     */
+    private static void exportPayroll(Scanner scanner) {
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+        LocalDate startDate;
+        LocalDate endDate;
+        try {
+            System.out.print("Enter start date (MM/DD/YYYY): ");
+            startDate = LocalDate.parse(scanner.nextLine().trim(), dateFormatter);
+            System.out.print("Enter end date (MM/DD/YYYY): ");
+            endDate = LocalDate.parse(scanner.nextLine().trim(), dateFormatter);
+        } catch (Exception e) {
+            System.out.println("Invalid date format. Please use MM/DD/YYYY format (e.g., 03/15/2024)");
+            return;
+        }
+        if (endDate.isBefore(startDate)) {
+            System.out.println("End date cannot be before start date");
+            return;
+        }
+
+        System.out.print("Export format (1 = CSV, 2 = JSON Lines): ");
+        String choice = scanner.nextLine().trim();
+        PayrollExporter.Format format = choice.equals("2") ? PayrollExporter.Format.JSON_LINES : PayrollExporter.Format.CSV;
+
+        // Write the export next to the employee data file
+        File dataFile = new File(payroll.getFilePath());
+        File exportFile = new File(dataFile.getParentFile(),
+            "Payroll Export " + startDate + " to " + endDate + format.getExtension());
+        try {
+            long rows = payroll.exportPayroll(startDate, endDate, exportFile.toPath(), format);
+            System.out.println("Exported payroll for " + rows + " employees to: " + exportFile.getPath());
+        } catch (Exception e) {
+            System.out.println("Error exporting payroll: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves older attendance records into the compressed attendance archive
+     * Prompts for the first date to keep in the attendance file
+     * 
+     * @param scanner Scanner for user input
+     */
+    private static void archiveAttendance(Scanner scanner) {
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+        LocalDate before;
+        try {
+            System.out.print("Archive records before (MM/DD/YYYY): ");
+            before = LocalDate.parse(scanner.nextLine().trim(), dateFormatter);
+        } catch (Exception e) {
+            System.out.println("Invalid date format. Please use MM/DD/YYYY format (e.g., 03/15/2024)");
+            return;
+        }
+
+        try {
+            int records = payroll.archiveAttendance(before);
+            System.out.println("Archived " + records + " attendance records dated before " + before);
+        } catch (Exception e) {
+            System.out.println("Error archiving attendance: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records a corrected login or logout for one employee and day
+     * Shows the updated totals of every processed pay period containing the day
+     * 
+     * @param scanner Scanner for user input
+     */
+    private static void correctAttendance(Scanner scanner) {
+        System.out.print("Enter Employee ID: ");
+        Employee employee = findEmployeeByAnyId(payroll, scanner.nextLine().trim());
+        if (employee == null) {
+            System.out.println("Employee not found! Please check the ID.");
+            return;
+        }
+
+        LocalDate date;
+        LocalTime login;
+        LocalTime logout;
+        try {
+            System.out.print("Enter date (MM/DD/YYYY): ");
+            date = LocalDate.parse(scanner.nextLine().trim(), DateTimeFormatter.ofPattern("MM/dd/yyyy"));
+            System.out.print("Enter login time (HH:MM, blank to keep): ");
+            String loginText = scanner.nextLine().trim();
+            login = loginText.isEmpty() ? null : LocalTime.parse(loginText, DateTimeFormatter.ofPattern("H:mm"));
+            System.out.print("Enter logout time (HH:MM, blank to keep): ");
+            String logoutText = scanner.nextLine().trim();
+            logout = logoutText.isEmpty() ? null : LocalTime.parse(logoutText, DateTimeFormatter.ofPattern("H:mm"));
+        } catch (Exception e) {
+            System.out.println("Invalid date or time. Please use MM/DD/YYYY and HH:MM (e.g., 03/15/2024 and 08:30)");
+            return;
+        }
+
+        if (login != null) {
+            employee.recordLogin(date, login);
+        }
+        if (logout != null) {
+            employee.recordLogout(date, logout);
+        }
+
+        // Open periods recompute only this employee, so the totals are current already
+        IncrementalPayroll incremental = payroll.getIncrementalPayroll();
+        for (LocalDate[] period : incremental.getOpenPeriods()) {
+            if (date.isBefore(period[0]) || date.isAfter(period[1])) {
+                continue;
+            }
+            Map<String, Double> totals = incremental.getTotals(period[0], period[1]);
+            System.out.println("\nUpdated totals for " + period[0] + " to " + period[1] + ":");
+            System.out.printf("  Employees With Hours: %d%n", totals.get("employeesWithHours").intValue());
+            System.out.printf("  Total Hours Worked:   %,.2f%n", totals.get("totalHoursWorked"));
+            System.out.printf("  Total Gross Pay:      PHP %,.2f%n", totals.get("grossIncome"));
+            System.out.printf("  Total Deductions:     PHP %,.2f%n", totals.get("sssDeduction")
+                + totals.get("philHealthDeduction") + totals.get("pagIbigDeduction") + totals.get("taxDeduction"));
+            System.out.printf("  Total Net Pay:        PHP %,.2f%n", totals.get("netPay"));
+        }
+    }
+
+    /**
+     * Processes payroll for every semi-monthly period of a year in one pass
+     * Prompts for the year
+     * 
+     * @param scanner Scanner for user input
+     */
+    private static void processYearEnd(Scanner scanner) {
+        int year;
+        try {
+            System.out.print("Enter year (YYYY): ");
+            year = Integer.parseInt(scanner.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid year. Please enter a four-digit year (e.g., 2024)");
+            return;
+        }
+
+        try {
+            payroll.processYearEnd(year);
+        } catch (Exception e) {
+            System.out.println("Error processing year-end payroll: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Simulates rate and allowance changes for a pay period without changing employee data
+     * Prompts for the period, then for scenarios built from one or more adjustments
+     * 
+     * @param scanner Scanner for user input
+     */
+    private static void runWhatIfSimulation(Scanner scanner) {
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+        LocalDate startDate;
+        LocalDate endDate;
+        try {
+            System.out.print("Enter start date (MM/DD/YYYY): ");
+            startDate = LocalDate.parse(scanner.nextLine().trim(), dateFormatter);
+            System.out.print("Enter end date (MM/DD/YYYY): ");
+            endDate = LocalDate.parse(scanner.nextLine().trim(), dateFormatter);
+        } catch (Exception e) {
+            System.out.println("Invalid date format. Please use MM/DD/YYYY format (e.g., 03/15/2024)");
+            return;
+        }
+        if (endDate.isBefore(startDate)) {
+            System.out.println("End date cannot be before start date");
+            return;
+        }
+
+        PayrollSimulator simulator = new PayrollSimulator(payroll, startDate, endDate);
+        PayrollSimulator.Field[] fields = PayrollSimulator.Field.values();
+        PayrollSimulator.Operation[] operations = PayrollSimulator.Operation.values();
+        PayrollSimulator.Attribute[] attributes = PayrollSimulator.Attribute.values();
+
+        boolean another = true;
+        while (another) {
+            System.out.print("\nScenario name: ");
+            PayrollSimulator.Scenario scenario = new PayrollSimulator.Scenario(scanner.nextLine().trim());
+            boolean adding = true;
+            while (adding) {
+                try {
+                    System.out.println("Pay input: 1. Hourly Rate  2. Rice Subsidy  3. Phone Allowance  4. Clothing Allowance  5. Hours Worked");
+                    System.out.print("Choose a pay input (1-5): ");
+                    PayrollSimulator.Field field = fields[Integer.parseInt(scanner.nextLine().trim()) - 1];
+                    System.out.print("Change: 1. Multiply by  2. Add  3. Set to (1-3): ");
+                    PayrollSimulator.Operation operation = operations[Integer.parseInt(scanner.nextLine().trim()) - 1];
+                    System.out.print("Value: ");
+                    double value = Double.parseDouble(scanner.nextLine().trim());
+                    System.out.print("Apply to: 0. Everyone  1. Status  2. Position  3. Department (0-3): ");
+                    int filter = Integer.parseInt(scanner.nextLine().trim());
+                    if (filter == 0) {
+                        scenario.adjust(field, operation, value);
+                    } else {
+                        PayrollSimulator.Attribute attribute = attributes[filter - 1];
+                        System.out.print("Only employees whose " + attribute.name().toLowerCase() + " is: ");
+                        scenario.adjust(field, operation, value, attribute, scanner.nextLine().trim());
+                    }
+                } catch (RuntimeException e) {
+                    System.out.println("Invalid choice or value; adjustment skipped.");
+                }
+                System.out.print("Add another adjustment? (y/n): ");
+                adding = scanner.nextLine().trim().equalsIgnoreCase("y");
+            }
+
+            Map<String, Double> baseline = simulator.getBaseline();
+            Map<String, Double> result = simulator.simulate(scenario);
+            System.out.println("\n=== " + scenario.getName() + " (" + startDate + " to " + endDate + ") ===");
+            System.out.printf("%-22s %18s %18s %18s%n", "", "Baseline", "Scenario", "Change");
+            for (String total : baseline.keySet()) {
+                System.out.printf("%-22s %,18.2f %,18.2f %,+18.2f%n", total, baseline.get(total),
+                    result.get(total), result.get(total + "Change"));
+            }
+            System.out.print("\nRun another scenario? (y/n): ");
+            another = scanner.nextLine().trim().equalsIgnoreCase("y");
+        }
+    }
+
+    /**
+     * Displays payroll totals for a pay period grouped by department, status, or position
+     * Prompts for the period and the grouping attribute
+     * 
+     * @param scanner Scanner for user input
+     */
+    private static void summarizePayroll(Scanner scanner) {
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+        LocalDate startDate;
+        LocalDate endDate;
+        try {
+            System.out.print("Enter start date (MM/DD/YYYY): ");
+            startDate = LocalDate.parse(scanner.nextLine().trim(), dateFormatter);
+            System.out.print("Enter end date (MM/DD/YYYY): ");
+            endDate = LocalDate.parse(scanner.nextLine().trim(), dateFormatter);
+        } catch (Exception e) {
+            System.out.println("Invalid date format. Please use MM/DD/YYYY format (e.g., 03/15/2024)");
+            return;
+        }
+        if (endDate.isBefore(startDate)) {
+            System.out.println("End date cannot be before start date");
+            return;
+        }
+
+        PayrollSummary.GroupBy groupBy;
+        System.out.print("Group by: 1. Department  2. Status  3. Position (1-3): ");
+        switch (scanner.nextLine().trim()) {
+            case "1":
+                groupBy = PayrollSummary.GroupBy.DEPARTMENT;
+                break;
+            case "2":
+                groupBy = PayrollSummary.GroupBy.STATUS;
+                break;
+            case "3":
+                groupBy = PayrollSummary.GroupBy.POSITION;
+                break;
+            default:
+                System.out.println("Invalid choice! Please choose a valid option.");
+                return;
+        }
+
+        PayrollSummary summary = payroll.summarizePayroll(startDate, endDate, groupBy);
+        System.out.println("\n=== Payroll Summary by " + groupBy.name().charAt(0)
+            + groupBy.name().substring(1).toLowerCase() + " (" + startDate + " to " + endDate + ") ===");
+        System.out.printf("%-32s %9s %12s %16s %16s %16s%n",
+            "Group", "Employees", "Hours", "Gross", "Deductions", "Net Pay");
+        for (Map.Entry<String, Map<String, Double>> group : summary.getGroupTotals().entrySet()) {
+            printSummaryRow(group.getKey(), group.getValue());
+        }
+        printSummaryRow("COMPANY TOTAL", summary.getTotals());
+    }
+
+    /**
+     * Prints one row of the grouped payroll summary
+     * 
+     * @param label Group name
+     * @param totals Totals for the group
+     */
+    private static void printSummaryRow(String label, Map<String, Double> totals) {
+        System.out.printf("%-32s %9.0f %,12.2f %,16.2f %,16.2f %,16.2f%n", label,
+            totals.get("employeesWithHours"), totals.get("totalHoursWorked"), totals.get("grossIncome"),
+            totals.get("totalDeductions"), totals.get("netPay"));
+    }
+
+    /**
+     * Closes a pay period and archives its results for analytics
+     * Prompts for the period and asks for confirmation first
+     * 
+     * @param scanner Scanner for user input
+     */
+    private static void closePayPeriod(Scanner scanner) {
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+        LocalDate startDate;
+        LocalDate endDate;
+        try {
+            System.out.print("Enter start date (MM/DD/YYYY): ");
+            startDate = LocalDate.parse(scanner.nextLine().trim(), dateFormatter);
+            System.out.print("Enter end date (MM/DD/YYYY): ");
+            endDate = LocalDate.parse(scanner.nextLine().trim(), dateFormatter);
+        } catch (Exception e) {
+            System.out.println("Invalid date format. Please use MM/DD/YYYY format (e.g., 03/15/2024)");
+            return;
+        }
+        if (endDate.isBefore(startDate)) {
+            System.out.println("End date cannot be before start date");
+            return;
+        }
+
+        System.out.print("Close " + startDate + " to " + endDate + "? Attendance corrections will no longer update it (y/n): ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            System.out.println("Pay period left open.");
+            return;
+        }
+        try {
+            int archived = payroll.closePeriod(startDate, endDate);
+            System.out.println("Pay period closed; " + archived + " employees archived to "
+                + PayrollArchive.directoryFor(startDate, endDate));
+        } catch (IOException e) {
+            System.out.println("Error writing payroll archive: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Displays totals for every closed pay period from the payroll archives
+     * Optionally counts employees whose net pay falls in a range in each period
+     * 
+     * @param scanner Scanner for user input
+     */
+    private static void viewPayrollAnalytics(Scanner scanner) {
+        List<PayrollArchive> archives = PayrollArchive.listArchives();
+        if (archives.isEmpty()) {
+            System.out.println("No closed pay periods found. Close a pay period to archive it.");
+            return;
+        }
+
+        try {
+            System.out.println("\n=== Payroll Analytics (closed pay periods) ===");
+            System.out.printf("%-26s %9s %16s %16s %14s %14s %14s%n", "Period", "Employees",
+                "Total Gross", "Total Net", "Average Net", "Lowest Net", "Highest Net");
+            for (PayrollArchive archive : archives) {
+                System.out.printf("%-26s %9d %,16.2f %,16.2f %,14.2f %,14.2f %,14.2f%n",
+                    archive.getStartDate() + " to " + archive.getEndDate(), archive.getRowCount(),
+                    archive.sum("grossIncome"), archive.sum("netPay"), archive.average("netPay"),
+                    archive.getMin("netPay"), archive.getMax("netPay"));
+            }
+
+            System.out.print("\nCount employees by net pay range? Enter lowest and highest net pay, or press Enter to skip: ");
+            String[] range = scanner.nextLine().trim().split("\\s+");
+            if (range.length < 2) {
+                return;
+            }
+            double low = Double.parseDouble(range[0].replace(",", ""));
+            double high = Double.parseDouble(range[1].replace(",", ""));
+            System.out.printf("%-26s %9s %16s%n", "Period", "Employees", "Their Net Pay");
+            for (PayrollArchive archive : archives) {
+                System.out.printf("%-26s %9d %,16.2f%n", archive.getStartDate() + " to " + archive.getEndDate(),
+                    archive.countWhere("netPay", low, high), archive.sumWhere("netPay", "netPay", low, high));
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid amount. Please enter two numbers, e.g. 10000 25000");
+        } catch (IOException e) {
+            System.out.println("Error reading payroll archive: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a payslip file for every employee for a pay period
+     * Prompts for the date range and reports the throughput
+     * 
+     * @param scanner Scanner for user input
+     */
+    private static void generatePayslips(Scanner scanner) {
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+        LocalDate startDate;
+        LocalDate endDate;
+        try {
+            System.out.print("Enter start date (MM/DD/YYYY): ");
+            startDate = LocalDate.parse(scanner.nextLine().trim(), dateFormatter);
+            System.out.print("Enter end date (MM/DD/YYYY): ");
+            endDate = LocalDate.parse(scanner.nextLine().trim(), dateFormatter);
+        } catch (Exception e) {
+            System.out.println("Invalid date format. Please use MM/DD/YYYY format (e.g., 03/15/2024)");
+            return;
+        }
+        if (endDate.isBefore(startDate)) {
+            System.out.println("End date cannot be before start date");
+            return;
+        }
+
+        // Write the payslips next to the employee data file
+        File dataFile = new File(payroll.getFilePath());
+        int threads = Runtime.getRuntime().availableProcessors();
+        PayslipGenerator generator = new PayslipGenerator(payroll, threads, Math.min(threads, 4));
+        try {
+            PayslipGenerator.Result result = generator.generate(startDate, endDate,
+                PayslipGenerator.periodDirectory(dataFile.getAbsoluteFile().getParentFile().toPath(), startDate, endDate));
+            System.out.println("Generated " + result.getGenerated() + " payslips in: " + result.getDirectory());
+            if (result.getFailed() > 0) {
+                System.out.println(result.getFailed() + " employees could not be given a payslip");
+            }
+            System.out.printf("Time: %.1f ms (%.1f payslips per second)%n",
+                result.getElapsedMillis(), result.getPayslipsPerSecond());
+        } catch (Exception e) {
+            System.out.println("Error generating payslips: " + e.getMessage());
+        }
     }
 
     /**
@@ -278,8 +731,11 @@ public class Main {
             // Display processing message
             System.out.println("\nProcessing payroll for " + employees.size() + " employees...");
             
-            // Process payroll and display results
-            payroll.processPayroll(startDate, endDate);
+            // Process payroll and display results; an interrupted run for the same period resumes
+            payroll.processPayroll(startDate, endDate, "Payroll " + startDate + " to " + endDate);
+            
+            // Keep the period open so attendance corrections update its totals
+            payroll.getIncrementalPayroll().openPeriod(startDate, endDate);
             
             System.out.println("\nPress Enter to continue...");
             scanner.nextLine(); // Wait for user to press Enter
@@ -328,13 +784,6 @@ public class Main {
                 System.out.println("Date           | Login Time | Logout Time | Hours Worked");
                 System.out.println("-------------------------------------------------------");
                 
-                double totalHours = 0.0;
-                int daysPresent = 0;
-                int daysLate = 0;
-                int daysOvertime = 0;
-                LocalTime regularStartTime = LocalTime.of(8, 0); // 8:00 AM
-                LocalTime regularEndTime = LocalTime.of(17, 0);  // 5:00 PM
-                
                 for (Map.Entry<LocalDate, Employee.AttendanceRecord> entry : sortedRecords) {
                     LocalDate date = entry.getKey();
                     Employee.AttendanceRecord record = entry.getValue();
@@ -347,36 +796,24 @@ public class Main {
                     
                     double hoursWorked = record.getHoursWorked();
                     
-                    // Check if employee was late
-                    boolean isLate = record.getLoginTime() != null && 
-                                    record.getLoginTime().isAfter(regularStartTime);
-                    
-                    // Check if employee did overtime
-                    boolean didOvertime = record.getLogoutTime() != null && 
-                                         record.getLogoutTime().isAfter(regularEndTime);
-                    
-                    if (hoursWorked > 0) {
-                        totalHours += hoursWorked;
-                        daysPresent++;
-                        
-                        if (isLate) daysLate++;
-                        if (didOvertime) daysOvertime++;
-                    }
-                    
-                    // Add indicators for late arrival or overtime
+                    // Add indicators for late arrival or overtime, classified when the punches were recorded
                     String statusIndicator = "";
-                    if (isLate) statusIndicator += "L";
-                    if (didOvertime) statusIndicator += "O";
+                    if (record.isLate()) statusIndicator += "L";
+                    if (record.isOvertime()) statusIndicator += "O";
                     if (!statusIndicator.isEmpty()) statusIndicator = " [" + statusIndicator + "]";
                     
                     System.out.printf("%-14s | %-10s | %-11s | %6.2f hours%s%n", 
                         date.format(dateFormatter), loginTime, logoutTime, hoursWorked, statusIndicator);
                 }
                 
+                Employee.AttendanceSummary summary = emp.getAttendanceSummary(LocalDate.MIN, LocalDate.MAX);
+                int daysPresent = summary.getDaysPresent();
+                double totalHours = summary.getTotalHours();
+                
                 System.out.println("-------------------------------------------------------");
                 System.out.printf("Total Days Present: %d days%n", daysPresent);
-                System.out.printf("Days Late: %d days%n", daysLate);
-                System.out.printf("Days with Overtime: %d days%n", daysOvertime);
+                System.out.printf("Days Late: %d days%n", summary.getDaysLate());
+                System.out.printf("Days with Overtime: %d days%n", summary.getDaysOvertime());
                 System.out.printf("Total Hours Worked: %.2f hours%n", totalHours);
                 
                 // Calculate average hours per day
@@ -397,11 +834,11 @@ public class Main {
 
     /**
      * Displays and handles the employee login menu
+     * Uses the employee index when the roster is not loaded yet
      * 
-     * @param payroll The payroll system instance
      * @param scanner Scanner for user input
      */
-    private static void employeeLoginMenu(Payroll payroll, Scanner scanner) {
+    private static void employeeLoginMenu(Scanner scanner) {
         System.out.println("\n=======================================");
         System.out.println("            Employee Login");
         System.out.println("=======================================");
@@ -411,7 +848,7 @@ public class Main {
         String idInput = scanner.nextLine().trim();
         
         // Find employee using the helper method
-        Employee employee = findEmployeeByAnyId(payroll, idInput);
+        Employee employee = payroll != null ? findEmployeeByAnyId(payroll, idInput) : findIndexedEmployee(idInput);
         
         if (employee != null) {
             // Employee found, verify with name
@@ -430,6 +867,31 @@ public class Main {
         }
     }
 
+    /**
+     * Finds an employee through the employee index, loading the roster only if the index cannot answer
+     * 
+     * @param idInput The employee ID as entered
+     * @return The employee, or null if not found
+     */
+    private static Employee findIndexedEmployee(String idInput) {
+        Employee employee = Payroll.readEmployee(idInput);
+        if (employee != null) {
+            return employee;
+        }
+        
+        // Try with leading zeros (format to 5 digits)
+        try {
+            employee = Payroll.readEmployee(String.format("%05d", Integer.parseInt(idInput)));
+            if (employee != null) {
+                return employee;
+            }
+        } catch (NumberFormatException e) {
+            // Not a number, skip this attempt
+        }
+        
+        return findEmployeeByAnyId(getPayroll(), idInput);
+    }
+
     /**
      * Displays and handles the employee menu options
      * 
@@ -665,11 +1127,12 @@ public class Main {
         System.out.println("╠════════════════════════════════════════════╦═══════════════════════════════╣");
         
         // Calculate deductions based on gross income
-        double sssDeduction = employee.calculateSSSDeduction(grossIncome);
+        double sssDeduction = employee.calculateSSSDeduction(grossIncome, endDate);
         double philHealthDeduction = employee.calculatePhilHealthDeduction(grossIncome);
         double pagIbigDeduction = employee.calculatePagIBIGDeduction(grossIncome);
         double basicDeduction = sssDeduction + philHealthDeduction + pagIbigDeduction;
-        double taxDeduction = employee.calculateTaxDeduction(grossIncome);
+        double taxDeduction = employee.calculateTaxDeduction(grossIncome,
+            WithholdingTaxTable.Periodicity.forPeriod(startDate, endDate));
         double totalDeductions = basicDeduction + taxDeduction;
         
         System.out.println("║ Mandatory Deductions:                      ║                           ║");
@@ -689,8 +1152,14 @@ public class Main {
         System.out.printf("║ NET PAY:                                   ║ PHP %,19.2f ║%n", netPay);
         System.out.println("╚════════════════════════════════════════════╩═══════════════════════════════╝");
         
-        System.out.println("\nPress Enter to continue...");
         scanner.nextLine(); // Consume the remaining newline
+        System.out.print("\nShow how the base pay was calculated? (y/n): ");
+        if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            System.out.println();
+            System.out.print(employee.explainPay(startDate, endDate));
+        }
+        
+        System.out.println("\nPress Enter to continue...");
         scanner.nextLine(); // Wait for user to press Enter
     }
 
@@ -754,16 +1223,21 @@ public class Main {
         
         switch (choice) {
             case 1:
+                getPayroll();
                 viewEmployeeList();
                 break;
             case 2:
                 calculatePayroll();
                 break;
             case 3:
+                getPayroll();
                 viewAttendanceRecords(scanner);
                 break;
             case 4:
                 System.out.println("Thank you for using MotorPH Payroll System!");
+                if (payroll != null) {
+                    payroll.close();
+                }
                 System.exit(0);
                 break;
             default:
@@ -1,11 +1,22 @@
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Payroll class handles employee data management and payroll processing
@@ -31,12 +42,47 @@ public class Payroll implements FileStorage<Employee> {
     /** Path to the attendance records CSV file */
     private static final String ATTENDANCE_FILE_PATH = "C:\\Users\\Johanzen\\Documents\\PROJECTS IT\\MotorPH Payroll System\\MotorPH Employee Data - Attendance Record.csv";
     
+    /** Path to the compressed archive of older attendance records */
+    private static final String ATTENDANCE_ARCHIVE_PATH = "C:\\Users\\Johanzen\\Documents\\PROJECTS IT\\MotorPH Payroll System\\MotorPH Employee Data - Attendance Archive.dat";
+    
+    /** Format of the hours file saved beside the employee data file; either format is read */
+    private static final EmployeeCodec.HoursFormat HOURS_FORMAT = EmployeeCodec.HoursFormat.BINARY;
+    
+    /** Path to the index of employee rows in the employee and attendance files */
+    private static final String INDEX_PATH = "C:\\Users\\Johanzen\\Documents\\PROJECTS IT\\MotorPH Payroll System\\MotorPH Employee Data.idx";
+    
+    /** Header row of the employee data CSV file */
+    private static final String EMPLOYEE_FILE_HEADER = "Employee #,Last Name,First Name,Birthday,Address,Phone Number,"
+        + "SSS #,Philhealth #,TIN #,Pag-ibig #,Status,Position,Immediate Supervisor,Basic Salary,Rice Subsidy,"
+        + "Phone Allowance,Clothing Allowance,Gross Semi-monthly Rate,Hourly Rate";
+    
+    /** Append-only journal of employees added or changed since the data file was written */
+    private final EmployeeJournal employeeJournal = new EmployeeJournal(FILE_PATH);
+    
+    /** Header row of the attendance records CSV file */
+    private static final String ATTENDANCE_FILE_HEADER = "Employee #,Last Name,First Name,Date,Log In,Log Out";
+    
+    /** Log of punches, hours and new employees since the data files were last written */
+    private final WriteAheadLog writeAheadLog = new WriteAheadLog();
+    
     /** Formatting constant for payroll report headers */
     private static final String PAYROLL_HEADER = "=================================================================================================================================";
     
     /** Format string for payroll report rows */
     private static final String PAYROLL_FORMAT = "%-12s | %-20s | %-10s | %-11s | %-12.2f | %-15.2f | %-5.2f | %-16.2f | %-7.2f\n";
 
+    /** Number of employees calculated at a time while exporting */
+    private static final int EXPORT_CHUNK_SIZE = 256;
+
+    /** Maximum number of per-employee payroll results kept in the cache */
+    private static final int PAYROLL_CACHE_SIZE = 1024;
+
+    /** Cache of per-employee payroll results for repeated views */
+    private final PayrollCache payrollCache = new PayrollCache(PAYROLL_CACHE_SIZE);
+
+    /** Running payroll results and totals for open pay periods */
+    private final IncrementalPayroll incrementalPayroll = new IncrementalPayroll(this);
+
     /**
      * Constructs a new Payroll system and loads employee data from file
      */
@@ -47,8 +93,13 @@ public class Payroll implements FileStorage<Employee> {
         try {
             System.out.println("Loading employee data from: " + FILE_PATH);
             loadEmployeesFromFile();
+            int changes = replayEmployeeJournal(employees);
+            if (changes > 0) {
+                System.out.println("Applied " + changes + " changes from the employee journal.");
+            }
             System.out.println("Successfully loaded " + employees.size() + " employees.");
             
+            loadAttendanceArchive();
             System.out.println("Loading attendance records from: " + ATTENDANCE_FILE_PATH);
             loadAttendanceRecords();
             
@@ -59,6 +110,18 @@ public class Payroll implements FileStorage<Employee> {
             }
             System.out.println("Successfully loaded " + totalRecords + " attendance records across all employees.");
             
+            // Hours saved in the last snapshot replace the hours worked out from attendance
+            loadHoursWorked(employees);
+            
+            // Apply the changes logged since the data files were written, then log new ones
+            int logged = writeAheadLog.replay(employees, row -> parseEmployeeDetails(parseCSVLine(row)));
+            if (logged > 0) {
+                System.out.println("Recovered " + logged + " changes from the write-ahead log.");
+            }
+            for (Employee emp : employees) {
+                emp.addAttendanceListener(writeAheadLog);
+            }
+            
         } catch (Exception e) {
             System.err.println("ERROR during Payroll initialization: " + e.getMessage());
             e.printStackTrace();
@@ -69,36 +132,68 @@ public class Payroll implements FileStorage<Employee> {
      * Processes payroll for all employees within a date range
      */
     public void processPayroll(LocalDate startDate, LocalDate endDate) {
-        System.out.println("\n╔════════════════════════════════════════════════════════════════════════════════════════════════════════════════╗");
-        System.out.println("║                                     PAYROLL PROCESSING INFORMATION                                              ║");
-        System.out.println("╠════════════════════════════════════════════════════════════════════════════════════════════════════════════════╣");
-        System.out.printf("║ Period: %s to %s%n", startDate.format(DateTimeFormatter.ofPattern("MM/dd/yyyy")), 
+        processPayroll(startDate, endDate, null);
+    }
+
+    /**
+     * Processes payroll for all employees within a date range as a resumable run
+     * Completed employees are checkpointed to a journal in batches; restarting a run
+     * with the same ID reuses the journaled results and only processes the rest
+     * 
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @param runId ID of the run, or null to process without a journal
+     */
+    public void processPayroll(LocalDate startDate, LocalDate endDate, String runId) {
+        ReportRenderer out = ReportRenderer.current();
+        out.println("\n╔════════════════════════════════════════════════════════════════════════════════════════════════════════════════╗");
+        out.println("║                                     PAYROLL PROCESSING INFORMATION                                              ║");
+        out.println("╠════════════════════════════════════════════════════════════════════════════════════════════════════════════════╣");
+        out.printf("║ Period: %s to %s%n", startDate.format(DateTimeFormatter.ofPattern("MM/dd/yyyy")), 
                                                  endDate.format(DateTimeFormatter.ofPattern("MM/dd/yyyy")));
-        System.out.printf("║ Total Employees: %d%n", employees.size());
-        System.out.println("╚════════════════════════════════════════════════════════════════════════════════════════════════════════════════╝");
+        out.printf("║ Total Employees: %d%n", employees.size());
+        out.println("╚════════════════════════════════════════════════════════════════════════════════════════════════════════════════╝");
 
         if (employees.isEmpty()) {
-            System.out.println("\n║ No employees found in the system. Please check if employee data was loaded correctly.                         ║");
+            out.println("\n║ No employees found in the system. Please check if employee data was loaded correctly.                         ║");
+            out.flush();
             return;
         }
         
-        printPayrollHeader();
+        // The journal may report problems while loading, so show the period first
+        out.flush();
+        PayrollRunJournal journal = runId != null ? new PayrollRunJournal(runId, startDate, endDate) : null;
+        if (journal != null && !journal.getCompleted().isEmpty()) {
+            int current = 0;
+            for (Employee employee : employees) {
+                if (journal.getCompleted(employee) != null) {
+                    current++;
+                }
+            }
+            out.println("Resuming payroll run " + journal.getRunId() + ": " + current + " employees already completed"
+                + (current < journal.getCompleted().size()
+                    ? ", " + (journal.getCompleted().size() - current) + " changed since and calculated again." : "."));
+        }
         
-        int employeesProcessed = 0;
-        int employeesWithHours = 0;
-        double totalGrossPay = 0.0;
-        double totalNetPay = 0.0;
-        double totalHoursWorked = 0.0;
-        double totalSssDeduction = 0.0;
-        double totalPhilHealthDeduction = 0.0;
-        double totalPagIbigDeduction = 0.0;
-        double totalTaxDeduction = 0.0;
+        printPayrollHeader(out);
+        
+        int count = employees.size();
+        List<Exception> errors = new ArrayList<>(Collections.nCopies(count, (Exception) null));
+        // Workers add each result to the totals; the print loop below stays sequential to keep row order
+        PayrollSummary summary = new PayrollSummary(PayrollSummary.GroupBy.NONE);
+        List<Map<String, Double>> results = journal != null
+            ? calculateCheckpointedPayroll(journal, startDate, endDate, errors, summary)
+            : calculateAllPayroll(employees, startDate, endDate, errors, summary);
 
-        for (Employee employee : employees) {
+        for (int i = 0; i < count; i++) {
+            Employee employee = employees.get(i);
             try {
+                if (errors.get(i) != null) {
+                    throw errors.get(i);
+                }
+                
                 // Process each employee's payroll
-                Map<String, Double> payrollData = processEmployeePayroll(employee, startDate, endDate);
-                employeesProcessed++;
+                Map<String, Double> payrollData = results.get(i);
                 
                 double employeeHours = payrollData.get("totalHoursWorked");
                 double grossIncome = payrollData.get("grossIncome");
@@ -109,7 +204,7 @@ public class Payroll implements FileStorage<Employee> {
                 double netPay = payrollData.get("netPay");
                 
                 // Print the main payroll row with exactly 2 decimal places and all deductions
-                System.out.printf("║ %-8s ║ %-15s ║ %-12s ║ %-13s ║ %,12.2f ║ %,11.2f ║ %,11.2f ║ %,11.2f ║ %,11.2f ║ %,11.2f ║ %,10.2f ║%n",
+                out.printf("║ %-8s ║ %-15s ║ %-12s ║ %-13s ║ %,12.2f ║ %,11.2f ║ %,11.2f ║ %,11.2f ║ %,11.2f ║ %,11.2f ║ %,10.2f ║%n",
                     employee.getId(),
                     employee.getName(),
                     employee.getPosition(),
@@ -123,43 +218,236 @@ public class Payroll implements FileStorage<Employee> {
                     netPay
                 );
                 
-                // Update totals
-                if (employeeHours > 0) {
-                    employeesWithHours++;
-                    totalHoursWorked += employeeHours;
-                    totalGrossPay += grossIncome;
-                    totalSssDeduction += sssDeduction;
-                    totalPhilHealthDeduction += philHealthDeduction;
-                    totalPagIbigDeduction += pagIbigDeduction;
-                    totalTaxDeduction += taxDeduction;
-                    totalNetPay += netPay;
-                }
-                
             } catch (Exception e) {
-                System.out.println("║ Error processing payroll for employee " + employee.getId() + ": " + e.getMessage() + " ║");
+                out.println("║ Error processing payroll for employee " + employee.getId() + ": " + e.getMessage() + " ║");
                 e.printStackTrace();
             }
         }
         
+        Map<String, Double> totals = summary.getTotals();
+        int employeesWithHours = totals.get("employeesWithHours").intValue();
+        double totalHoursWorked = totals.get("totalHoursWorked");
+        
         // Print summary
-        System.out.println("╠══════════╩═══════════════════╩════════════════╩═══════════════╩════════════════╩═══════════════╩═══════════════╩═══════════════╩═══════════════╩═══════════════╩══════════════╣");
-        System.out.println("║                                                                    PAYROLL SUMMARY                                                                                             ║");
-        System.out.println("╠════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════╣");
-        System.out.printf("║ Total Employees Processed: %-125d ║%n", employeesProcessed);
-        System.out.printf("║ Employees With Hours: %-128d ║%n", employeesWithHours);
-        System.out.printf("║ Total Hours Worked: %-129.2f ║%n", totalHoursWorked);
-        System.out.printf("║ Average Hours Per Employee: %-123.2f ║%n", 
+        out.println("╠══════════╩═══════════════════╩════════════════╩═══════════════╩════════════════╩═══════════════╩═══════════════╩═══════════════╩═══════════════╩═══════════════╩══════════════╣");
+        out.println("║                                                                    PAYROLL SUMMARY                                                                                             ║");
+        out.println("╠════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════╣");
+        out.printf("║ Total Employees Processed: %-125d ║%n", totals.get("employeesProcessed").intValue());
+        out.printf("║ Employees With Hours: %-128d ║%n", employeesWithHours);
+        out.printf("║ Total Hours Worked: %-129.2f ║%n", totalHoursWorked);
+        out.printf("║ Average Hours Per Employee: %-123.2f ║%n", 
             employeesWithHours > 0 ? totalHoursWorked / employeesWithHours : 0);
-        System.out.println("╠════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════╣");
-        System.out.printf("║ Total Gross Pay:          PHP %-123.2f ║%n", totalGrossPay);
-        System.out.printf("║ Total SSS Deductions:     PHP %-123.2f ║%n", totalSssDeduction);
-        System.out.printf("║ Total PhilHealth:         PHP %-123.2f ║%n", totalPhilHealthDeduction);
-        System.out.printf("║ Total Pag-IBIG:           PHP %-123.2f ║%n", totalPagIbigDeduction);
-        System.out.printf("║ Total Tax Deductions:     PHP %-123.2f ║%n", totalTaxDeduction);
-        System.out.printf("║ Total Deductions:         PHP %-123.2f ║%n", 
-            totalSssDeduction + totalPhilHealthDeduction + totalPagIbigDeduction + totalTaxDeduction);
-        System.out.printf("║ Total Net Pay:            PHP %-123.2f ║%n", totalNetPay);
-        System.out.println("╚════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════╝");
+        out.println("╠════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════╣");
+        out.printf("║ Total Gross Pay:          PHP %-123.2f ║%n", totals.get("grossIncome"));
+        out.printf("║ Total SSS Deductions:     PHP %-123.2f ║%n", totals.get("sssDeduction"));
+        out.printf("║ Total PhilHealth:         PHP %-123.2f ║%n", totals.get("philHealthDeduction"));
+        out.printf("║ Total Pag-IBIG:           PHP %-123.2f ║%n", totals.get("pagIbigDeduction"));
+        out.printf("║ Total Tax Deductions:     PHP %-123.2f ║%n", totals.get("taxDeduction"));
+        out.printf("║ Total Deductions:         PHP %-123.2f ║%n", totals.get("totalDeductions"));
+        out.printf("║ Total Net Pay:            PHP %-123.2f ║%n", totals.get("netPay"));
+        out.println("╚════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════╝");
+        out.flush();
+
+        if (journal != null) {
+            journal.complete();
+        }
+    }
+
+    /**
+     * Closes a pay period, archiving its final results for analytics
+     * Results are calculated again so corrections made while the period was open are included,
+     * and the period stops receiving attendance corrections
+     * 
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @return Number of employees archived
+     * @throws IOException if the archive cannot be written
+     */
+    public int closePeriod(LocalDate startDate, LocalDate endDate) throws IOException {
+        List<Exception> errors = new ArrayList<>(Collections.nCopies(employees.size(), (Exception) null));
+        List<Map<String, Double>> results = calculateAllPayroll(employees, startDate, endDate, errors);
+        int archived = PayrollArchive.write(PayrollArchive.directoryFor(startDate, endDate), startDate, endDate,
+                                            employees, results);
+        incrementalPayroll.closePeriod(startDate, endDate);
+        return archived;
+    }
+
+    /**
+     * Summarizes payroll totals for all employees within a date range
+     * Employees are processed in parallel; totals are exact regardless of thread scheduling
+     * 
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @param groupBy Attribute used to group totals, or NONE for company totals only
+     * @return The payroll summary
+     */
+    public PayrollSummary summarizePayroll(LocalDate startDate, LocalDate endDate, PayrollSummary.GroupBy groupBy) {
+        int count = employees.size();
+        List<Exception> errors = new ArrayList<>(Collections.nCopies(count, (Exception) null));
+        PayrollSummary summary = new PayrollSummary(groupBy);
+        calculateAllPayroll(employees, startDate, endDate, errors, summary);
+        for (int i = 0; i < count; i++) {
+            if (errors.get(i) != null) {
+                System.out.println("Error processing payroll for employee " + employees.get(i).getId() + ": " + errors.get(i).getMessage());
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Exports payroll for all employees within a date range to a file
+     * Employees are calculated a chunk at a time and each result is written as soon as
+     * it is ready, so memory use does not grow with the size of the roster
+     * 
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @param file Path of the export file, replaced if it exists
+     * @param format File format to write
+     * @return Number of employee rows written
+     * @throws IOException if the export file cannot be written
+     */
+    public long exportPayroll(LocalDate startDate, LocalDate endDate, Path file,
+                              PayrollExporter.Format format) throws IOException {
+        try (PayrollExporter exporter = new PayrollExporter(file, format)) {
+            for (int from = 0; from < employees.size(); from += EXPORT_CHUNK_SIZE) {
+                List<Employee> chunk = employees.subList(from, Math.min(from + EXPORT_CHUNK_SIZE, employees.size()));
+                List<Exception> errors = new ArrayList<>(Collections.nCopies(chunk.size(), (Exception) null));
+                List<Map<String, Double>> results = calculateAllPayroll(chunk, startDate, endDate, errors);
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (results.get(i) != null) {
+                        exporter.write(chunk.get(i), startDate, endDate, results.get(i));
+                    } else {
+                        System.out.println("Error processing payroll for employee " + chunk.get(i).getId() + ": "
+                            + errors.get(i).getMessage());
+                    }
+                }
+            }
+            return exporter.getRowCount();
+        }
+    }
+
+    /**
+     * Calculates payroll for every employee, skipping employees already in the run journal
+     * unless their details, punches or hours for the period have changed since
+     * Remaining employees are processed in batches, and each batch is written to the
+     * journal before the next one starts
+     * 
+     * @param journal Journal of the run being processed
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @param errors List with one slot per employee, receiving the failure for that employee if any
+     * @param summary Summary receiving each employee's result, journaled or newly calculated
+     * @return Payroll values in employee order, with null for employees that failed
+     */
+    private List<Map<String, Double>> calculateCheckpointedPayroll(PayrollRunJournal journal, LocalDate startDate,
+                                                                   LocalDate endDate, List<Exception> errors,
+                                                                   PayrollSummary summary) {
+        int count = employees.size();
+        List<Map<String, Double>> results = new ArrayList<>(Collections.nCopies(count, (Map<String, Double>) null));
+        List<Integer> remaining = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String, Double> completed = journal.getCompleted(employees.get(i));
+            if (completed != null) {
+                results.set(i, completed);
+                summary.add(employees.get(i), completed);
+            } else {
+                remaining.add(i);
+            }
+        }
+
+        boolean journaling = true;
+        for (int from = 0; from < remaining.size(); from += PayrollRunJournal.BATCH_SIZE) {
+            List<Integer> batch = remaining.subList(from, Math.min(from + PayrollRunJournal.BATCH_SIZE, remaining.size()));
+            List<Employee> batchEmployees = new ArrayList<>(batch.size());
+            for (int index : batch) {
+                batchEmployees.add(employees.get(index));
+            }
+            List<Exception> batchErrors = new ArrayList<>(Collections.nCopies(batch.size(), (Exception) null));
+            List<Map<String, Double>> batchResults = calculateAllPayroll(batchEmployees, startDate, endDate,
+                                                                         batchErrors, summary);
+
+            for (int j = 0; j < batch.size(); j++) {
+                results.set(batch.get(j), batchResults.get(j));
+                errors.set(batch.get(j), batchErrors.get(j));
+            }
+
+            if (journaling) {
+                try {
+                    for (int j = 0; j < batch.size(); j++) {
+                        if (batchResults.get(j) != null) {
+                            journal.append(batchEmployees.get(j), batchResults.get(j));
+                        }
+                    }
+                    journal.flush();
+                } catch (IOException e) {
+                    System.out.println("Error writing payroll run journal, continuing without checkpoints: " + e.getMessage());
+                    journaling = false;
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Calculates payroll for a list of employees within a date range
+     * Earnings are computed in parallel, then deductions are evaluated in one batch
+     * 
+     * @param targets Employees to process
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @param errors List with one slot per employee, receiving the failure for that employee if any
+     * @return Payroll values in the order of targets, with null for employees that failed
+     */
+    List<Map<String, Double>> calculateAllPayroll(List<Employee> targets, LocalDate startDate,
+                                                          LocalDate endDate, List<Exception> errors) {
+        return calculateAllPayroll(targets, startDate, endDate, errors, null);
+    }
+
+    /**
+     * Calculates payroll for a list of employees, adding each result to a summary
+     * The worker that finishes an employee's deductions adds it, so no second pass is needed
+     * 
+     * @param targets Employees to process
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @param errors List with one slot per employee, receiving the failure for that employee if any
+     * @param summary Summary receiving each completed result, or null
+     * @return Payroll values in the order of targets, with null for employees that failed
+     */
+    private List<Map<String, Double>> calculateAllPayroll(List<Employee> targets, LocalDate startDate, LocalDate endDate,
+                                                          List<Exception> errors, PayrollSummary summary) {
+        int count = targets.size();
+        List<Map<String, Double>> results = new ArrayList<>(Collections.nCopies(count, (Map<String, Double>) null));
+        double[] grossIncomes = new double[count];
+        IntStream.range(0, count).parallel().forEach(i -> {
+            try {
+                Map<String, Double> earnings = calculateEarnings(targets.get(i), startDate, endDate);
+                grossIncomes[i] = earnings.get("grossIncome");
+                results.set(i, earnings);
+            } catch (Exception e) {
+                errors.set(i, e);
+            }
+        });
+        
+        double[] sssDeductions = new double[count];
+        double[] philHealthDeductions = new double[count];
+        double[] pagIbigDeductions = new double[count];
+        double[] taxDeductions = new double[count];
+        new BatchDeductionCalculator().calculate(grossIncomes, endDate,
+            WithholdingTaxTable.Periodicity.forPeriod(startDate, endDate),
+            sssDeductions, philHealthDeductions, pagIbigDeductions, taxDeductions);
+
+        IntStream.range(0, count).parallel().forEach(i -> {
+            Map<String, Double> payrollData = results.get(i);
+            if (payrollData != null) {
+                applyDeductions(payrollData, sssDeductions[i], philHealthDeductions[i],
+                    pagIbigDeductions[i], taxDeductions[i]);
+                if (summary != null) {
+                    summary.add(targets.get(i), payrollData);
+                }
+            }
+        });
+        return results;
     }
 
     /**
@@ -172,48 +460,75 @@ public class Payroll implements FileStorage<Employee> {
      * @return Map containing the calculated payroll values
      */
     private Map<String, Double> processEmployeePayroll(Employee employee, LocalDate startDate, LocalDate endDate) {
-        Map<String, Double> payrollResults = new HashMap<>();
-        
-        // Calculate total hours worked in the period
-        double totalHoursWorked = 0.0;
-        int daysPresent = 0;
-        
-        for (Map.Entry<LocalDate, Employee.AttendanceRecord> entry : employee.getAttendanceRecords().entrySet()) {
-            LocalDate date = entry.getKey();
-            if (!date.isBefore(startDate) && !date.isAfter(endDate)) {
-                Employee.AttendanceRecord record = entry.getValue();
-                double hoursForDay = record.getHoursWorked();
-                if (hoursForDay > 0) {
-                    totalHoursWorked += hoursForDay;
-                    daysPresent++;
-                }
-            }
+        Map<String, Double> payrollResults = calculateEarnings(employee, startDate, endDate);
+        double grossIncome = payrollResults.get("grossIncome");
+        applyDeductions(payrollResults,
+            employee.calculateSSSDeduction(grossIncome, endDate),
+            employee.calculatePhilHealthDeduction(grossIncome),
+            employee.calculatePagIBIGDeduction(grossIncome),
+            employee.calculateTaxDeduction(grossIncome, WithholdingTaxTable.Periodicity.forPeriod(startDate, endDate)));
+        return payrollResults;
+    }
+
+    /**
+     * Gets payroll for a single employee, reusing a cached result when possible
+     * Cached results are only served while the employee's attendance, allowances
+     * and the rate tables are unchanged
+     * 
+     * @param employee Employee to process
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @return Read-only map containing the calculated payroll values
+     */
+    Map<String, Double> getEmployeePayroll(Employee employee, LocalDate startDate, LocalDate endDate) {
+        Map<String, Double> payrollData = payrollCache.get(employee, startDate, endDate);
+        if (payrollData == null) {
+            payrollData = payrollCache.put(employee, startDate, endDate,
+                processEmployeePayroll(employee, startDate, endDate));
         }
+        return payrollData;
+    }
+
+    /**
+     * Calculates hours, base pay, allowances and gross income for a single employee
+     * 
+     * @param employee Employee to process
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @return Map containing the calculated earnings
+     */
+    private Map<String, Double> calculateEarnings(Employee employee, LocalDate startDate, LocalDate endDate) {
+        // Hours and days present come from the employee's monthly attendance counters
+        Employee.AttendanceSummary attendance = employee.getAttendanceSummary(startDate, endDate);
+        return buildEarnings(employee, attendance.getTotalHours(), attendance.getDaysPresent(), endDate);
+    }
+
+    /**
+     * Builds the earnings map from hours worked and days present
+     * 
+     * @param employee Employee being processed
+     * @param totalHoursWorked Total hours worked in the period
+     * @param daysPresent Number of days with hours worked in the period
+     * @param endDate End date of the period, used to find the month's working days
+     * @return Map containing the calculated earnings
+     */
+    private Map<String, Double> buildEarnings(Employee employee, double totalHoursWorked, int daysPresent, LocalDate endDate) {
+        Map<String, Double> payrollResults = new HashMap<>();
 
         // Calculate pay components
         double hourlyRate = employee.getHourlyRate();
         double basePay = totalHoursWorked * hourlyRate;
         
         // Calculate prorated allowances
-        int standardWorkDays = 22;
-        double prorationFactor = Math.min(1.0, (double) daysPresent / standardWorkDays);
+        double prorationFactor = allowanceProration(daysPresent, endDate);
         
         double riceSubsidy = employee.getRiceSubsidy() * prorationFactor;
         double phoneAllowance = employee.getPhoneAllowance() * prorationFactor;
         double clothingAllowance = employee.getClothingAllowance() * prorationFactor;
         double totalAllowances = riceSubsidy + phoneAllowance + clothingAllowance;
         
-        // Calculate gross income and deductions
         double grossIncome = basePay + totalAllowances;
-        double sssDeduction = employee.calculateSSSDeduction(grossIncome);
-        double philHealthDeduction = employee.calculatePhilHealthDeduction(grossIncome);
-        double pagIbigDeduction = employee.calculatePagIBIGDeduction(grossIncome);
-        double basicDeduction = sssDeduction + philHealthDeduction + pagIbigDeduction;
-        double taxDeduction = employee.calculateTaxDeduction(grossIncome);
-            double totalDeductions = basicDeduction + taxDeduction;
-        double netPay = grossIncome - totalDeductions;
 
-        // Store all calculated values
         payrollResults.put("totalHoursWorked", totalHoursWorked);
         payrollResults.put("hourlyRate", hourlyRate);
         payrollResults.put("basePay", basePay);
@@ -222,15 +537,49 @@ public class Payroll implements FileStorage<Employee> {
         payrollResults.put("clothingAllowance", clothingAllowance);
         payrollResults.put("totalAllowances", totalAllowances);
         payrollResults.put("grossIncome", grossIncome);
+        payrollResults.put("daysPresent", (double) daysPresent);
+
+        return payrollResults;
+    }
+
+    /**
+     * Calculates the share of the monthly allowances earned for the days present
+     * Prorates against the working days (excluding weekends and holidays) in the month of the period end
+     * 
+     * @param daysPresent Number of days with hours worked in the period
+     * @param endDate End date of the period
+     * @return Proration factor between 0 and 1
+     */
+    static double allowanceProration(int daysPresent, LocalDate endDate) {
+        int standardWorkDays = WorkingDayCalendar.getDefault().getWorkingDaysInMonth(YearMonth.from(endDate));
+        if (standardWorkDays == 0) {
+            return daysPresent > 0 ? 1.0 : 0.0;
+        }
+        return Math.min(1.0, (double) daysPresent / standardWorkDays);
+    }
+
+    /**
+     * Adds government deductions, tax and net pay to calculated earnings
+     * 
+     * @param payrollResults Map of earnings from calculateEarnings, updated in place
+     * @param sssDeduction SSS contribution for the gross income
+     * @param philHealthDeduction PhilHealth contribution for the gross income
+     * @param pagIbigDeduction Pag-IBIG contribution for the gross income
+     * @param taxDeduction Withholding tax for the gross income
+     */
+    private void applyDeductions(Map<String, Double> payrollResults, double sssDeduction, double philHealthDeduction,
+                                 double pagIbigDeduction, double taxDeduction) {
+        double grossIncome = payrollResults.get("grossIncome");
+        double basicDeduction = sssDeduction + philHealthDeduction + pagIbigDeduction;
+        double totalDeductions = basicDeduction + taxDeduction;
+        double netPay = grossIncome - totalDeductions;
+
         payrollResults.put("sssDeduction", sssDeduction);
         payrollResults.put("philHealthDeduction", philHealthDeduction);
         payrollResults.put("pagIbigDeduction", pagIbigDeduction);
         payrollResults.put("taxDeduction", taxDeduction);
         payrollResults.put("totalDeductions", totalDeductions);
         payrollResults.put("netPay", netPay);
-        payrollResults.put("daysPresent", (double) daysPresent);
-
-        return payrollResults;
     }
 
     /**
@@ -242,79 +591,95 @@ public class Payroll implements FileStorage<Employee> {
      * @param endDate End date of the period
      */
     private void displayPayrollInformation(Employee employee, Map<String, Double> payrollData, LocalDate startDate, LocalDate endDate) {
+        ReportRenderer out = ReportRenderer.current();
+        renderPayslip(out, employee, payrollData, startDate, endDate);
+        out.flush();
+    }
+
+    /**
+     * Lays out an employee's payslip, the grid shown by displayPayrollInformation
+     * 
+     * @param out Renderer receiving the payslip
+     * @param employee Employee whose payroll to render
+     * @param payrollData Map containing the calculated payroll values
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     */
+    static void renderPayslip(ReportRenderer out, Employee employee, Map<String, Double> payrollData,
+                              LocalDate startDate, LocalDate endDate) {
         DateTimeFormatter displayFormat = DateTimeFormatter.ofPattern("MM/dd/yyyy");
         
         // Print header with company information
-        System.out.println("\n╔════════════════════════════════════════════════════════════════════════════════════════════════════════════════╗");
-        System.out.println("║                                              MOTORPH CORPORATION                                                 ║");
-        System.out.println("║                                               PAYROLL STATEMENT                                                 ║");
-        System.out.println("╠════════════════════════════════════════════════════════════════════════════════════════════════════════════════╣");
+        out.println("\n╔════════════════════════════════════════════════════════════════════════════════════════════════════════════════╗");
+        out.println("║                                              MOTORPH CORPORATION                                                 ║");
+        out.println("║                                               PAYROLL STATEMENT                                                 ║");
+        out.println("╠════════════════════════════════════════════════════════════════════════════════════════════════════════════════╣");
 
         // Employee Information Section with enhanced grid
-        System.out.println("║                                             EMPLOYEE INFORMATION                                               ║");
-        System.out.println("╠══════════════════════════════════╦═════════════════════════════════════════════════════════════════════════════╣");
-        System.out.printf("║ Employee ID: %-20s ║ Name: %-63s ║%n", employee.getId(), employee.getName());
-        System.out.printf("║ Position: %-23s ║ Department: %-59s ║%n", employee.getPosition(), employee.getDepartment());
-        System.out.printf("║ Pay Period: %s - %s %-37s ║%n", startDate.format(displayFormat), endDate.format(displayFormat), "");
-        System.out.println("╠══════════════════════════════════╩═════════════════════════════════════════════════════════════════════════════╣");
+        out.println("║                                             EMPLOYEE INFORMATION                                               ║");
+        out.println("╠══════════════════════════════════╦═════════════════════════════════════════════════════════════════════════════╣");
+        out.printf("║ Employee ID: %-20s ║ Name: %-63s ║%n", employee.getId(), employee.getName());
+        out.printf("║ Position: %-23s ║ Department: %-59s ║%n", employee.getPosition(), employee.getDepartment());
+        out.printf("║ Pay Period: %s - %s %-37s ║%n", startDate.format(displayFormat), endDate.format(displayFormat), "");
+        out.println("╠══════════════════════════════════╩═════════════════════════════════════════════════════════════════════════════╣");
 
         // Attendance Summary Section with enhanced grid
-        System.out.println("║                                             ATTENDANCE SUMMARY                                                 ║");
-        System.out.println("╠════════════════════════════════════════════╦═══════════════════════════════════════════════════════════════════╣");
-        System.out.printf("║ Total Days Present: %-25d ║ Total Hours Worked: %-41.2f ║%n", 
+        out.println("║                                             ATTENDANCE SUMMARY                                                 ║");
+        out.println("╠════════════════════════════════════════════╦═══════════════════════════════════════════════════════════════════╣");
+        out.printf("║ Total Days Present: %-25d ║ Total Hours Worked: %-41.2f ║%n", 
             (int)payrollData.get("daysPresent").doubleValue(), payrollData.get("totalHoursWorked"));
-        System.out.println("╠════════════════════════════════════════════╩═══════════════════════════════════════════════════════════════════╣");
+        out.println("╠════════════════════════════════════════════╩═══════════════════════════════════════════════════════════════════╣");
 
         // Earnings Section with enhanced grid
-        System.out.println("║                                                  EARNINGS                                                     ║");
-        System.out.println("╠══════════════════════════════════════════════════════════════╦═══════════════════════════════════════════════════╣");
-        System.out.printf("║ Base Pay (%,.2f hours × PHP %,.2f)                          ║ PHP %,14.2f                              ║%n",
+        out.println("║                                                  EARNINGS                                                     ║");
+        out.println("╠══════════════════════════════════════════════════════════════╦═══════════════════════════════════════════════════╣");
+        out.printf("║ Base Pay (%,.2f hours × PHP %,.2f)                          ║ PHP %,14.2f                              ║%n",
             payrollData.get("totalHoursWorked"), payrollData.get("hourlyRate"), payrollData.get("basePay"));
-        System.out.println("║                                                              ║                                               ║");
-        System.out.println("║ Allowances:                                                  ║                                               ║");
-        System.out.printf("║   ├─ Rice Subsidy                                            ║ PHP %,14.2f                              ║%n",
+        out.println("║                                                              ║                                               ║");
+        out.println("║ Allowances:                                                  ║                                               ║");
+        out.printf("║   ├─ Rice Subsidy                                            ║ PHP %,14.2f                              ║%n",
             payrollData.get("riceSubsidy"));
-        System.out.printf("║   ├─ Phone Allowance                                         ║ PHP %,14.2f                              ║%n",
+        out.printf("║   ├─ Phone Allowance                                         ║ PHP %,14.2f                              ║%n",
             payrollData.get("phoneAllowance"));
-        System.out.printf("║   └─ Clothing Allowance                                      ║ PHP %,14.2f                              ║%n",
+        out.printf("║   └─ Clothing Allowance                                      ║ PHP %,14.2f                              ║%n",
             payrollData.get("clothingAllowance"));
-        System.out.println("║                                                              ║                                               ║");
-        System.out.printf("║ Total Allowances                                             ║ PHP %,14.2f                              ║%n",
+        out.println("║                                                              ║                                               ║");
+        out.printf("║ Total Allowances                                             ║ PHP %,14.2f                              ║%n",
             payrollData.get("totalAllowances"));
-        System.out.println("╠══════════════════════════════════════════════════════════════╬═══════════════════════════════════════════════════╣");
-        System.out.printf("║ GROSS INCOME                                                 ║ PHP %,14.2f                              ║%n",
+        out.println("╠══════════════════════════════════════════════════════════════╬═══════════════════════════════════════════════════╣");
+        out.printf("║ GROSS INCOME                                                 ║ PHP %,14.2f                              ║%n",
             payrollData.get("grossIncome"));
-        System.out.println("╠══════════════════════════════════════════════════════════════╩═══════════════════════════════════════════════════╣");
+        out.println("╠══════════════════════════════════════════════════════════════╩═══════════════════════════════════════════════════╣");
 
         // Deductions Section with enhanced grid
-        System.out.println("║                                                 DEDUCTIONS                                                    ║");
-        System.out.println("╠══════════════════════════════════════════════════════════════╦═══════════════════════════════════════════════════╣");
-        System.out.printf("║ Mandatory Deductions:                                         ║                                               ║%n");
-        System.out.printf("║   ├─ SSS Contribution                                        ║ PHP %,14.2f                              ║%n",
+        out.println("║                                                 DEDUCTIONS                                                    ║");
+        out.println("╠══════════════════════════════════════════════════════════════╦═══════════════════════════════════════════════════╣");
+        out.printf("║ Mandatory Deductions:                                         ║                                               ║%n");
+        out.printf("║   ├─ SSS Contribution                                        ║ PHP %,14.2f                              ║%n",
             payrollData.get("sssDeduction"));
-        System.out.printf("║   ├─ PhilHealth Contribution                                 ║ PHP %,14.2f                              ║%n",
+        out.printf("║   ├─ PhilHealth Contribution                                 ║ PHP %,14.2f                              ║%n",
             payrollData.get("philHealthDeduction"));
-        System.out.printf("║   ├─ Pag-IBIG Contribution                                   ║ PHP %,14.2f                              ║%n",
+        out.printf("║   ├─ Pag-IBIG Contribution                                   ║ PHP %,14.2f                              ║%n",
             payrollData.get("pagIbigDeduction"));
-        System.out.printf("║   └─ Withholding Tax                                        ║ PHP %,14.2f                              ║%n",
+        out.printf("║   └─ Withholding Tax                                        ║ PHP %,14.2f                              ║%n",
             payrollData.get("taxDeduction"));
-        System.out.println("║                                                              ║                                               ║");
-        System.out.printf("║ TOTAL DEDUCTIONS                                             ║ PHP %,14.2f                              ║%n",
+        out.println("║                                                              ║                                               ║");
+        out.printf("║ TOTAL DEDUCTIONS                                             ║ PHP %,14.2f                              ║%n",
             payrollData.get("totalDeductions"));
-        System.out.println("╠══════════════════════════════════════════════════════════════╩═══════════════════════════════════════════════════╣");
+        out.println("╠══════════════════════════════════════════════════════════════╩═══════════════════════════════════════════════════╣");
 
         // Net Pay Section with enhanced grid
-        System.out.println("║                                                  NET PAY                                                     ║");
-        System.out.println("╠══════════════════════════════════════════════════════════════╦═══════════════════════════════════════════════════╣");
-        System.out.printf("║ NET PAY                                                       ║ PHP %,14.2f                              ║%n",
+        out.println("║                                                  NET PAY                                                     ║");
+        out.println("╠══════════════════════════════════════════════════════════════╦═══════════════════════════════════════════════════╣");
+        out.printf("║ NET PAY                                                       ║ PHP %,14.2f                              ║%n",
             payrollData.get("netPay"));
-        System.out.println("╚══════════════════════════════════════════════════════════════╩═══════════════════════════════════════════════════╝");
+        out.println("╚══════════════════════════════════════════════════════════════╩═══════════════════════════════════════════════════╝");
         
         // Add a note about the pay period
-        System.out.println("\n╔════════════════════════════════════════════════════════════════════════════════════════════════════════════════╗");
-        System.out.println("║ Note: This payroll statement covers the period from " + 
+        out.println("\n╔════════════════════════════════════════════════════════════════════════════════════════════════════════════════╗");
+        out.println("║ Note: This payroll statement covers the period from " + 
             startDate.format(displayFormat) + " to " + endDate.format(displayFormat) + "                              ║");
-        System.out.println("╚════════════════════════════════════════════════════════════════════════════════════════════════════════════════╝");
+        out.println("╚════════════════════════════════════════════════════════════════════════════════════════════════════════════════╝");
     }
 
     /**
@@ -337,7 +702,7 @@ public class Payroll implements FileStorage<Employee> {
             endDate = startDate.plusMonths(1).minusDays(1);
         }
 
-        Map<String, Double> payrollData = processEmployeePayroll(employee, startDate, endDate);
+        Map<String, Double> payrollData = getEmployeePayroll(employee, startDate, endDate);
         displayPayrollInformation(employee, payrollData, startDate, endDate);
     }
 
@@ -391,7 +756,7 @@ public class Payroll implements FileStorage<Employee> {
                 return;
             }
             
-            Map<String, Double> payrollData = processEmployeePayroll(employee, startDate, endDate);
+            Map<String, Double> payrollData = getEmployeePayroll(employee, startDate, endDate);
             displayPayrollInformation(employee, payrollData, startDate, endDate);
             
         } catch (Exception e) {
@@ -411,11 +776,12 @@ public class Payroll implements FileStorage<Employee> {
      * Processes weekly payroll for all employees
      */
     public void processWeeklyPayroll(LocalDate startDate, LocalDate endDate) {
-        printPayrollHeader();  // Changed from printWeeklyPayrollHeader
+        ReportRenderer out = ReportRenderer.current();
+        printPayrollHeader(out);  // Changed from printWeeklyPayrollHeader
         for (Employee employee : employees) {
             Map<String, Double> payrollData = processEmployeePayroll(employee, startDate, endDate);
             // Display weekly payroll data
-            System.out.printf(PAYROLL_FORMAT,
+            out.printf(PAYROLL_FORMAT,
                 employee.getId(), 
                 employee.getName(), 
                 employee.getPosition(), 
@@ -425,31 +791,459 @@ public class Payroll implements FileStorage<Employee> {
                 payrollData.get("netPay")
             );
         }
-        System.out.println(PAYROLL_HEADER);
+        out.println(PAYROLL_HEADER);
+        out.flush();
+    }
+
+    /**
+     * Processes payroll for several pay periods in a single pass over attendance
+     * Each employee's attendance is scanned once and every record is bucketed into
+     * the period containing it, instead of rescanning the history for each period
+     * 
+     * @param periods List of non-overlapping {startDate, endDate} pairs
+     * @return Result matrix indexed by [period][employee], in the order of the
+     *         periods given and of getEmployees()
+     * @throws IllegalArgumentException if a period is invalid or periods overlap
+     */
+    public List<List<Map<String, Double>>> processPayrollPeriods(List<LocalDate[]> periods) {
+        int periodCount = periods.size();
+        
+        // Sort periods by start date so each record can be placed by binary search
+        Integer[] order = new Integer[periodCount];
+        for (int p = 0; p < periodCount; p++) {
+            LocalDate[] period = periods.get(p);
+            if (period.length != 2 || period[1].isBefore(period[0])) {
+                throw new IllegalArgumentException("Invalid pay period at position " + p);
+            }
+            order[p] = p;
+        }
+        Arrays.sort(order, (a, b) -> periods.get(a)[0].compareTo(periods.get(b)[0]));
+        long[] starts = new long[periodCount];
+        long[] ends = new long[periodCount];
+        for (int i = 0; i < periodCount; i++) {
+            starts[i] = periods.get(order[i])[0].toEpochDay();
+            ends[i] = periods.get(order[i])[1].toEpochDay();
+            if (i > 0 && starts[i] <= ends[i - 1]) {
+                throw new IllegalArgumentException("Pay periods overlap: " + periods.get(order[i - 1])[0]
+                    + " to " + periods.get(order[i - 1])[1] + " and " + periods.get(order[i])[0]
+                    + " to " + periods.get(order[i])[1]);
+            }
+        }
+
+        int employeeCount = employees.size();
+        List<List<Map<String, Double>>> results = new ArrayList<>(periodCount);
+        double[][] grossIncomes = new double[periodCount][employeeCount];
+        for (int p = 0; p < periodCount; p++) {
+            results.add(new ArrayList<>(employeeCount));
+        }
+
+        double[] hours = new double[periodCount];
+        int[] days = new int[periodCount];
+        for (int e = 0; e < employeeCount; e++) {
+            Employee employee = employees.get(e);
+            Arrays.fill(hours, 0.0);
+            Arrays.fill(days, 0);
+            
+            // Single pass over the employee's attendance
+            for (Map.Entry<LocalDate, Employee.AttendanceRecord> entry : employee.getAttendanceRecords().entrySet()) {
+                double hoursForDay = entry.getValue().getHoursWorked();
+                if (hoursForDay <= 0) {
+                    continue;
+                }
+                long day = entry.getKey().toEpochDay();
+                int i = Arrays.binarySearch(starts, day);
+                if (i < 0) {
+                    i = -(i + 1) - 1; // Last period starting before the day
+                }
+                if (i >= 0 && day <= ends[i]) {
+                    hours[order[i]] += hoursForDay;
+                    days[order[i]]++;
+                }
+            }
+            
+            for (int p = 0; p < periodCount; p++) {
+                Map<String, Double> earnings = buildEarnings(employee, hours[p], days[p], periods.get(p)[1]);
+                grossIncomes[p][e] = earnings.get("grossIncome");
+                results.get(p).add(earnings);
+            }
+        }
+
+        // Deductions for each period are evaluated as one batch
+        BatchDeductionCalculator calculator = new BatchDeductionCalculator();
+        double[] sss = new double[employeeCount];
+        double[] philHealth = new double[employeeCount];
+        double[] pagIbig = new double[employeeCount];
+        double[] tax = new double[employeeCount];
+        for (int p = 0; p < periodCount; p++) {
+            LocalDate[] period = periods.get(p);
+            calculator.calculate(grossIncomes[p], period[1], WithholdingTaxTable.Periodicity.forPeriod(period[0], period[1]),
+                sss, philHealth, pagIbig, tax);
+            List<Map<String, Double>> periodResults = results.get(p);
+            for (int e = 0; e < employeeCount; e++) {
+                applyDeductions(periodResults.get(e), sss[e], philHealth[e], pagIbig[e], tax[e]);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Gets the 24 semi-monthly pay periods of a year
+     * Periods run from the 1st to the 15th and from the 16th to the end of each month
+     * 
+     * @param year The calendar year
+     * @return List of {startDate, endDate} pairs in date order
+     */
+    public static List<LocalDate[]> getSemiMonthlyPeriods(int year) {
+        List<LocalDate[]> periods = new ArrayList<>(24);
+        for (int month = 1; month <= 12; month++) {
+            LocalDate first = LocalDate.of(year, month, 1);
+            periods.add(new LocalDate[] {first, first.withDayOfMonth(15)});
+            periods.add(new LocalDate[] {first.withDayOfMonth(16), first.withDayOfMonth(first.lengthOfMonth())});
+        }
+        return periods;
+    }
+
+    /**
+     * Processes and prints year-end payroll for all 24 semi-monthly periods of a year
+     * Uses processPayrollPeriods, so attendance is scanned once for the whole year
+     * Shows company totals per period and each employee's totals for the year
+     * Only periods in which an employee worked count toward the totals, as in processPayroll
+     * 
+     * @param year The calendar year
+     */
+    public void processYearEnd(int year) {
+        List<LocalDate[]> periods = getSemiMonthlyPeriods(year);
+        List<List<Map<String, Double>>> results = processPayrollPeriods(periods);
+        String[] fields = {"totalHoursWorked", "grossIncome", "totalDeductions", "taxDeduction", "netPay"};
+        double[][] annual = new double[employees.size()][fields.length];
+        double[] yearTotals = new double[fields.length];
+
+        ReportRenderer out = ReportRenderer.current();
+        out.println(PAYROLL_HEADER);
+        out.println("                                          YEAR-END PAYROLL " + year);
+        out.println(PAYROLL_HEADER);
+        out.printf("%-25s | %-12s | %-15s | %-15s | %-15s | %-15s%n",
+            "Period", "Hours", "Gross Pay", "Deductions", "Tax", "Net Pay");
+        for (int p = 0; p < periods.size(); p++) {
+            double[] periodTotals = new double[fields.length];
+            for (int e = 0; e < employees.size(); e++) {
+                Map<String, Double> payrollData = results.get(p).get(e);
+                if (payrollData.get("totalHoursWorked") <= 0) {
+                    continue;
+                }
+                for (int f = 0; f < fields.length; f++) {
+                    periodTotals[f] += payrollData.get(fields[f]);
+                    annual[e][f] += payrollData.get(fields[f]);
+                }
+            }
+            out.printf("%-25s | %,12.2f | %,15.2f | %,15.2f | %,15.2f | %,15.2f%n",
+                periods.get(p)[0] + " to " + periods.get(p)[1], periodTotals[0], periodTotals[1],
+                periodTotals[2], periodTotals[3], periodTotals[4]);
+            for (int f = 0; f < fields.length; f++) {
+                yearTotals[f] += periodTotals[f];
+            }
+        }
+        out.printf("%-25s | %,12.2f | %,15.2f | %,15.2f | %,15.2f | %,15.2f%n",
+            "Year Total", yearTotals[0], yearTotals[1], yearTotals[2], yearTotals[3], yearTotals[4]);
+
+        out.println(PAYROLL_HEADER);
+        out.printf("%-8s | %-20s | %-12s | %-15s | %-15s | %-15s | %-15s%n",
+            "ID", "Name", "Hours", "Gross Pay", "Deductions", "Tax", "Net Pay");
+        for (int e = 0; e < employees.size(); e++) {
+            Employee employee = employees.get(e);
+            out.printf("%-8s | %-20s | %,12.2f | %,15.2f | %,15.2f | %,15.2f | %,15.2f%n",
+                employee.getId(), employee.getName(), annual[e][0], annual[e][1], annual[e][2],
+                annual[e][3], annual[e][4]);
+        }
+        out.println(PAYROLL_HEADER);
+        out.flush();
     }
 
     /**
      * Prints the header for regular payroll reports
+     * 
+     * @param out Renderer receiving the report
      */
-    private void printPayrollHeader() {
+    private void printPayrollHeader(ReportRenderer out) {
         // Print the main header
-        System.out.println("\n╔════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════╗");
-        System.out.println("║                                                                       MOTORPH PAYROLL SYSTEM                                                                                    ║");
-        System.out.println("╠════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════╣");
-        System.out.println("║ Note: Gross Income = (Hours Worked × Hourly Rate) + Prorated Allowances                                                                                                        ║");
-        System.out.println("╠══════════╦═══════════════════╦════════════════╦═══════════════╦════════════════╦═══════════════╦═══════════════╦═══════════════╦═══════════════╦═══════════════╦══════════════╣");
-        System.out.println("║   ID     ║    Employee Name  ║    Position    ║   Department  ║  Hours Worked  ║ Gross Income  ║     SSS       ║   PhilHealth  ║    Pag-IBIG   ║      Tax      ║    Net Pay   ║");
-        System.out.println("╠══════════╬═══════════════════╬════════════════╬═══════════════╬════════════════╬═══════════════╬═══════════════╬═══════════════╬═══════════════╬═══════════════╬══════════════╣");
+        out.println("\n╔════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════╗");
+        out.println("║                                                                       MOTORPH PAYROLL SYSTEM                                                                                    ║");
+        out.println("╠════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════════╣");
+        out.println("║ Note: Gross Income = (Hours Worked × Hourly Rate) + Prorated Allowances                                                                                                        ║");
+        out.println("╠══════════╦═══════════════════╦════════════════╦═══════════════╦════════════════╦═══════════════╦═══════════════╦═══════════════╦═══════════════╦═══════════════╦══════════════╣");
+        out.println("║   ID     ║    Employee Name  ║    Position    ║   Department  ║  Hours Worked  ║ Gross Income  ║     SSS       ║   PhilHealth  ║    Pag-IBIG   ║      Tax      ║    Net Pay   ║");
+        out.println("╠══════════╬═══════════════════╬════════════════╬═══════════════╬════════════════╬═══════════════╬═══════════════╬═══════════════╬═══════════════╬═══════════════╬══════════════╣");
     }
 
     /**
-     * Adds a new employee to the system and saves to file
+     * Adds a new employee to the system and records it in the employee journal
+     * Only the new employee is written; the data file is compacted in the background
      * 
      * @param employee The employee to add
      */
     public void addEmployee(Employee employee) {
         employees.add(employee);
-        save(employees);
+        incrementalPayroll.employeeAdded(employee);
+        writeAheadLog.employeeAdded(employee);
+        employee.addAttendanceListener(writeAheadLog);
+        journalEmployee(EmployeeJournal.ADD, employee);
+    }
+
+    /**
+     * Writes the employee and attendance files as a snapshot and starts a new write-ahead log
+     * 
+     * @throws IOException if a file cannot be written
+     */
+    public void checkpoint() throws IOException {
+        writeAheadLog.flush();
+        writeEmployeeFile(employees, DEFAULT_BATCH_SIZE);
+        
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("M/d/yyyy");
+        AttendanceArchive archive = AttendanceArchive.open(Paths.get(ATTENDANCE_ARCHIVE_PATH));
+        StringBuilder contents = new StringBuilder(ATTENDANCE_FILE_HEADER).append(System.lineSeparator());
+        for (Employee employee : employees) {
+            // The attendance file is split on commas without quoting
+            String names = employee.getLastName().replace(",", "") + "," + employee.getFirstName().replace(",", "");
+            Map<LocalDate, LocalTime[]> archived = new HashMap<>();
+            if (archive != null) {
+                archive.forEach(employee.getId(), LocalDate.MIN, LocalDate.MAX,
+                    (date, login, logout) -> archived.put(date, new LocalTime[] {login, logout}));
+            }
+            for (Map.Entry<LocalDate, Employee.AttendanceRecord> entry
+                    : employee.getAttendanceRecords(LocalDate.MIN, LocalDate.MAX).entrySet()) {
+                Employee.AttendanceRecord record = entry.getValue();
+                if (record.getLogoutTime() == null) {
+                    continue; // Carried in the new log instead
+                }
+                LocalTime[] punches = archived.get(entry.getKey());
+                if (punches != null && Objects.equals(punches[0], record.getLoginTime())
+                        && Objects.equals(punches[1], record.getLogoutTime())) {
+                    continue; // Unchanged since it was archived
+                }
+                contents.append(employee.getId()).append(',').append(names).append(',')
+                        .append(entry.getKey().format(dateFormatter)).append(',')
+                        .append(formatPunch(record.getLoginTime())).append(',')
+                        .append(formatPunch(record.getLogoutTime())).append(System.lineSeparator());
+            }
+        }
+        AtomicFileWriter.forPath(ATTENDANCE_FILE_PATH, "attendance records").save(contents.toString());
+        
+        writeAheadLog.checkpoint(employees);
+        rebuildIndex();
+    }
+
+    /**
+     * Moves completed attendance records dated before a day into the attendance archive
+     * The archive is rewritten from the loaded records, and the attendance file keeps only the rest
+     * 
+     * @param before First day to keep in the attendance file
+     * @return Number of records in the archive
+     * @throws IOException if the archive or the data files cannot be written
+     */
+    public int archiveAttendance(LocalDate before) throws IOException {
+        writeAheadLog.flush();
+        int archived = AttendanceArchive.write(Paths.get(ATTENDANCE_ARCHIVE_PATH), employees, before);
+        checkpoint();
+        return archived;
+    }
+
+    /**
+     * Loads the archived attendance records, before the attendance file is read
+     * Employees are matched by number the way attendance file rows are
+     */
+    private void loadAttendanceArchive() {
+        try {
+            AttendanceArchive archive = AttendanceArchive.open(Paths.get(ATTENDANCE_ARCHIVE_PATH));
+            if (archive == null) {
+                return;
+            }
+            System.out.println("Loading attendance archive from: " + ATTENDANCE_ARCHIVE_PATH);
+            int loaded = 0;
+            for (String employeeId : archive.getEmployeeIds()) {
+                Employee employee = findEmployeeById(employeeId);
+                if (employee == null) {
+                    System.out.println("Skipping archived attendance for unknown employee: " + employeeId);
+                    continue;
+                }
+                loaded += archive.forEach(employeeId, LocalDate.MIN, LocalDate.MAX, (date, login, logout) -> {
+                    if (login != null) {
+                        employee.recordLogin(date, login);
+                    }
+                    if (logout != null) {
+                        employee.recordLogout(date, logout);
+                    }
+                });
+            }
+            System.out.println("Loaded " + loaded + " archived attendance records.");
+        } catch (IOException e) {
+            System.out.println("Error reading attendance archive: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Formats a punch time the way the attendance file stores it
+     * 
+     * @param time The punch time, or null if missing
+     * @return Time as H:mm, or HH:mm:ss when it has seconds, or an empty string
+     */
+    private static String formatPunch(LocalTime time) {
+        if (time == null) {
+            return "";
+        }
+        // Every loader accepts HH:mm:ss, but not seconds after a single-digit hour
+        return time.format(DateTimeFormatter.ofPattern(time.getSecond() == 0 ? "H:mm" : "HH:mm:ss"));
+    }
+
+    /**
+     * Flushes the write-ahead log, taking a snapshot first if the log has grown long
+     */
+    public void close() {
+        try {
+            if (writeAheadLog.needsCheckpoint()) {
+                checkpoint();
+            }
+            writeAheadLog.close();
+        } catch (IOException e) {
+            System.out.println("Error closing write-ahead log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records changes to an employee's details in the employee journal
+     * 
+     * @param employee The changed employee
+     */
+    public void updateEmployee(Employee employee) {
+        journalEmployee(EmployeeJournal.UPDATE, employee);
+    }
+
+    /**
+     * Adds an employee, or replaces the employee with the same ID
+     * Implementation of FileStorage interface
+     * 
+     * @param employee The employee to store
+     */
+    @Override
+    public void upsert(Employee employee) {
+        int index = indexOfEmployee(employee.getId());
+        if (index < 0) {
+            addEmployee(employee);
+            return;
+        }
+        Employee previous = employees.get(index);
+        if (previous != employee) {
+            employees.set(index, employee);
+            previous.removeAttendanceListener(writeAheadLog);
+            payrollCache.remove(previous);
+            incrementalPayroll.employeeRemoved(previous);
+            incrementalPayroll.employeeAdded(employee);
+            employee.addAttendanceListener(writeAheadLog);
+        }
+        updateEmployee(employee);
+    }
+
+    /**
+     * Removes the employee with the same ID and records the removal
+     * Implementation of FileStorage interface
+     * 
+     * @param employee The employee to remove
+     * @return true if an employee was removed
+     */
+    @Override
+    public boolean delete(Employee employee) {
+        int index = indexOfEmployee(employee.getId());
+        if (index < 0) {
+            return false;
+        }
+        Employee removed = employees.remove(index);
+        removed.removeAttendanceListener(writeAheadLog);
+        payrollCache.remove(removed);
+        incrementalPayroll.employeeRemoved(removed);
+        writeAheadLog.employeeRemoved(removed);
+        journalEmployee(EmployeeJournal.DELETE, removed);
+        return true;
+    }
+
+    /**
+     * Finds the position of an employee by exact ID
+     * 
+     * @param id Employee ID
+     * @return Index in the employee list, or -1 if not found
+     */
+    private int indexOfEmployee(String id) {
+        for (int i = 0; i < employees.size(); i++) {
+            if (employees.get(i).getId().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Appends an employee change to the journal, compacting it once enough changes build up
+     * Falls back to saving the whole file if the journal cannot be written
+     * 
+     * @param operation ADD, UPDATE or DELETE
+     * @param employee The added, changed or removed employee
+     */
+    private void journalEmployee(String operation, Employee employee) {
+        try {
+            employeeJournal.append(operation, employee.toDetailsCSV());
+        } catch (IOException e) {
+            System.out.println("Error writing employee journal: " + e.getMessage());
+            save(employees);
+            return;
+        }
+        if (employeeJournal.needsCompaction()) {
+            employeeJournal.compactInBackground(EMPLOYEE_FILE_HEADER, toDetailsRows(employees));
+        }
+    }
+
+    /**
+     * Applies the changes recorded in the employee journal to a list of employees
+     * An added or updated employee replaces any employee with the same ID
+     * 
+     * @param target The employees loaded from the data file
+     * @return Number of changes applied
+     */
+    private int replayEmployeeJournal(List<Employee> target) {
+        Map<String, Employee> byId = new LinkedHashMap<>();
+        for (Employee employee : target) {
+            byId.put(employee.getId(), employee);
+        }
+        
+        int applied = 0;
+        for (String[] entry : employeeJournal.readEntries()) {
+            try {
+                Employee employee = parseEmployeeDetails(parseCSVLine(entry[1]));
+                if (entry[0].equals(EmployeeJournal.DELETE)) {
+                    byId.remove(employee.getId());
+                } else {
+                    byId.put(employee.getId(), employee);
+                }
+                applied++;
+            } catch (IllegalArgumentException e) {
+                System.out.println("Skipping invalid employee journal entry: " + entry[0] + "," + entry[1]);
+                System.out.println("Error: " + e.getMessage());
+            }
+        }
+        target.clear();
+        target.addAll(byId.values());
+        return applied;
+    }
+
+    /**
+     * Converts employees to rows of the employee data file
+     * 
+     * @param items The employees
+     * @return One details row per employee
+     */
+    private static List<String> toDetailsRows(List<Employee> items) {
+        List<String> rows = new ArrayList<>(items.size());
+        for (Employee employee : items) {
+            rows.add(employee.toDetailsCSV());
+        }
+        return rows;
     }
 
     /**
@@ -514,6 +1308,16 @@ public class Payroll implements FileStorage<Employee> {
         return null;
     }
 
+    /**
+     * Gets the incremental payroll model for open pay periods
+     * Open a period once, and its totals then follow every recorded punch
+     * 
+     * @return The incremental payroll model
+     */
+    public IncrementalPayroll getIncrementalPayroll() {
+        return incrementalPayroll;
+    }
+
     /**
      * Gets the list of all employees in the system
      * 
@@ -524,7 +1328,7 @@ public class Payroll implements FileStorage<Employee> {
     }
 
     /**
-     * Loads employee data from the CSV file
+     * Loads employee data from the CSV file, applies the employee journal and reads the hours file
      * Implementation of FileStorage interface
      * 
      * @return List of loaded employees
@@ -532,6 +1336,7 @@ public class Payroll implements FileStorage<Employee> {
     @Override
     public List<Employee> load() {
         List<Employee> loadedEmployees = new ArrayList<>();
+        migrateEmployeeFile();
         File file = new File(FILE_PATH);
         
         if (!file.exists()) {
@@ -540,17 +1345,19 @@ public class Payroll implements FileStorage<Employee> {
         }
         
         try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            int lineCount = 0;
+            String line = br.readLine(); // Skip header row
+            int lineCount = 1;
             while ((line = br.readLine()) != null && !line.trim().isEmpty()) {
                 lineCount++;
                 try {
-                    loadedEmployees.add(Employee.fromCSV(line));
-                } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    loadedEmployees.add(parseEmployeeDetails(parseCSVLine(line)));
+                } catch (IllegalArgumentException e) {
                     System.out.println("Error on line " + lineCount + ": " + e.getMessage());
                     System.out.println("Skipping invalid employee entry: " + line);
                 }
             }
+            replayEmployeeJournal(loadedEmployees);
+            loadHoursWorked(loadedEmployees);
             System.out.println("Loaded " + loadedEmployees.size() + " employees.");
         } catch (IOException e) {
             System.out.println("Error reading employee data: " + e.getMessage());
@@ -560,18 +1367,44 @@ public class Payroll implements FileStorage<Employee> {
     }
 
     /**
-     * Saves employee data to the CSV file
+     * Saves employee data to the CSV file and the hours file, and clears the employee journal
      * Implementation of FileStorage interface
      * 
      * @param employees List of employees to save
      */
     @Override
     public void save(List<Employee> employees) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(FILE_PATH))) {
-            for (Employee employee : employees) {
-                bw.write(employee.toCSV());
-                bw.newLine();
-            }
+        saveAll(employees, DEFAULT_BATCH_SIZE);
+    }
+    
+    /**
+     * Saves employees to the CSV file a batch of rows at a time, writes the hours file
+     * and clears the employee journal
+     * Implementation of FileStorage interface
+     * 
+     * @param items Employees to save, read once in order
+     * @param batchSize Number of rows written at a time
+     */
+    @Override
+    public void saveAll(Iterable<Employee> items, int batchSize) {
+        writeEmployeeFile(items, batchSize);
+        rebuildIndex();
+    }
+    
+    /**
+     * Writes employees to the CSV file and their hours to the hours file, and clears the employee journal
+     * 
+     * @param items Employees to save, read once in order
+     * @param batchSize Number of rows written at a time
+     */
+    private void writeEmployeeFile(Iterable<Employee> items, int batchSize) {
+        try {
+            List<Employee> written = new ArrayList<>();
+            employeeJournal.checkpoint(EMPLOYEE_FILE_HEADER, items, employee -> {
+                written.add(employee);
+                return employee.toDetailsCSV();
+            }, batchSize);
+            EmployeeCodec.writeHours(FILE_PATH, written, HOURS_FORMAT);
             System.out.println("Employee data saved successfully.");
         } catch (IOException e) {
             System.out.println("Error saving employee data: " + e.getMessage());
@@ -579,6 +1412,309 @@ public class Payroll implements FileStorage<Employee> {
         }
     }
     
+    /**
+     * Rewrites the employee index to match the employee and attendance files
+     * Attendance rows are matched to employees the way loading matches them
+     */
+    private void rebuildIndex() {
+        File detailsFile = new File(FILE_PATH);
+        File attendanceFile = new File(ATTENDANCE_FILE_PATH);
+        Map<String, EmployeeIndex.Entry> entries = new LinkedHashMap<>();
+        try {
+            EmployeeIndex.scanLines(detailsFile, (offset, length, line) -> {
+                if (offset == 0 || line.trim().isEmpty()) {
+                    return; // Header row
+                }
+                String id = parseCSVLine(line).get(0).trim();
+                entries.putIfAbsent(id, new EmployeeIndex.Entry(id, offset, length, 0, 0));
+            });
+            if (attendanceFile.exists()) {
+                EmployeeIndex.scanLines(attendanceFile, (offset, length, line) -> {
+                    String[] fields = line.split(",");
+                    if (offset == 0 || fields.length < 6) {
+                        return; // Header row or a row loading skips
+                    }
+                    Employee employee = findEmployeeById(fields[0].trim());
+                    if (employee != null) {
+                        EmployeeIndex.Entry entry = entries.get(employee.getId());
+                        if (entry != null) {
+                            entry.addAttendanceRow(offset, length);
+                        }
+                        return;
+                    }
+                    // Loading falls back to the name, which a lookup by number cannot do
+                    for (Employee emp : employees) {
+                        if ((emp.getFirstName().equalsIgnoreCase(fields[2].trim()) && emp.getLastName().equalsIgnoreCase(fields[1].trim()))
+                                || emp.getName().equalsIgnoreCase(fields[2].trim() + " " + fields[1].trim())) {
+                            EmployeeIndex.Entry entry = entries.get(emp.getId());
+                            if (entry != null) {
+                                entry.markAttendanceUnindexed();
+                            }
+                            break;
+                        }
+                    }
+                });
+            }
+            EmployeeIndex.write(INDEX_PATH, new ArrayList<>(entries.values()), detailsFile, attendanceFile);
+        } catch (IOException e) {
+            System.out.println("Error rebuilding employee index: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Reads one employee and their attendance through the employee index, without loading the roster
+     * Changes in the employee journal and the write-ahead log are applied
+     * 
+     * @param employeeId The employee number, matched exactly
+     * @return The employee, or null if the index is missing, out of date or cannot answer for the employee
+     */
+    public static Employee readEmployee(String employeeId) {
+        File detailsFile = new File(FILE_PATH);
+        File attendanceFile = new File(ATTENDANCE_FILE_PATH);
+        try {
+            EmployeeIndex index = EmployeeIndex.open(INDEX_PATH);
+            if (index == null || !index.isCurrent(detailsFile, attendanceFile)) {
+                return null;
+            }
+            EmployeeIndex.Entry entry = index.find(employeeId);
+            if (entry == null || entry.getAttendanceStart() < 0) {
+                return null;
+            }
+            
+            String row = EmployeeIndex.readText(detailsFile, entry.getDetailsOffset(), entry.getDetailsLength()).trim();
+            for (String[] change : new EmployeeJournal(FILE_PATH).readEntries()) {
+                if (parseCSVLine(change[1]).get(0).trim().equals(employeeId)) {
+                    row = change[0].equals(EmployeeJournal.DELETE) ? null : change[1];
+                }
+            }
+            if (row == null) {
+                return null;
+            }
+            Employee employee = parseEmployeeDetails(parseCSVLine(row));
+            
+            AttendanceArchive archive = AttendanceArchive.open(Paths.get(ATTENDANCE_ARCHIVE_PATH));
+            if (archive != null) {
+                archive.readInto(employee, LocalDate.MIN, LocalDate.MAX);
+            }
+            if (entry.hasAttendance()) {
+                String rows = EmployeeIndex.readText(attendanceFile, entry.getAttendanceStart(),
+                                                     entry.getAttendanceEnd() - entry.getAttendanceStart());
+                for (String line : rows.split("\r?\n")) {
+                    applyAttendanceRow(employee, line);
+                }
+            }
+            return WriteAheadLog.replayFor(employee) ? employee : null;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error reading employee index: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Records one attendance file row for an employee if the row carries the employee's number
+     * 
+     * @param employee The employee
+     * @param line The attendance row
+     */
+    private static void applyAttendanceRow(Employee employee, String line) {
+        String[] fields = line.split(",");
+        if (fields.length < 6 || !sameEmployeeId(fields[0].trim(), employee.getId())) {
+            return;
+        }
+        try {
+            LocalDate date = parseAttendanceDate(fields[3].trim());
+            String login = fields[4].trim();
+            String logout = fields[5].trim();
+            if (!login.isEmpty()) {
+                employee.recordLogin(date, parseAttendanceTime(login));
+            }
+            if (!logout.isEmpty()) {
+                employee.recordLogout(date, parseAttendanceTime(logout));
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Skipping invalid attendance record: " + line);
+        }
+    }
+    
+    /**
+     * Checks whether two employee numbers are the same, with or without leading zeros
+     */
+    private static boolean sameEmployeeId(String a, String b) {
+        if (a.equals(b)) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(a) == Integer.parseInt(b);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Parses an attendance date in any of the formats loading accepts
+     * 
+     * @param value The date text
+     * @return The date
+     * @throws java.time.format.DateTimeParseException if no format matches
+     */
+    private static LocalDate parseAttendanceDate(String value) {
+        for (String pattern : new String[] {"M/d/yyyy", "MM/dd/yyyy", "MM-dd-yyyy"}) {
+            try {
+                return LocalDate.parse(value, DateTimeFormatter.ofPattern(pattern));
+            } catch (java.time.format.DateTimeParseException e) {
+                // Try the next format
+            }
+        }
+        return LocalDate.parse(value);
+    }
+    
+    /**
+     * Parses an attendance time in any of the formats loading accepts
+     * 
+     * @param value The time text
+     * @return The time
+     * @throws java.time.format.DateTimeParseException if no format matches
+     */
+    private static LocalTime parseAttendanceTime(String value) {
+        for (String pattern : new String[] {"H:mm", "HH:mm", "HH:mm:ss"}) {
+            try {
+                return LocalTime.parse(value, DateTimeFormatter.ofPattern(pattern));
+            } catch (java.time.format.DateTimeParseException e) {
+                // Try the next format
+            }
+        }
+        return LocalTime.parse(value, DateTimeFormatter.ofPattern("H:mm:ss"));
+    }
+    
+    /**
+     * Reads employees from the CSV file one row at a time, with the employee journal applied
+     * Only the journal's changes and the hours file are held in memory; the stream must be closed
+     * Implementation of FileStorage interface
+     * 
+     * @return Stream of employees in file order, followed by employees added since
+     */
+    @Override
+    public Stream<Employee> stream() {
+        migrateEmployeeFile();
+        File file = new File(FILE_PATH);
+        if (!file.exists()) {
+            System.out.println("No existing employee data found. Starting with an empty employee list.");
+            return Stream.empty();
+        }
+        
+        // Latest details row per changed employee ID, null once removed
+        Map<String, String> changes = new LinkedHashMap<>();
+        for (String[] entry : employeeJournal.readEntries()) {
+            String id = parseCSVLine(entry[1]).get(0).trim();
+            changes.put(id, entry[0].equals(EmployeeJournal.DELETE) ? null : entry[1]);
+        }
+        
+        BufferedReader br;
+        try {
+            br = new BufferedReader(new FileReader(file));
+        } catch (IOException e) {
+            System.out.println("Error reading employee data: " + e.getMessage());
+            return Stream.empty();
+        }
+        
+        Map<String, Map<LocalDate, Double>> hours = readHoursWorked();
+        Set<String> changedInFile = new HashSet<>();
+        Stream<Employee> fromFile = br.lines()
+            .skip(1) // Skip header row
+            .takeWhile(line -> !line.trim().isEmpty())
+            .flatMap(line -> {
+                String id = parseCSVLine(line).get(0).trim();
+                if (changes.containsKey(id)) {
+                    changedInFile.add(id);
+                    line = changes.get(id);
+                }
+                return parseEmployeeRow(line);
+            });
+        // Evaluated only after the file is read, once every changed row in it is known
+        Stream<Employee> added = Stream.of(changes).flatMap(latest -> latest.entrySet().stream()
+            .filter(change -> change.getValue() != null && !changedInFile.contains(change.getKey()))
+            .flatMap(change -> parseEmployeeRow(change.getValue())));
+        
+        return Stream.concat(fromFile, added).peek(employee -> applyHoursWorked(employee, hours)).onClose(() -> {
+            try {
+                br.close();
+            } catch (IOException e) {
+                System.out.println("Error closing employee data: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Parses an employee details row for a stream, skipping an invalid row
+     * 
+     * @param row The details row, or null for a removed employee
+     * @return Stream holding the employee, or an empty stream
+     */
+    private static Stream<Employee> parseEmployeeRow(String row) {
+        if (row == null) {
+            return Stream.empty();
+        }
+        try {
+            return Stream.of(parseEmployeeDetails(parseCSVLine(row)));
+        } catch (IllegalArgumentException e) {
+            System.out.println("Skipping invalid employee entry: " + row);
+            return Stream.empty();
+        }
+    }
+    
+    /**
+     * Rewrites the employee data file in the details layout if it is still in the old inline format
+     * Runs before anything reads the file as details rows; the old file is kept beside it
+     */
+    private static void migrateEmployeeFile() {
+        try {
+            if (EmployeeCodec.isInlineFormat(FILE_PATH)) {
+                EmployeeCodec.migrateInline(FILE_PATH, EMPLOYEE_FILE_HEADER, HOURS_FORMAT);
+            }
+        } catch (IOException e) {
+            System.out.println("Error migrating employee data: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Reads the hours file that goes with the employee data file
+     * 
+     * @return Map of employee ID to that employee's hours by date, empty if the file cannot be read
+     */
+    private static Map<String, Map<LocalDate, Double>> readHoursWorked() {
+        try {
+            return EmployeeCodec.readHours(FILE_PATH);
+        } catch (IOException e) {
+            System.out.println("Error reading hours worked: " + e.getMessage());
+            return new HashMap<>();
+        }
+    }
+    
+    /**
+     * Gives an employee the hours recorded for it in the hours file
+     * 
+     * @param employee The employee
+     * @param hours Hours by employee ID, as read by readHoursWorked
+     */
+    private static void applyHoursWorked(Employee employee, Map<String, Map<LocalDate, Double>> hours) {
+        Map<LocalDate, Double> recorded = hours.get(employee.getId());
+        if (recorded != null) {
+            recorded.forEach(employee::setHoursWorked);
+        }
+    }
+    
+    /**
+     * Gives loaded employees the hours recorded in the hours file
+     * 
+     * @param target The loaded employees
+     */
+    private static void loadHoursWorked(List<Employee> target) {
+        Map<String, Map<LocalDate, Double>> hours = readHoursWorked();
+        for (Employee employee : target) {
+            applyHoursWorked(employee, hours);
+        }
+    }
+    
     /**
      * Gets the file path for employee data storage
      * Implementation of FileStorage interface
@@ -602,6 +1738,7 @@ public class Payroll implements FileStorage<Employee> {
      * Parses the CSV format and creates Employee objects
      */
     private void loadEmployeesFromFile() {
+        migrateEmployeeFile();
         try {
             File file = new File(FILE_PATH);
             if (!file.exists()) {
@@ -627,53 +1764,7 @@ public class Payroll implements FileStorage<Employee> {
                             continue;
                         }
                         
-                        // Extract employee data
-                        String id = fields.get(0).trim();
-                        String lastName = fields.get(1).trim();
-                        String firstName = fields.get(2).trim();
-                        String birthday = fields.get(3).trim();
-                        String address = fields.get(4).trim();
-                        String phoneNumber = fields.get(5).trim();
-                        String sssNumber = fields.get(6).trim();
-                        String philHealthNumber = fields.get(7).trim();
-                        String tinNumber = fields.get(8).trim();
-                        String pagIbigNumber = fields.get(9).trim();
-                        String status = fields.get(10).trim();
-                        String position = fields.get(11).trim();
-                        String supervisor = fields.get(12).trim();
-                        
-                        // Parse compensation information
-                        double basicSalary = parseNumericValue(fields.get(13));
-                        double riceSubsidy = parseNumericValue(fields.get(14));
-                        double phoneAllowance = parseNumericValue(fields.get(15));
-                        double clothingAllowance = parseNumericValue(fields.get(16));
-                        double grossSemiMonthlyRate = parseNumericValue(fields.get(17));
-                        double hourlyRate = parseNumericValue(fields.get(18));
-                        
-                        // Create employee object
-                        Employee employee = new Employee(
-                            id, firstName, lastName,
-                            position, supervisor,
-                            sssNumber,
-                            philHealthNumber,
-                            pagIbigNumber,
-                            tinNumber,
-                            hourlyRate
-                        );
-                        
-                        // Set additional information
-                        employee.setDepartment(position.split(" ")[0]); // Set department from position
-                        employee.setStatus(status);
-                        employee.setPhoneNumber(phoneNumber);
-                        employee.setAddress(address);
-                        employee.setBirthday(birthday);
-                        
-                        // Set compensation components
-                        employee.setBasicSalary(basicSalary);
-                        employee.setRiceSubsidy(riceSubsidy);
-                        employee.setPhoneAllowance(phoneAllowance);
-                        employee.setClothingAllowance(clothingAllowance);
-                        employee.setGrossSemiMonthlyRate(grossSemiMonthlyRate);
+                        Employee employee = parseEmployeeDetails(fields);
                         
                         employees.add(employee);
                         System.out.println("Loaded employee: " + employee.getId() + " - " + employee.getName());
@@ -690,13 +1781,76 @@ public class Payroll implements FileStorage<Employee> {
         }
     }
     
+    /**
+     * Creates an employee from the fields of an employee data file row
+     * 
+     * @param fields The row's fields, in the file's header order
+     * @return The employee
+     * @throws IllegalArgumentException if the row has too few fields
+     */
+    private static Employee parseEmployeeDetails(List<String> fields) {
+        if (fields.size() < 19) {
+            throw new IllegalArgumentException("Expected 19 fields, got " + fields.size());
+        }
+        
+        // Extract employee data
+        String id = fields.get(0).trim();
+        String lastName = fields.get(1).trim();
+        String firstName = fields.get(2).trim();
+        String birthday = fields.get(3).trim();
+        String address = fields.get(4).trim();
+        String phoneNumber = fields.get(5).trim();
+        String sssNumber = fields.get(6).trim();
+        String philHealthNumber = fields.get(7).trim();
+        String tinNumber = fields.get(8).trim();
+        String pagIbigNumber = fields.get(9).trim();
+        String status = fields.get(10).trim();
+        String position = fields.get(11).trim();
+        String supervisor = fields.get(12).trim();
+        
+        // Parse compensation information
+        double basicSalary = parseNumericValue(fields.get(13));
+        double riceSubsidy = parseNumericValue(fields.get(14));
+        double phoneAllowance = parseNumericValue(fields.get(15));
+        double clothingAllowance = parseNumericValue(fields.get(16));
+        double grossSemiMonthlyRate = parseNumericValue(fields.get(17));
+        double hourlyRate = parseNumericValue(fields.get(18));
+        
+        // Create employee object
+        Employee employee = new Employee(
+            id, firstName, lastName,
+            position, supervisor,
+            sssNumber,
+            philHealthNumber,
+            pagIbigNumber,
+            tinNumber,
+            hourlyRate
+        );
+        
+        // Set additional information
+        employee.setDepartment(position.split(" ")[0]); // Set department from position
+        employee.setStatus(status);
+        employee.setPhoneNumber(phoneNumber);
+        employee.setAddress(address);
+        employee.setBirthday(birthday);
+        
+        // Set compensation components
+        employee.setBasicSalary(basicSalary);
+        employee.setRiceSubsidy(riceSubsidy);
+        employee.setPhoneAllowance(phoneAllowance);
+        employee.setClothingAllowance(clothingAllowance);
+        employee.setGrossSemiMonthlyRate(grossSemiMonthlyRate);
+        
+        return employee;
+    }
+
     /**
      * Parses a CSV line, handling quoted fields correctly
      * 
      * @param line The CSV line to parse
      * @return List of fields from the CSV line
      */
-    private List<String> parseCSVLine(String line) {
+    private static List<String> parseCSVLine(String line) {
         List<String> fields = new ArrayList<>();
         StringBuilder sb = new StringBuilder();
         boolean inQuotes = false;
@@ -729,7 +1883,7 @@ public class Payroll implements FileStorage<Employee> {
      * @param value The string value to parse
      * @return The parsed numeric value
      */
-    private double parseNumericValue(String value) {
+    private static double parseNumericValue(String value) {
         if (value == null || value.trim().isEmpty()) {
             return 0.0;
         }
@@ -751,27 +1905,29 @@ public class Payroll implements FileStorage<Employee> {
      * @param employeeId ID of the employee to view time records for
      */
     public void viewTimeRecords(String employeeId) {
+        ReportRenderer out = ReportRenderer.current();
         Employee employee = findEmployeeById(employeeId);
         if (employee == null) {
-            System.out.println("\n╔════════════════════════════════════════════════════════════════════════════╗");
-            System.out.println("║                              ERROR                                         ║");
-            System.out.println("╠════════════════════════════════════════════════════════════════════════════╣");
-            System.out.println("║ Employee not found with ID: " + String.format("%-41s", employeeId) + " ║");
-            System.out.println("╚════════════════════════════════════════════════════════════════════════════╝");
+            out.println("\n╔════════════════════════════════════════════════════════════════════════════╗");
+            out.println("║                              ERROR                                         ║");
+            out.println("╠════════════════════════════════════════════════════════════════════════════╣");
+            out.println("║ Employee not found with ID: " + String.format("%-41s", employeeId) + " ║");
+            out.println("╚════════════════════════════════════════════════════════════════════════════╝");
+            out.flush();
             return;
         }
 
         // Print header
-        System.out.println("\n╔════════════════════════════════════════════════════════════════════════════════════════════════════╗");
-        System.out.println("║                                     EMPLOYEE TIME RECORDS                                           ║");
-        System.out.println("╠════════════════════════════════════════════════════════════════════════════════════════════════════╣");
-        System.out.printf("║ Employee ID: %-82s ║\n", employee.getId());
-        System.out.printf("║ Name: %-88s ║\n", employee.getName());
-        System.out.printf("║ Position: %-85s ║\n", employee.getPosition());
-        System.out.printf("║ Department: %-83s ║\n", employee.getDepartment());
-        System.out.println("╠════════════════╦═══════════╦════════════╦════════════╦═══════════════╦═════════════════════════════╣");
-        System.out.println("║     Date      ║   Login   ║  Logout    ║   Hours    ║    Status     ║           Notes             ║");
-        System.out.println("╠════════════════╬═══════════╬════════════╬════════════╬═══════════════╬═════════════════════════════╣");
+        out.println("\n╔════════════════════════════════════════════════════════════════════════════════════════════════════╗");
+        out.println("║                                     EMPLOYEE TIME RECORDS                                           ║");
+        out.println("╠════════════════════════════════════════════════════════════════════════════════════════════════════╣");
+        out.printf("║ Employee ID: %-82s ║\n", employee.getId());
+        out.printf("║ Name: %-88s ║\n", employee.getName());
+        out.printf("║ Position: %-85s ║\n", employee.getPosition());
+        out.printf("║ Department: %-83s ║\n", employee.getDepartment());
+        out.println("╠════════════════╦═══════════╦════════════╦════════════╦═══════════════╦═════════════════════════════╣");
+        out.println("║     Date      ║   Login   ║  Logout    ║   Hours    ║    Status     ║           Notes             ║");
+        out.println("╠════════════════╬═══════════╬════════════╬════════════╬═══════════════╬═════════════════════════════╣");
 
         // Display time records
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
@@ -779,11 +1935,8 @@ public class Payroll implements FileStorage<Employee> {
         
         Map<LocalDate, Employee.AttendanceRecord> records = employee.getAttendanceRecords();
         if (records.isEmpty()) {
-            System.out.println("║ No time records found for this employee.                                                              ║");
+            out.println("║ No time records found for this employee.                                                              ║");
         } else {
-            double totalHours = 0.0;
-            int totalDays = 0;
-            
             for (Map.Entry<LocalDate, Employee.AttendanceRecord> entry : records.entrySet().stream()
                     .sorted(Map.Entry.comparingByKey())
                     .collect(java.util.stream.Collectors.toList())) {
@@ -795,25 +1948,27 @@ public class Payroll implements FileStorage<Employee> {
                 String logoutTime = record.getLogoutTime() != null ? record.getLogoutTime().format(timeFormatter) : "---";
                 double hours = record.getHoursWorked();
                 
-                String status = hours >= 8.0 ? "COMPLETE" : hours > 0 ? "PARTIAL" : "ABSENT";
-                String notes = hours < 8.0 && hours > 0 ? "Incomplete hours" : 
-                              hours >= 8.0 ? "Regular working day" : "No time record";
+                String status = record.getStatus();
+                String notes = record.hasFlag(Employee.AttendanceRecord.COMPLETE) ? "Regular working day" :
+                              record.hasFlag(Employee.AttendanceRecord.PRESENT) ? "Incomplete hours" : "No time record";
                 
-                System.out.printf("║ %-14s ║ %-9s ║ %-10s ║ %8.2f   ║ %-13s ║ %-27s ║\n",
+                out.printf("║ %-14s ║ %-9s ║ %-10s ║ %8.2f   ║ %-13s ║ %-27s ║\n",
                     date.format(dateFormatter), loginTime, logoutTime, hours, status, notes);
-                
-                totalHours += hours;
-                totalDays++;
             }
             
+            Employee.AttendanceSummary summary = employee.getAttendanceSummary(LocalDate.MIN, LocalDate.MAX);
+            int totalDays = summary.getDaysRecorded();
+            double totalHours = summary.getTotalHours();
+            
             // Print summary
-            System.out.println("╠════════════════╩═══════════╩════════════╩════════════╩═══════════════╩═════════════════════════════╣");
-            System.out.printf("║ Total Days: %-87d ║\n", totalDays);
-            System.out.printf("║ Total Hours: %-86.2f ║\n", totalHours);
-            System.out.printf("║ Average Hours per Day: %-77.2f ║\n", totalDays > 0 ? totalHours / totalDays : 0.0);
+            out.println("╠════════════════╩═══════════╩════════════╩════════════╩═══════════════╩═════════════════════════════╣");
+            out.printf("║ Total Days: %-87d ║\n", totalDays);
+            out.printf("║ Total Hours: %-86.2f ║\n", totalHours);
+            out.printf("║ Average Hours per Day: %-77.2f ║\n", totalDays > 0 ? totalHours / totalDays : 0.0);
         }
         
-        System.out.println("╚════════════════════════════════════════════════════════════════════════════════════════════════════╝");
+        out.println("╚════════════════════════════════════════════════════════════════════════════════════════════════════╝");
+        out.flush();
     }
 
     /**
@@ -822,49 +1977,51 @@ public class Payroll implements FileStorage<Employee> {
      * @param employee The employee to display details for
      */
     public void displayEmployeeDetails(Employee employee) {
-        System.out.println("\n╔════════════════════════════════════════════════════════════════════════════════════════════════════╗");
-        System.out.println("║                                     EMPLOYEE INFORMATION                                           ║");
-        System.out.println("╠════════════════════════════════════════════════════════════════════════════════════════════════════╣");
+        ReportRenderer out = ReportRenderer.current();
+        out.println("\n╔════════════════════════════════════════════════════════════════════════════════════════════════════╗");
+        out.println("║                                     EMPLOYEE INFORMATION                                           ║");
+        out.println("╠════════════════════════════════════════════════════════════════════════════════════════════════════╣");
         
         // Personal Information
-        System.out.println("║                                    PERSONAL INFORMATION                                           ║");
-        System.out.println("╠══════════════════════╦═══════════════════════════════════════════════════════════════════════════╣");
-        System.out.printf("║ Employee ID          ║ %-65s ║\n", employee.getId());
-        System.out.printf("║ Name                 ║ %-65s ║\n", employee.getName());
-        System.out.printf("║ Birthday             ║ %-65s ║\n", employee.getBirthday());
-        System.out.printf("║ Address              ║ %-65s ║\n", employee.getAddress());
-        System.out.printf("║ Phone Number         ║ %-65s ║\n", employee.getPhoneNumber());
+        out.println("║                                    PERSONAL INFORMATION                                           ║");
+        out.println("╠══════════════════════╦═══════════════════════════════════════════════════════════════════════════╣");
+        out.printf("║ Employee ID          ║ %-65s ║\n", employee.getId());
+        out.printf("║ Name                 ║ %-65s ║\n", employee.getName());
+        out.printf("║ Birthday             ║ %-65s ║\n", employee.getBirthday());
+        out.printf("║ Address              ║ %-65s ║\n", employee.getAddress());
+        out.printf("║ Phone Number         ║ %-65s ║\n", employee.getPhoneNumber());
         
         // Employment Information
-        System.out.println("╠══════════════════════╬═══════════════════════════════════════════════════════════════════════════╣");
-        System.out.println("║                                   EMPLOYMENT INFORMATION                                          ║");
-        System.out.println("╠══════════════════════╬═══════════════════════════════════════════════════════════════════════════╣");
-        System.out.printf("║ Status               ║ %-65s ║\n", employee.getStatus());
-        System.out.printf("║ Position             ║ %-65s ║\n", employee.getPosition());
-        System.out.printf("║ Department           ║ %-65s ║\n", employee.getDepartment());
-        System.out.printf("║ Supervisor           ║ %-65s ║\n", employee.getSupervisor());
+        out.println("╠══════════════════════╬═══════════════════════════════════════════════════════════════════════════╣");
+        out.println("║                                   EMPLOYMENT INFORMATION                                          ║");
+        out.println("╠══════════════════════╬═══════════════════════════════════════════════════════════════════════════╣");
+        out.printf("║ Status               ║ %-65s ║\n", employee.getStatus());
+        out.printf("║ Position             ║ %-65s ║\n", employee.getPosition());
+        out.printf("║ Department           ║ %-65s ║\n", employee.getDepartment());
+        out.printf("║ Supervisor           ║ %-65s ║\n", employee.getSupervisor());
         
         // Government IDs
-        System.out.println("╠══════════════════════╬═══════════════════════════════════════════════════════════════════════════╣");
-        System.out.println("║                                    GOVERNMENT NUMBERS                                             ║");
-        System.out.println("╠══════════════════════╬═══════════════════════════════════════════════════════════════════════════╣");
-        System.out.printf("║ SSS Number           ║ %-65s ║\n", employee.getSssNumber());
-        System.out.printf("║ PhilHealth Number    ║ %-65s ║\n", employee.getPhilHealthNumber());
-        System.out.printf("║ Pag-IBIG Number      ║ %-65s ║\n", employee.getPagIbigNumber());
-        System.out.printf("║ TIN Number           ║ %-65s ║\n", employee.getTin());
+        out.println("╠══════════════════════╬═══════════════════════════════════════════════════════════════════════════╣");
+        out.println("║                                    GOVERNMENT NUMBERS                                             ║");
+        out.println("╠══════════════════════╬═══════════════════════════════════════════════════════════════════════════╣");
+        out.printf("║ SSS Number           ║ %-65s ║\n", employee.getSssNumber());
+        out.printf("║ PhilHealth Number    ║ %-65s ║\n", employee.getPhilHealthNumber());
+        out.printf("║ Pag-IBIG Number      ║ %-65s ║\n", employee.getPagIbigNumber());
+        out.printf("║ TIN Number           ║ %-65s ║\n", employee.getTin());
         
         // Compensation Information
-        System.out.println("╠══════════════════════╬═══════════════════════════════════════════════════════════════════════════╣");
-        System.out.println("║                                   COMPENSATION DETAILS                                            ║");
-        System.out.println("╠══════════════════════╬═══════════════════════════════════════════════════════════════════════════╣");
-        System.out.printf("║ Basic Salary         ║ PHP %,63.2f ║\n", employee.getBasicSalary());
-        System.out.printf("║ Rice Subsidy         ║ PHP %,63.2f ║\n", employee.getRiceSubsidy());
-        System.out.printf("║ Phone Allowance      ║ PHP %,63.2f ║\n", employee.getPhoneAllowance());
-        System.out.printf("║ Clothing Allowance   ║ PHP %,63.2f ║\n", employee.getClothingAllowance());
-        System.out.printf("║ Gross Semi-Monthly   ║ PHP %,63.2f ║\n", employee.getGrossSemiMonthlyRate());
-        System.out.printf("║ Hourly Rate          ║ PHP %,63.2f ║\n", employee.getHourlyRate());
+        out.println("╠══════════════════════╬═══════════════════════════════════════════════════════════════════════════╣");
+        out.println("║                                   COMPENSATION DETAILS                                            ║");
+        out.println("╠══════════════════════╬═══════════════════════════════════════════════════════════════════════════╣");
+        out.printf("║ Basic Salary         ║ PHP %,63.2f ║\n", employee.getBasicSalary());
+        out.printf("║ Rice Subsidy         ║ PHP %,63.2f ║\n", employee.getRiceSubsidy());
+        out.printf("║ Phone Allowance      ║ PHP %,63.2f ║\n", employee.getPhoneAllowance());
+        out.printf("║ Clothing Allowance   ║ PHP %,63.2f ║\n", employee.getClothingAllowance());
+        out.printf("║ Gross Semi-Monthly   ║ PHP %,63.2f ║\n", employee.getGrossSemiMonthlyRate());
+        out.printf("║ Hourly Rate          ║ PHP %,63.2f ║\n", employee.getHourlyRate());
         
-        System.out.println("╚══════════════════════╩═══════════════════════════════════════════════════════════════════════════╝");
+        out.println("╚══════════════════════╩═══════════════════════════════════════════════════════════════════════════╝");
+        out.flush();
     }
 
     /**
@@ -1009,8 +2166,8 @@ public class Payroll implements FileStorage<Employee> {
                                     // Try HH:mm format
                                     loginTime = LocalTime.parse(loginTimeStr, DateTimeFormatter.ofPattern("HH:mm"));
                                 } catch (Exception e2) {
-                                    // Try HH:mm:ss format
-                                    loginTime = LocalTime.parse(loginTimeStr, DateTimeFormatter.ofPattern("HH:mm:ss"));
+                                    // Try the formats with seconds
+                                    loginTime = parseAttendanceTime(loginTimeStr);
                                 }
                             }
                             System.out.println("  Parsed login time: " + loginTime);
@@ -1029,8 +2186,8 @@ public class Payroll implements FileStorage<Employee> {
                                     // Try HH:mm format
                                     logoutTime = LocalTime.parse(logoutTimeStr, DateTimeFormatter.ofPattern("HH:mm"));
                                 } catch (Exception e2) {
-                                    // Try HH:mm:ss format
-                                    logoutTime = LocalTime.parse(logoutTimeStr, DateTimeFormatter.ofPattern("HH:mm:ss"));
+                                    // Try the formats with seconds
+                                    logoutTime = parseAttendanceTime(logoutTimeStr);
                                 }
                             }
                             System.out.println("  Parsed logout time: " + logoutTime);
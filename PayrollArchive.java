@@ -0,0 +1,515 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * PayrollArchive stores the results of a closed payroll period in columns.
+ *
+ * This class is responsible for:
+ * - Writing one binary column file per payroll field when a period is closed
+ * - Keeping the minimum and maximum of each column in its file header
+ * - Answering totals, averages and range filters by mapping only the columns they use
+ * - Listing archived periods for comparisons across years
+ *
+ * Directory layout ("Payroll Archive yyyy-mm-dd to yyyy-mm-dd"):
+ * Archive.csv            Start Date,End Date,Rows
+ * Employee IDs.txt       the roster's employee IDs, one per line in ordinal order
+ * employeeOrdinal.col    int column of each archived employee's roster ordinal
+ * field.col              double column for each of ARCHIVE_FIELDS
+ *
+ * Column files start with a 24-byte header (magic, row count, minimum, maximum)
+ * followed by the values in little-endian order, one per archived employee.
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class PayrollArchive {
+    /** Directory holding the archived periods */
+    private static final String ARCHIVE_DIRECTORY = "C:\\Users\\Johanzen\\Documents\\PROJECTS IT\\MotorPH Payroll System\\";
+
+    /** Prefix of each archived period's directory name */
+    private static final String ARCHIVE_PREFIX = "Payroll Archive ";
+
+    /** Payroll values archived for each employee, one column file each */
+    static final String[] ARCHIVE_FIELDS = {
+        "totalHoursWorked", "grossIncome", "sssDeduction", "philHealthDeduction",
+        "pagIbigDeduction", "taxDeduction", "totalDeductions", "netPay"
+    };
+
+    /** Name of the roster ordinal column */
+    static final String ORDINAL_COLUMN = "employeeOrdinal";
+
+    /** Marks a column file, "PCOL" in ASCII */
+    private static final int COLUMN_MAGIC = 0x50434F4C;
+
+    /** Size of a column file header in bytes */
+    private static final int HEADER_SIZE = 24;
+
+    /** Directory of the archived period */
+    private final Path directory;
+    /** Start date of the archived period */
+    private final LocalDate startDate;
+    /** End date of the archived period */
+    private final LocalDate endDate;
+    /** Number of employees archived */
+    private final int rowCount;
+
+    /** Column statistics, read from the headers on first use */
+    private final Map<String, double[]> stats = new HashMap<>();
+
+    /**
+     * Constructs a reader for an archived period
+     *
+     * @param directory Directory of the archived period
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @param rowCount Number of employees archived
+     */
+    private PayrollArchive(Path directory, LocalDate startDate, LocalDate endDate, int rowCount) {
+        this.directory = directory;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Gets the archive directory for a period
+     *
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @return The period's archive directory
+     */
+    public static Path directoryFor(LocalDate startDate, LocalDate endDate) {
+        return Paths.get(ARCHIVE_DIRECTORY + ARCHIVE_PREFIX + startDate + " to " + endDate);
+    }
+
+    /**
+     * Writes a period's results as an archive, replacing any earlier archive of the period
+     * Employees without a result are left out
+     *
+     * @param directory Directory to write the archive to
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @param employees Employees in roster order
+     * @param results Payroll values in the same order, with null for employees that failed
+     * @return Number of employees archived
+     * @throws IOException if a column file cannot be written
+     */
+    public static int write(Path directory, LocalDate startDate, LocalDate endDate,
+                            List<Employee> employees, List<Map<String, Double>> results) throws IOException {
+        Files.createDirectories(directory);
+
+        List<Integer> ordinals = new ArrayList<>();
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < employees.size(); i++) {
+            ids.append(employees.get(i).getId()).append('\n');
+            if (results.get(i) != null) {
+                ordinals.add(i);
+            }
+        }
+        int rows = ordinals.size();
+
+        // Remove the manifest first so a half-written archive is never opened
+        Path manifest = directory.resolve("Archive.csv");
+        Files.deleteIfExists(manifest);
+
+        Files.write(directory.resolve("Employee IDs.txt"), ids.toString().getBytes(StandardCharsets.UTF_8));
+
+        ByteBuffer ordinalColumn = newColumn(rows, Integer.BYTES,
+            rows > 0 ? ordinals.get(0) : 0, rows > 0 ? ordinals.get(rows - 1) : 0);
+        for (int ordinal : ordinals) {
+            ordinalColumn.putInt(ordinal);
+        }
+        writeColumn(directory.resolve(ORDINAL_COLUMN + ".col"), ordinalColumn);
+
+        for (String field : ARCHIVE_FIELDS) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double[] values = new double[rows];
+            int row = 0;
+            for (Map<String, Double> payrollData : results) {
+                if (payrollData == null) {
+                    continue;
+                }
+                Double value = payrollData.get(field);
+                values[row] = value != null ? value : 0.0;
+                min = Math.min(min, values[row]);
+                max = Math.max(max, values[row]);
+                row++;
+            }
+            ByteBuffer column = newColumn(rows, Double.BYTES, rows > 0 ? min : 0, rows > 0 ? max : 0);
+            column.asDoubleBuffer().put(values);
+            column.position(column.limit());
+            writeColumn(directory.resolve(field + ".col"), column);
+        }
+
+        Path temp = directory.resolve("Archive.csv.tmp");
+        Files.write(temp, ("Start Date,End Date,Rows\n" + startDate + "," + endDate + "," + rows + "\n")
+            .getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING);
+        return rows;
+    }
+
+    /**
+     * Opens an archived period
+     *
+     * @param directory Directory of the archived period
+     * @return The archive, or null if the directory holds no complete archive
+     */
+    public static PayrollArchive open(Path directory) {
+        Path manifest = directory.resolve("Archive.csv");
+        if (!Files.exists(manifest)) {
+            return null;
+        }
+        try {
+            List<String> lines = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+            if (lines.size() < 2) {
+                throw new IllegalArgumentException("Missing archive details");
+            }
+            String[] fields = lines.get(1).split(",", -1);
+            if (fields.length < 3) {
+                throw new IllegalArgumentException("Expected 3 fields, got " + fields.length);
+            }
+            return new PayrollArchive(directory, LocalDate.parse(fields[0].trim()),
+                                      LocalDate.parse(fields[1].trim()), Integer.parseInt(fields[2].trim()));
+        } catch (IOException e) {
+            System.out.println("Error reading payroll archive: " + e.getMessage());
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            System.out.println("Skipping invalid payroll archive: " + directory);
+            System.out.println("Error: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Lists the archived periods, oldest first
+     *
+     * @return The archives found in the archive directory
+     */
+    public static List<PayrollArchive> listArchives() {
+        List<PayrollArchive> archives = new ArrayList<>();
+        Path sample = Paths.get(ARCHIVE_DIRECTORY + ARCHIVE_PREFIX.trim()).toAbsolutePath();
+        Path parent = sample.getParent();
+        String prefix = sample.getFileName().toString();
+        if (parent == null || !Files.isDirectory(parent)) {
+            return archives;
+        }
+        try (Stream<Path> paths = Files.list(parent)) {
+            paths.filter(path -> path.getFileName().toString().startsWith(prefix) && Files.isDirectory(path))
+                 .forEach(path -> {
+                     PayrollArchive archive = open(path);
+                     if (archive != null) {
+                         archives.add(archive);
+                     }
+                 });
+        } catch (IOException e) {
+            System.out.println("Error listing payroll archives: " + e.getMessage());
+        }
+        archives.sort((a, b) -> a.startDate.compareTo(b.startDate));
+        return archives;
+    }
+
+    /**
+     * Gets the start date of the archived period
+     *
+     * @return The start date
+     */
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * Gets the end date of the archived period
+     *
+     * @return The end date
+     */
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * Gets the number of employees archived
+     *
+     * @return Row count
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the roster's employee IDs in ordinal order
+     *
+     * @return Employee IDs; index i holds the employee with ordinal i
+     * @throws IOException if the ID file cannot be read
+     */
+    public List<String> getEmployeeIds() throws IOException {
+        return Files.readAllLines(directory.resolve("Employee IDs.txt"), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the smallest value of a field, from the column header
+     *
+     * @param field One of ARCHIVE_FIELDS
+     * @return The minimum, or 0 if nothing was archived
+     * @throws IOException if the column cannot be read
+     */
+    public double getMin(String field) throws IOException {
+        return statsOf(field)[0];
+    }
+
+    /**
+     * Gets the largest value of a field, from the column header
+     *
+     * @param field One of ARCHIVE_FIELDS
+     * @return The maximum, or 0 if nothing was archived
+     * @throws IOException if the column cannot be read
+     */
+    public double getMax(String field) throws IOException {
+        return statsOf(field)[1];
+    }
+
+    /**
+     * Totals a field across the period, scanning only that column
+     *
+     * @param field One of ARCHIVE_FIELDS
+     * @return The total
+     * @throws IOException if the column cannot be read
+     */
+    public double sum(String field) throws IOException {
+        DoubleBuffer values = mapValues(field);
+        double total = 0;
+        while (values.hasRemaining()) {
+            total += values.get();
+        }
+        return total;
+    }
+
+    /**
+     * Averages a field across the period
+     *
+     * @param field One of ARCHIVE_FIELDS
+     * @return The average, or 0 if nothing was archived
+     * @throws IOException if the column cannot be read
+     */
+    public double average(String field) throws IOException {
+        return rowCount > 0 ? sum(field) / rowCount : 0;
+    }
+
+    /**
+     * Counts employees whose value of a field lies in a range
+     * The column is not scanned when its statistics already decide the answer
+     *
+     * @param field One of ARCHIVE_FIELDS
+     * @param low Smallest matching value (inclusive)
+     * @param high Largest matching value (inclusive)
+     * @return Number of matching employees
+     * @throws IOException if the column cannot be read
+     */
+    public int countWhere(String field, double low, double high) throws IOException {
+        double[] range = statsOf(field);
+        if (rowCount == 0 || range[1] < low || range[0] > high) {
+            return 0;
+        }
+        if (range[0] >= low && range[1] <= high) {
+            return rowCount;
+        }
+        DoubleBuffer values = mapValues(field);
+        int count = 0;
+        while (values.hasRemaining()) {
+            double value = values.get();
+            if (value >= low && value <= high) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Totals one field over the employees whose value of another field lies in a range
+     *
+     * @param sumField Field to total, one of ARCHIVE_FIELDS
+     * @param filterField Field to filter on, one of ARCHIVE_FIELDS
+     * @param low Smallest matching value (inclusive)
+     * @param high Largest matching value (inclusive)
+     * @return The total over matching employees
+     * @throws IOException if a column cannot be read
+     */
+    public double sumWhere(String sumField, String filterField, double low, double high) throws IOException {
+        double[] range = statsOf(filterField);
+        if (rowCount == 0 || range[1] < low || range[0] > high) {
+            return 0;
+        }
+        if (range[0] >= low && range[1] <= high) {
+            return sum(sumField);
+        }
+        DoubleBuffer filter = mapValues(filterField);
+        DoubleBuffer values = mapValues(sumField);
+        double total = 0;
+        for (int i = 0; i < rowCount; i++) {
+            double value = filter.get(i);
+            if (value >= low && value <= high) {
+                total += values.get(i);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Gets the roster ordinals of employees whose value of a field lies in a range
+     *
+     * @param field One of ARCHIVE_FIELDS
+     * @param low Smallest matching value (inclusive)
+     * @param high Largest matching value (inclusive)
+     * @return Ordinals of matching employees, in roster order
+     * @throws IOException if a column cannot be read
+     */
+    public List<Integer> findOrdinals(String field, double low, double high) throws IOException {
+        List<Integer> matches = new ArrayList<>();
+        double[] range = statsOf(field);
+        if (rowCount == 0 || range[1] < low || range[0] > high) {
+            return matches;
+        }
+        DoubleBuffer values = mapValues(field);
+        IntBuffer ordinals = map(ORDINAL_COLUMN).asIntBuffer();
+        for (int i = 0; i < rowCount; i++) {
+            double value = values.get(i);
+            if (value >= low && value <= high) {
+                matches.add(ordinals.get(i));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Gets a column's minimum and maximum, reading its header on first use
+     *
+     * @param field One of ARCHIVE_FIELDS
+     * @return Array holding the minimum and maximum
+     * @throws IOException if the column cannot be read
+     */
+    private synchronized double[] statsOf(String field) throws IOException {
+        checkField(field);
+        double[] range = stats.get(field);
+        if (range == null) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            try (FileChannel channel = FileChannel.open(directory.resolve(field + ".col"), StandardOpenOption.READ)) {
+                while (header.hasRemaining() && channel.read(header) >= 0) {
+                    // Keep reading until the header is complete or the file ends
+                }
+            }
+            header.flip();
+            checkHeader(field, header);
+            range = new double[] {header.getDouble(8), header.getDouble(16)};
+            stats.put(field, range);
+        }
+        return range;
+    }
+
+    /**
+     * Maps a double column's values
+     *
+     * @param field One of ARCHIVE_FIELDS
+     * @return View of the column's values
+     * @throws IOException if the column cannot be read
+     */
+    private DoubleBuffer mapValues(String field) throws IOException {
+        checkField(field);
+        return map(field).asDoubleBuffer();
+    }
+
+    /**
+     * Maps a column file read-only, positioned after its header
+     *
+     * @param column Name of the column
+     * @return Little-endian buffer over the column's values
+     * @throws IOException if the column cannot be read
+     */
+    private ByteBuffer map(String column) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(column + ".col"), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            checkHeader(column, buffer);
+            buffer.position(HEADER_SIZE);
+            return buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Checks that a column header is valid and matches the archive
+     *
+     * @param column Name of the column
+     * @param header Buffer starting with the header
+     */
+    private void checkHeader(String column, ByteBuffer header) {
+        if (header.limit() < HEADER_SIZE || header.getInt(0) != COLUMN_MAGIC) {
+            throw new IllegalArgumentException("Not a payroll archive column: " + column);
+        }
+        if (header.getInt(4) != rowCount) {
+            throw new IllegalArgumentException("Column " + column + " has " + header.getInt(4)
+                + " rows, expected " + rowCount);
+        }
+    }
+
+    /**
+     * Checks that a field is archived
+     *
+     * @param field Name of the field
+     */
+    private static void checkField(String field) {
+        for (String archived : ARCHIVE_FIELDS) {
+            if (archived.equals(field)) {
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Field is not archived: " + field);
+    }
+
+    /**
+     * Creates a column buffer with its header filled in
+     *
+     * @param rows Number of values
+     * @param valueSize Size of each value in bytes
+     * @param min Smallest value
+     * @param max Largest value
+     * @return Buffer positioned at the first value
+     */
+    private static ByteBuffer newColumn(int rows, int valueSize, double min, double max) {
+        ByteBuffer column = ByteBuffer.allocate(HEADER_SIZE + rows * valueSize).order(ByteOrder.LITTLE_ENDIAN);
+        column.putInt(COLUMN_MAGIC).putInt(rows).putDouble(min).putDouble(max);
+        return column;
+    }
+
+    /**
+     * Writes a filled column buffer to its file
+     *
+     * @param file The column file
+     * @param column Buffer positioned after the last value
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeColumn(Path file, ByteBuffer column) throws IOException {
+        column.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (column.hasRemaining()) {
+                channel.write(column);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * PayrollCache keeps recently calculated per-employee payroll results.
+ *
+ * This class is responsible for:
+ * - Storing payroll results keyed by employee instance, pay period and input versions
+ * - Evicting the least recently used results once the cache is full
+ * - Never serving results computed from outdated attendance, allowances or rate tables
+ *
+ * Every change to an employee's attendance or allowances, and every reload of
+ * a rate table, produces a new version, so older entries simply stop matching
+ * and age out of the cache. Keys hold the Employee object itself, because a
+ * replacement employee with the same ID starts its versions at 0 again.
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class PayrollCache {
+    /** Maximum number of results kept in the cache */
+    private final int maxEntries;
+
+    /** Cached results in least recently used order */
+    private final LinkedHashMap<Key, Map<String, Double>> entries;
+
+    /** Number of lookups served from the cache */
+    private long hits;
+
+    /** Number of lookups that had to be computed */
+    private long misses;
+
+    /**
+     * Constructs a cache holding at most the given number of results
+     *
+     * @param maxEntries Maximum number of cached results
+     */
+    public PayrollCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Key, Map<String, Double>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Map<String, Double>> eldest) {
+                return size() > PayrollCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets a cached payroll result
+     *
+     * @param employee The employee
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @return The cached result, or null if none is cached for the current versions
+     */
+    public synchronized Map<String, Double> get(Employee employee, LocalDate startDate, LocalDate endDate) {
+        Map<String, Double> result = entries.get(new Key(employee, startDate, endDate));
+        if (result != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return result;
+    }
+
+    /**
+     * Stores a payroll result for the employee's current versions
+     *
+     * @param employee The employee
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @param payrollData The calculated payroll values
+     * @return The stored (read-only) result
+     */
+    public synchronized Map<String, Double> put(Employee employee, LocalDate startDate, LocalDate endDate,
+                                                Map<String, Double> payrollData) {
+        Map<String, Double> stored = Collections.unmodifiableMap(payrollData);
+        entries.put(new Key(employee, startDate, endDate), stored);
+        return stored;
+    }
+
+    /**
+     * Removes every cached result for an employee that has been replaced or removed
+     *
+     * @param employee The employee object whose results are dropped
+     */
+    public synchronized void remove(Employee employee) {
+        entries.keySet().removeIf(key -> key.employee == employee);
+    }
+
+    /**
+     * Removes every cached result
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of cached results
+     *
+     * @return Number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of lookups served from the cache
+     *
+     * @return Hit count
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that missed the cache
+     *
+     * @return Miss count
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Inner class identifying one cached payroll result
+     */
+    private static final class Key {
+        private final Employee employee;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final long attendanceVersion;
+        private final long compensationVersion;
+        private final long sssTableVersion;
+        private final long taxTableVersion;
+
+        /**
+         * Builds a key from the employee's and rate tables' current versions
+         *
+         * @param employee The employee
+         * @param startDate Start date of the period
+         * @param endDate End date of the period
+         */
+        Key(Employee employee, LocalDate startDate, LocalDate endDate) {
+            this.employee = employee;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.attendanceVersion = employee.getAttendanceVersion();
+            this.compensationVersion = employee.getCompensationVersion();
+            this.sssTableVersion = SSSContributionTable.getDefault().getVersion();
+            this.taxTableVersion = WithholdingTaxTable.getDefault().getVersion();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return attendanceVersion == other.attendanceVersion
+                && compensationVersion == other.compensationVersion
+                && sssTableVersion == other.sssTableVersion
+                && taxTableVersion == other.taxTableVersion
+                && employee == other.employee
+                && startDate.equals(other.startDate)
+                && endDate.equals(other.endDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(employee), startDate, endDate, attendanceVersion,
+                                compensationVersion, sssTableVersion, taxTableVersion);
+        }
+    }
+}
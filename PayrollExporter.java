@@ -0,0 +1,291 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * PayrollExporter streams per-employee payroll results to a file.
+ *
+ * This class is responsible for:
+ * - Writing one CSV row or JSON Lines object per employee result
+ * - Encoding rows through a reusable buffer into a file channel
+ * - Keeping memory use constant however many rows are written
+ *
+ * Amounts are written with two decimal places, exactly as the console reports show them.
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class PayrollExporter implements Closeable {
+    /**
+     * Supported export file formats
+     */
+    public enum Format {
+        CSV(".csv"),
+        JSON_LINES(".jsonl");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * Gets the usual file extension for the format
+         *
+         * @return The extension, including the dot
+         */
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /** Size of the channel write buffer */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Column names, in file order */
+    static final String[] COLUMNS = {
+        "employeeId", "name", "position", "department", "periodStart", "periodEnd",
+        "totalHoursWorked", "hourlyRate", "basePay", "riceSubsidy", "phoneAllowance", "clothingAllowance",
+        "totalAllowances", "grossIncome", "sssDeduction", "philHealthDeduction", "pagIbigDeduction",
+        "taxDeduction", "totalDeductions", "netPay"
+    };
+
+    /** Index of the first payroll value in COLUMNS */
+    private static final int FIRST_VALUE_COLUMN = 6;
+
+    /** File format being written */
+    private final Format format;
+    /** Channel to the export file */
+    private final FileChannel channel;
+    /** Buffer of encoded bytes waiting to be written */
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    /** Encoder reused for every row */
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    /** Row text reused for every row */
+    private final StringBuilder row = new StringBuilder(512);
+    /** Number of rows written so far */
+    private long rowCount;
+
+    /**
+     * Creates or replaces an export file
+     * CSV files start with a header row
+     *
+     * @param file Path of the export file
+     * @param format Format to write
+     * @throws IOException if the file cannot be opened
+     */
+    public PayrollExporter(Path file, Format format) throws IOException {
+        this.format = format;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                        StandardOpenOption.TRUNCATE_EXISTING);
+        if (format == Format.CSV) {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    row.append(',');
+                }
+                row.append(COLUMNS[i]);
+            }
+            row.append('\n');
+            encodeRow();
+        }
+    }
+
+    /**
+     * Writes one employee's payroll result
+     *
+     * @param employee The employee
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @param payrollData The employee's payroll values
+     * @throws IOException if the row cannot be written
+     */
+    public void write(Employee employee, LocalDate startDate, LocalDate endDate,
+                      Map<String, Double> payrollData) throws IOException {
+        String[] text = {
+            employee.getId(), employee.getName(), employee.getPosition(), employee.getDepartment(),
+            startDate.toString(), endDate.toString()
+        };
+
+        if (format == Format.CSV) {
+            for (int i = 0; i < text.length; i++) {
+                if (i > 0) {
+                    row.append(',');
+                }
+                appendCsvText(text[i]);
+            }
+            for (int i = FIRST_VALUE_COLUMN; i < COLUMNS.length; i++) {
+                row.append(',');
+                appendAmount(payrollData.get(COLUMNS[i]));
+            }
+        } else {
+            row.append('{');
+            for (int i = 0; i < text.length; i++) {
+                if (i > 0) {
+                    row.append(',');
+                }
+                row.append('"').append(COLUMNS[i]).append("\":");
+                appendJsonText(text[i]);
+            }
+            for (int i = FIRST_VALUE_COLUMN; i < COLUMNS.length; i++) {
+                row.append(",\"").append(COLUMNS[i]).append("\":");
+                appendAmount(payrollData.get(COLUMNS[i]));
+            }
+            row.append('}');
+        }
+        row.append('\n');
+        encodeRow();
+        rowCount++;
+    }
+
+    /**
+     * Gets the number of employee rows written
+     *
+     * @return Row count, not including the CSV header
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Writes any buffered rows and closes the file
+     *
+     * @throws IOException if the remaining rows cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Encodes the current row into the byte buffer, writing to the channel whenever it fills
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    private void encodeRow() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(row);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, true);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        row.setLength(0);
+    }
+
+    /**
+     * Writes the byte buffer to the channel
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    /**
+     * Appends an amount with two decimal places, or an empty value if missing
+     *
+     * @param value The amount
+     */
+    private void appendAmount(Double value) {
+        if (value == null) {
+            if (format == Format.JSON_LINES) {
+                row.append("null");
+            }
+            return;
+        }
+        if (!ReportRenderer.appendFixed(row, value, 2, false)) {
+            row.append(format == Format.JSON_LINES ? "null" : String.valueOf(value));
+        }
+    }
+
+    /**
+     * Appends a CSV field, quoting it when it contains a comma, quote or line break
+     *
+     * @param value The field text
+     */
+    private void appendCsvText(String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            row.append(value);
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+
+    /**
+     * Appends a JSON string literal
+     *
+     * @param value The text, or null for a JSON null
+     */
+    private void appendJsonText(String value) {
+        if (value == null) {
+            row.append("null");
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    row.append("\\\"");
+                    break;
+                case '\\':
+                    row.append("\\\\");
+                    break;
+                case '\n':
+                    row.append("\\n");
+                    break;
+                case '\r':
+                    row.append("\\r");
+                    break;
+                case '\t':
+                    row.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        row.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        row.append(c);
+                    }
+            }
+        }
+        row.append('"');
+    }
+}
@@ -0,0 +1,303 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * PayrollRunJournal records the progress of a payroll run so it can be resumed.
+ *
+ * This class is responsible for:
+ * - Appending completed employee results to a checkpoint file in batches
+ * - Forcing each batch to disk before the run moves on
+ * - Loading the completed results when a run with the same ID is restarted
+ * - Recording the inputs each result was calculated from, so stale results are calculated again
+ * - Removing the checkpoint file once the run has finished
+ *
+ * File format (header line, then one completed employee per line):
+ * Run ID,Start Date,End Date,SSS Table Hash,Tax Table Hash
+ * Employee ID,Input Version,value for each of RESULT_FIELDS
+ *
+ * The table hashes and input versions are hashes of content, not the
+ * in-memory version counters, so they still mean the same after a restart.
+ * A journal written with different SSS or tax tables is discarded. A result
+ * whose employee details, punches or hours for the period have changed since
+ * is not reused, and that employee is calculated again.
+ *
+ * Every line ends with a newline, so a last line without one was cut short by
+ * a crash. It is dropped on load and cut from the file; that employee is simply
+ * processed again.
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class PayrollRunJournal {
+    /** Directory holding the checkpoint files */
+    private static final String JOURNAL_DIRECTORY = "C:\\Users\\Johanzen\\Documents\\PROJECTS IT\\MotorPH Payroll System\\";
+
+    /** Number of employee results written per batch */
+    static final int BATCH_SIZE = 25;
+
+    /** Payroll values stored for each completed employee, in file order */
+    static final String[] RESULT_FIELDS = {
+        "totalHoursWorked", "hourlyRate", "basePay", "riceSubsidy", "phoneAllowance",
+        "clothingAllowance", "totalAllowances", "grossIncome", "daysPresent", "sssDeduction",
+        "philHealthDeduction", "pagIbigDeduction", "taxDeduction", "totalDeductions", "netPay"
+    };
+
+    /** ID of the run this journal belongs to */
+    private final String runId;
+    /** Start date of the run's period */
+    private final LocalDate startDate;
+    /** End date of the run's period */
+    private final LocalDate endDate;
+    /** Content hash of the SSS table the run uses */
+    private final int sssTableHash;
+    /** Content hash of the withholding tax table the run uses */
+    private final int taxTableHash;
+    /** The checkpoint file */
+    private final File file;
+
+    /** Results loaded from an earlier attempt of the run, keyed by employee ID */
+    private final Map<String, Map<String, Double>> completed = new LinkedHashMap<>();
+    /** Input version each loaded result was calculated from, keyed by employee ID */
+    private final Map<String, Integer> completedVersions = new HashMap<>();
+
+    /** Lines waiting to be written in the next batch */
+    private final List<String> pending = new ArrayList<>();
+
+    /**
+     * Opens the journal for a run, loading any results from an earlier attempt
+     * A journal left by a run with the same ID but a different period, or
+     * calculated with different SSS or tax tables, is discarded
+     *
+     * @param runId ID of the run
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     */
+    public PayrollRunJournal(String runId, LocalDate startDate, LocalDate endDate) {
+        if (runId == null || runId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Run ID cannot be empty");
+        }
+        this.runId = runId.trim();
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.sssTableHash = SSSContributionTable.getDefault().getContentHash();
+        this.taxTableHash = WithholdingTaxTable.getDefault().getContentHash();
+        this.file = new File(JOURNAL_DIRECTORY + "Payroll Run " + this.runId.replaceAll("[^A-Za-z0-9_-]", "_") + ".journal");
+        load();
+    }
+
+    /**
+     * Gets the results completed by an earlier attempt of the run
+     *
+     * @return Map of employee ID to payroll values
+     */
+    public Map<String, Map<String, Double>> getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Gets an employee's result from an earlier attempt of the run, if it is still current
+     *
+     * @param employee The employee
+     * @return The payroll values, or null if the employee was not completed or its inputs have changed
+     */
+    public Map<String, Double> getCompleted(Employee employee) {
+        Integer version = completedVersions.get(employee.getId());
+        if (version == null || version != inputVersion(employee)) {
+            return null;
+        }
+        return completed.get(employee.getId());
+    }
+
+    /**
+     * Records a completed employee result
+     * The result is written once BATCH_SIZE results are waiting, or on flush
+     *
+     * @param employee The employee, as its result was calculated
+     * @param payrollData The employee's payroll values
+     * @throws IOException if a full batch cannot be written
+     */
+    public void append(Employee employee, Map<String, Double> payrollData) throws IOException {
+        StringBuilder line = new StringBuilder(employee.getId()).append(',').append(inputVersion(employee));
+        for (String field : RESULT_FIELDS) {
+            Double value = payrollData.get(field);
+            line.append(',').append(value != null ? value : 0.0);
+        }
+        pending.add(line.toString());
+        if (pending.size() >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes waiting results and forces them to disk
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    public void flush() throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        boolean newFile = !file.exists() || file.length() == 0;
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            StringBuilder batch = new StringBuilder();
+            if (newFile) {
+                batch.append(header()).append('\n');
+            }
+            for (String line : pending) {
+                batch.append(line).append('\n');
+            }
+            out.write(batch.toString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        pending.clear();
+    }
+
+    /**
+     * Marks the run as finished and deletes the checkpoint file
+     */
+    public void complete() {
+        pending.clear();
+        if (file.exists() && !file.delete()) {
+            System.out.println("Could not delete payroll run journal: " + file.getPath());
+        }
+    }
+
+    /**
+     * Gets the ID of the run
+     *
+     * @return The run ID
+     */
+    public String getRunId() {
+        return runId;
+    }
+
+    /**
+     * Builds the header line identifying the run
+     *
+     * @return The header line
+     */
+    private String header() {
+        return runId + "," + startDate + "," + endDate + "," + sssTableHash + "," + taxTableHash;
+    }
+
+    /**
+     * Hashes the inputs an employee's pay for the run's period is calculated from:
+     * the employee details row, which holds the rate and allowances, and the
+     * punches and hours worked within the period
+     *
+     * @param employee The employee
+     * @return The input version
+     */
+    int inputVersion(Employee employee) {
+        int hash = employee.toDetailsCSV().hashCode();
+        for (Map.Entry<LocalDate, Employee.AttendanceRecord> entry
+                : employee.getAttendanceRecords(startDate, endDate).entrySet()) {
+            LocalTime login = entry.getValue().getLoginTime();
+            LocalTime logout = entry.getValue().getLogoutTime();
+            hash = 31 * hash + Objects.hash(entry.getKey(), login, logout);
+        }
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            hash = 31 * hash + Double.hashCode(employee.getHoursWorked(date));
+        }
+        return hash;
+    }
+
+    /**
+     * Loads completed results from an earlier attempt of the run
+     */
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            System.out.println("Error reading payroll run journal: " + e.getMessage());
+            return;
+        }
+
+        // Only text up to the last newline was fully written
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        if (end < bytes.length) {
+            System.out.println("Ignoring incomplete last line of payroll run journal: " + file.getPath());
+            truncate(end);
+        }
+
+        String[] lines = new String(bytes, 0, end, StandardCharsets.UTF_8).split("\n");
+        if (lines[0].isEmpty()) {
+            return;
+        }
+        if (!header().equals(lines[0])) {
+            System.out.println(isSamePeriod(lines[0])
+                ? "Discarding payroll run journal calculated with different SSS or tax tables: " + lines[0]
+                : "Discarding payroll run journal for a different period: " + lines[0]);
+            complete();
+            return;
+        }
+
+        for (int l = 1; l < lines.length; l++) {
+            String line = lines[l];
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            try {
+                if (fields.length != RESULT_FIELDS.length + 2) {
+                    throw new IllegalArgumentException("Expected " + (RESULT_FIELDS.length + 2) + " fields, got " + fields.length);
+                }
+                int version = Integer.parseInt(fields[1]);
+                Map<String, Double> payrollData = new HashMap<>();
+                for (int i = 0; i < RESULT_FIELDS.length; i++) {
+                    payrollData.put(RESULT_FIELDS[i], Double.parseDouble(fields[i + 2]));
+                }
+                completed.put(fields[0], payrollData);
+                completedVersions.put(fields[0], version);
+            } catch (IllegalArgumentException e) {
+                System.out.println("Skipping invalid payroll run journal entry: " + line);
+                System.out.println("Error: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Cuts the checkpoint file back to its last complete line
+     * Later batches are appended after it, so a cut-short line must not stay in front of them
+     *
+     * @param length Length of the complete lines in bytes
+     */
+    private void truncate(int length) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+            channel.force(true);
+        } catch (IOException e) {
+            System.out.println("Error truncating payroll run journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether a header line belongs to this run's period
+     *
+     * @param headerLine The header line read from the file
+     * @return true if the header matches the run's period
+     */
+    private boolean isSamePeriod(String headerLine) {
+        String period = runId + "," + startDate + "," + endDate;
+        return headerLine.equals(period) || headerLine.startsWith(period + ",");
+    }
+}
@@ -0,0 +1,351 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PayrollSimulator answers "what if" questions about rate and allowance changes.
+ *
+ * This class is responsible for:
+ * - Copying the roster's pay inputs for one pay period into columnar arrays
+ * - Applying declarative scenario adjustments to copies of those columns
+ * - Recomputing gross pay, deductions and net pay for the whole roster per scenario
+ * - Leaving the live Employee objects untouched
+ *
+ * The baseline columns are loaded once; each simulation only copies and adjusts
+ * primitive arrays, so thousands of scenarios can be evaluated per second.
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class PayrollSimulator {
+    /**
+     * Pay inputs that a scenario can adjust
+     */
+    public enum Field {
+        HOURLY_RATE,
+        RICE_SUBSIDY,
+        PHONE_ALLOWANCE,
+        CLOTHING_ALLOWANCE,
+        HOURS_WORKED
+    }
+
+    /**
+     * Ways a scenario can change a pay input
+     */
+    public enum Operation {
+        /** Multiply the current value */
+        SCALE,
+        /** Add to the current value */
+        ADD,
+        /** Replace the current value */
+        SET
+    }
+
+    /**
+     * Employee attributes a scenario adjustment can be limited to
+     */
+    public enum Attribute {
+        STATUS,
+        POSITION,
+        DEPARTMENT
+    }
+
+    /** Start date of the simulated period */
+    private final LocalDate startDate;
+    /** End date of the simulated period */
+    private final LocalDate endDate;
+    /** Number of employees in the roster */
+    private final int size;
+
+    // Baseline columns, one entry per employee
+    private final double[] hourlyRate;
+    private final double[] riceSubsidy;
+    private final double[] phoneAllowance;
+    private final double[] clothingAllowance;
+    private final double[] hoursWorked;
+    private final double[] allowanceProration;
+    /** Attribute values per employee, indexed by Attribute ordinal */
+    private final String[][] attributes;
+
+    // Scratch columns reused between simulations
+    private final double[][] adjusted;
+    private final double[] grossIncome;
+    private final double[] sss;
+    private final double[] philHealth;
+    private final double[] pagIbig;
+    private final double[] tax;
+
+    /** Deduction kernel used for every simulation */
+    private final BatchDeductionCalculator calculator = new BatchDeductionCalculator();
+
+    /** Totals of the unadjusted roster */
+    private final Map<String, Double> baseline;
+
+    /**
+     * Loads the roster's pay inputs for a pay period into columns
+     *
+     * @param payroll The payroll system providing employees and attendance
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     */
+    public PayrollSimulator(Payroll payroll, LocalDate startDate, LocalDate endDate) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+
+        List<Employee> employees = payroll.getEmployees();
+        this.size = employees.size();
+        this.hourlyRate = new double[size];
+        this.riceSubsidy = new double[size];
+        this.phoneAllowance = new double[size];
+        this.clothingAllowance = new double[size];
+        this.hoursWorked = new double[size];
+        this.allowanceProration = new double[size];
+        this.attributes = new String[Attribute.values().length][size];
+
+        for (int i = 0; i < size; i++) {
+            Employee employee = employees.get(i);
+            Map<String, Double> payrollData = payroll.getEmployeePayroll(employee, startDate, endDate);
+            hourlyRate[i] = employee.getHourlyRate();
+            riceSubsidy[i] = employee.getRiceSubsidy();
+            phoneAllowance[i] = employee.getPhoneAllowance();
+            clothingAllowance[i] = employee.getClothingAllowance();
+            hoursWorked[i] = payrollData.get("totalHoursWorked");
+            allowanceProration[i] = Payroll.allowanceProration(payrollData.get("daysPresent").intValue(), endDate);
+            attributes[Attribute.STATUS.ordinal()][i] = employee.getStatus();
+            attributes[Attribute.POSITION.ordinal()][i] = employee.getPosition();
+            attributes[Attribute.DEPARTMENT.ordinal()][i] = employee.getDepartment();
+        }
+
+        this.adjusted = new double[Field.values().length][size];
+        this.grossIncome = new double[size];
+        this.sss = new double[size];
+        this.philHealth = new double[size];
+        this.pagIbig = new double[size];
+        this.tax = new double[size];
+
+        this.baseline = compute(new Scenario("Baseline"));
+    }
+
+    /**
+     * Gets the totals of the unadjusted roster
+     *
+     * @return Map of total name to amount
+     */
+    public Map<String, Double> getBaseline() {
+        return new LinkedHashMap<>(baseline);
+    }
+
+    /**
+     * Simulates a scenario and returns its totals and the change from the baseline
+     * Totals only include employees with hours worked, as in Payroll.processPayroll
+     *
+     * @param scenario The scenario to simulate
+     * @return Map of total name to amount, plus a "...Change" entry per total
+     */
+    public synchronized Map<String, Double> simulate(Scenario scenario) {
+        Map<String, Double> totals = compute(scenario);
+        Map<String, Double> changes = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> entry : totals.entrySet()) {
+            changes.put(entry.getKey() + "Change", entry.getValue() - baseline.get(entry.getKey()));
+        }
+        totals.putAll(changes);
+        return totals;
+    }
+
+    /**
+     * Simulates several scenarios against the same baseline
+     *
+     * @param scenarios The scenarios to simulate
+     * @return Results keyed by scenario name, in the order given
+     */
+    public Map<String, Map<String, Double>> simulateAll(List<Scenario> scenarios) {
+        Map<String, Map<String, Double>> results = new LinkedHashMap<>();
+        for (Scenario scenario : scenarios) {
+            results.put(scenario.getName(), simulate(scenario));
+        }
+        return results;
+    }
+
+    /**
+     * Applies a scenario to copies of the baseline columns and totals the results
+     *
+     * @param scenario The scenario to apply
+     * @return Map of total name to amount
+     */
+    private Map<String, Double> compute(Scenario scenario) {
+        double[] rate = copyInto(hourlyRate, adjusted[Field.HOURLY_RATE.ordinal()]);
+        double[] rice = copyInto(riceSubsidy, adjusted[Field.RICE_SUBSIDY.ordinal()]);
+        double[] phone = copyInto(phoneAllowance, adjusted[Field.PHONE_ALLOWANCE.ordinal()]);
+        double[] clothing = copyInto(clothingAllowance, adjusted[Field.CLOTHING_ALLOWANCE.ordinal()]);
+        double[] hours = copyInto(hoursWorked, adjusted[Field.HOURS_WORKED.ordinal()]);
+
+        for (Adjustment adjustment : scenario.adjustments) {
+            applyAdjustment(adjustment, adjusted[adjustment.field.ordinal()]);
+        }
+
+        for (int i = 0; i < size; i++) {
+            double basePay = hours[i] * rate[i];
+            double allowances = (rice[i] + phone[i] + clothing[i]) * allowanceProration[i];
+            grossIncome[i] = basePay + allowances;
+        }
+
+        calculator.calculate(grossIncome, endDate, WithholdingTaxTable.Periodicity.forPeriod(startDate, endDate),
+            sss, philHealth, pagIbig, tax);
+
+        double totalBasePay = 0;
+        double totalAllowances = 0;
+        double totalGross = 0;
+        double totalSss = 0;
+        double totalPhilHealth = 0;
+        double totalPagIbig = 0;
+        double totalTax = 0;
+        int employeesWithHours = 0;
+        for (int i = 0; i < size; i++) {
+            if (hours[i] > 0) {
+                employeesWithHours++;
+                totalBasePay += hours[i] * rate[i];
+                totalAllowances += grossIncome[i] - hours[i] * rate[i];
+                totalGross += grossIncome[i];
+                totalSss += sss[i];
+                totalPhilHealth += philHealth[i];
+                totalPagIbig += pagIbig[i];
+                totalTax += tax[i];
+            }
+        }
+        double totalDeductions = totalSss + totalPhilHealth + totalPagIbig + totalTax;
+
+        Map<String, Double> totals = new LinkedHashMap<>();
+        totals.put("employeesWithHours", (double) employeesWithHours);
+        totals.put("basePay", totalBasePay);
+        totals.put("totalAllowances", totalAllowances);
+        totals.put("grossIncome", totalGross);
+        totals.put("sssDeduction", totalSss);
+        totals.put("philHealthDeduction", totalPhilHealth);
+        totals.put("pagIbigDeduction", totalPagIbig);
+        totals.put("taxDeduction", totalTax);
+        totals.put("totalDeductions", totalDeductions);
+        totals.put("netPay", totalGross - totalDeductions);
+        return totals;
+    }
+
+    /**
+     * Applies one adjustment to a column, honoring its attribute filter
+     *
+     * @param adjustment The adjustment to apply
+     * @param column The column to modify in place
+     */
+    private void applyAdjustment(Adjustment adjustment, double[] column) {
+        String[] filterColumn = adjustment.attribute != null ? attributes[adjustment.attribute.ordinal()] : null;
+        double value = adjustment.value;
+        for (int i = 0; i < size; i++) {
+            if (filterColumn != null && !adjustment.attributeValue.equalsIgnoreCase(filterColumn[i])) {
+                continue;
+            }
+            switch (adjustment.operation) {
+                case SCALE:
+                    column[i] *= value;
+                    break;
+                case ADD:
+                    column[i] += value;
+                    break;
+                case SET:
+                    column[i] = value;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Copies a baseline column into a scratch column
+     *
+     * @param source Baseline column
+     * @param target Scratch column
+     * @return The scratch column
+     */
+    private static double[] copyInto(double[] source, double[] target) {
+        System.arraycopy(source, 0, target, 0, source.length);
+        return target;
+    }
+
+    /**
+     * Inner class describing a named set of pay input adjustments
+     *
+     * Adjustments are applied in the order they were added, for example:
+     * new Scenario("5% raise for Regular staff")
+     *     .adjust(Field.HOURLY_RATE, Operation.SCALE, 1.05, Attribute.STATUS, "Regular")
+     */
+    public static class Scenario {
+        private final String name;
+        private final List<Adjustment> adjustments = new ArrayList<>();
+
+        /**
+         * Constructs an empty scenario
+         *
+         * @param name Scenario name used in results
+         */
+        public Scenario(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Gets the scenario name
+         *
+         * @return The name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Adds an adjustment that applies to every employee
+         *
+         * @param field The pay input to change
+         * @param operation How to change it
+         * @param value The operand
+         * @return This scenario, for chaining
+         */
+        public Scenario adjust(Field field, Operation operation, double value) {
+            adjustments.add(new Adjustment(field, operation, value, null, null));
+            return this;
+        }
+
+        /**
+         * Adds an adjustment that applies to employees with a matching attribute
+         *
+         * @param field The pay input to change
+         * @param operation How to change it
+         * @param value The operand
+         * @param attribute The attribute to match
+         * @param attributeValue The attribute value to match (case-insensitive)
+         * @return This scenario, for chaining
+         */
+        public Scenario adjust(Field field, Operation operation, double value, Attribute attribute, String attributeValue) {
+            if (attribute == null || attributeValue == null) {
+                throw new IllegalArgumentException("Attribute filter requires both an attribute and a value");
+            }
+            adjustments.add(new Adjustment(field, operation, value, attribute, attributeValue));
+            return this;
+        }
+    }
+
+    /**
+     * Inner class holding one scenario adjustment
+     */
+    private static class Adjustment {
+        private final Field field;
+        private final Operation operation;
+        private final double value;
+        private final Attribute attribute;
+        private final String attributeValue;
+
+        Adjustment(Field field, Operation operation, double value, Attribute attribute, String attributeValue) {
+            this.field = field;
+            this.operation = operation;
+            this.value = value;
+            this.attribute = attribute;
+            this.attributeValue = attributeValue;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PayrollSummary aggregates payroll totals from many threads without contention.
+ *
+ * This class is responsible for:
+ * - Accumulating company payroll totals from concurrently processed employees
+ * - Grouping totals by department, status or position
+ * - Producing exact totals that do not depend on thread scheduling
+ *
+ * Each employee's values are rounded to centavos (hundredths of an hour for
+ * hours worked) and added to striped LongAdder counters. Integer addition is
+ * associative, so the merged sums are identical whatever order threads run in.
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class PayrollSummary {
+    /** Payroll fields summed into the totals */
+    static final String[] SUMMARY_FIELDS = {
+        "totalHoursWorked", "grossIncome", "sssDeduction", "philHealthDeduction",
+        "pagIbigDeduction", "taxDeduction", "netPay"
+    };
+
+    /**
+     * Employee attributes totals can be grouped by
+     */
+    public enum GroupBy {
+        NONE,
+        DEPARTMENT,
+        STATUS,
+        POSITION
+    }
+
+    /** Attribute used to group totals */
+    private final GroupBy groupBy;
+
+    /** Totals across all employees */
+    private final Totals overall = new Totals();
+
+    /** Totals per group value */
+    private final ConcurrentHashMap<String, Totals> groups = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an empty summary
+     *
+     * @param groupBy Attribute used to group totals, or NONE for company totals only
+     */
+    public PayrollSummary(GroupBy groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    /**
+     * Adds one employee's payroll result
+     * Safe to call from many threads at once
+     *
+     * @param employee The employee
+     * @param payrollData The employee's payroll values, or null if processing failed
+     */
+    public void add(Employee employee, Map<String, Double> payrollData) {
+        if (payrollData == null) {
+            return;
+        }
+        overall.add(payrollData);
+        if (groupBy != GroupBy.NONE) {
+            groups.computeIfAbsent(groupKey(employee), k -> new Totals()).add(payrollData);
+        }
+    }
+
+    /**
+     * Gets the company totals
+     *
+     * @return Map of total name to amount, plus employee counts
+     */
+    public Map<String, Double> getTotals() {
+        return overall.toMap();
+    }
+
+    /**
+     * Gets the totals for each group, sorted by group name
+     *
+     * @return Map of group name to totals; empty when not grouping
+     */
+    public Map<String, Map<String, Double>> getGroupTotals() {
+        Map<String, Map<String, Double>> result = new TreeMap<>();
+        for (Map.Entry<String, Totals> entry : groups.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toMap());
+        }
+        return result;
+    }
+
+    /**
+     * Gets the attribute used to group totals
+     *
+     * @return The grouping attribute
+     */
+    public GroupBy getGroupBy() {
+        return groupBy;
+    }
+
+    /**
+     * Gets the group an employee belongs to
+     *
+     * @param employee The employee
+     * @return The group name
+     */
+    private String groupKey(Employee employee) {
+        String key;
+        switch (groupBy) {
+            case DEPARTMENT:
+                key = employee.getDepartment();
+                break;
+            case STATUS:
+                key = employee.getStatus();
+                break;
+            case POSITION:
+                key = employee.getPosition();
+                break;
+            default:
+                key = "";
+        }
+        return key != null ? key : "Unassigned";
+    }
+
+    /**
+     * Converts a payroll value to hundredths, the unit used for totals
+     *
+     * @param value The payroll value
+     * @return The value in centavos (or hundredths of an hour)
+     */
+    static long toCentavos(double value) {
+        return Math.round(value * 100.0);
+    }
+
+    /**
+     * Inner class holding striped counters for one set of totals
+     */
+    private static class Totals {
+        private final LongAdder employeesProcessed = new LongAdder();
+        private final LongAdder employeesWithHours = new LongAdder();
+        /** Field totals in hundredths, indexed like SUMMARY_FIELDS */
+        private final LongAdder[] fields = new LongAdder[SUMMARY_FIELDS.length];
+
+        Totals() {
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Adds one employee's values
+         * Only employees with hours worked contribute to the amounts, as in Payroll.processPayroll
+         *
+         * @param payrollData The employee's payroll values
+         */
+        void add(Map<String, Double> payrollData) {
+            employeesProcessed.increment();
+            if (payrollData.get("totalHoursWorked") <= 0) {
+                return;
+            }
+            employeesWithHours.increment();
+            for (int i = 0; i < fields.length; i++) {
+                fields[i].add(toCentavos(payrollData.get(SUMMARY_FIELDS[i])));
+            }
+        }
+
+        /**
+         * Merges the counters into a map of totals
+         *
+         * @return Map of total name to amount
+         */
+        Map<String, Double> toMap() {
+            Map<String, Double> totals = new LinkedHashMap<>();
+            totals.put("employeesProcessed", (double) employeesProcessed.sum());
+            totals.put("employeesWithHours", (double) employeesWithHours.sum());
+            long deductions = 0;
+            for (int i = 0; i < fields.length; i++) {
+                long sum = fields[i].sum();
+                totals.put(SUMMARY_FIELDS[i], sum / 100.0);
+                if (SUMMARY_FIELDS[i].endsWith("Deduction")) {
+                    deductions += sum;
+                }
+            }
+            totals.put("totalDeductions", deductions / 100.0);
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PayslipGenerator writes one payslip file per employee for a pay period.
+ *
+ * This class is responsible for:
+ * - Calculating payroll for the roster a chunk at a time
+ * - Rendering payslips on worker threads, each reusing its own report buffer
+ * - Limiting how many payslip files are written at the same time
+ * - Reporting how many payslips were generated and how fast
+ *
+ * Each payslip is the same grid the console shows for a single employee and is
+ * written to "Employee ID.txt" in the period directory, replacing any older copy.
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class PayslipGenerator {
+    /** Number of employees calculated before their payslips are rendered */
+    private static final int CHUNK_SIZE = 256;
+
+    /** Payroll whose employees receive payslips */
+    private final Payroll payroll;
+    /** Number of threads rendering payslips */
+    private final int workerThreads;
+    /** Number of payslip files that may be written at the same time */
+    private final int maxConcurrentWrites;
+
+    /**
+     * Constructs a payslip generator
+     *
+     * @param payroll Payroll whose employees receive payslips
+     * @param workerThreads Number of threads rendering payslips
+     * @param maxConcurrentWrites Number of payslip files that may be written at the same time
+     */
+    public PayslipGenerator(Payroll payroll, int workerThreads, int maxConcurrentWrites) {
+        if (workerThreads < 1) {
+            throw new IllegalArgumentException("Worker threads must be at least 1: " + workerThreads);
+        }
+        if (maxConcurrentWrites < 1) {
+            throw new IllegalArgumentException("Concurrent writes must be at least 1: " + maxConcurrentWrites);
+        }
+        this.payroll = payroll;
+        this.workerThreads = workerThreads;
+        this.maxConcurrentWrites = maxConcurrentWrites;
+    }
+
+    /**
+     * Gets the usual directory for a period's payslips
+     *
+     * @param parent Directory holding the period directories
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @return The period directory
+     */
+    public static Path periodDirectory(Path parent, LocalDate startDate, LocalDate endDate) {
+        return parent.resolve("Payslips " + startDate + " to " + endDate);
+    }
+
+    /**
+     * Generates payslips for every employee into a period directory
+     * Employees whose payroll or payslip fails are reported and counted, and the rest continue
+     *
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @param directory Directory to write the payslips to, created if missing
+     * @return Counts and throughput of the run
+     * @throws IOException if the directory cannot be created
+     */
+    public Result generate(LocalDate startDate, LocalDate endDate, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        long startTime = System.nanoTime();
+        AtomicInteger generated = new AtomicInteger();
+        int failed = 0;
+
+        Semaphore writePermits = new Semaphore(maxConcurrentWrites);
+        ExecutorService workers = Executors.newFixedThreadPool(workerThreads);
+        try {
+            List<Employee> employees = payroll.getEmployees();
+            for (int from = 0; from < employees.size(); from += CHUNK_SIZE) {
+                List<Employee> chunk = employees.subList(from, Math.min(from + CHUNK_SIZE, employees.size()));
+                List<Exception> errors = new ArrayList<>(Collections.nCopies(chunk.size(), (Exception) null));
+                List<Map<String, Double>> results = payroll.calculateAllPayroll(chunk, startDate, endDate, errors);
+
+                List<Future<?>> tasks = new ArrayList<>(chunk.size());
+                List<Employee> submitted = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    Employee employee = chunk.get(i);
+                    Map<String, Double> payrollData = results.get(i);
+                    if (payrollData == null) {
+                        System.out.println("Error processing payroll for employee " + employee.getId() + ": "
+                            + errors.get(i).getMessage());
+                        failed++;
+                        continue;
+                    }
+                    submitted.add(employee);
+                    tasks.add(workers.submit(() -> {
+                        writePayslip(employee, payrollData, startDate, endDate, directory, writePermits);
+                        generated.incrementAndGet();
+                        return null;
+                    }));
+                }
+
+                // Wait for the chunk so only one chunk of results is held at a time
+                for (int i = 0; i < tasks.size(); i++) {
+                    try {
+                        tasks.get(i).get();
+                    } catch (ExecutionException e) {
+                        System.out.println("Error writing payslip for employee " + submitted.get(i).getId() + ": "
+                            + e.getCause().getMessage());
+                        failed++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Payslip generation was interrupted");
+        } finally {
+            workers.shutdownNow();
+        }
+
+        return new Result(directory, generated.get(), failed, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Renders one payslip on the calling thread and writes it to its file
+     *
+     * @param employee The employee
+     * @param payrollData The employee's payroll values
+     * @param startDate Start date of the period
+     * @param endDate End date of the period
+     * @param directory Directory to write the payslip to
+     * @param writePermits Permits limiting concurrent file writes
+     * @throws IOException if the payslip cannot be written
+     * @throws InterruptedException if interrupted while waiting to write
+     */
+    private static void writePayslip(Employee employee, Map<String, Double> payrollData, LocalDate startDate,
+                                     LocalDate endDate, Path directory, Semaphore writePermits)
+            throws IOException, InterruptedException {
+        ReportRenderer out = ReportRenderer.current();
+        Payroll.renderPayslip(out, employee, payrollData, startDate, endDate);
+        byte[] payslip = out.takeText().getBytes(StandardCharsets.UTF_8);
+        Path file = directory.resolve(employee.getId().replaceAll("[^A-Za-z0-9_-]", "_") + ".txt");
+
+        writePermits.acquire();
+        try {
+            Files.write(file, payslip);
+        } finally {
+            writePermits.release();
+        }
+    }
+
+    /**
+     * Inner class holding the outcome of a payslip run
+     */
+    public static class Result {
+        private final Path directory;
+        private final int generated;
+        private final int failed;
+        private final long elapsedNanos;
+
+        Result(Path directory, int generated, int failed, long elapsedNanos) {
+            this.directory = directory;
+            this.generated = generated;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Gets the directory the payslips were written to
+         *
+         * @return The period directory
+         */
+        public Path getDirectory() {
+            return directory;
+        }
+
+        /**
+         * Gets the number of payslips written
+         *
+         * @return Payslip count
+         */
+        public int getGenerated() {
+            return generated;
+        }
+
+        /**
+         * Gets the number of employees without a payslip because of an error
+         *
+         * @return Failure count
+         */
+        public int getFailed() {
+            return failed;
+        }
+
+        /**
+         * Gets the time the run took
+         *
+         * @return Elapsed time in milliseconds
+         */
+        public double getElapsedMillis() {
+            return elapsedNanos / 1_000_000.0;
+        }
+
+        /**
+         * Gets the rate payslips were produced at
+         *
+         * @return Payslips per second, or 0 if none were written
+         */
+        public double getPayslipsPerSecond() {
+            return elapsedNanos > 0 ? generated * 1_000_000_000.0 / elapsedNanos : 0;
+        }
+    }
+}
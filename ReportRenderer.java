@@ -0,0 +1,428 @@
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Formattable;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ReportRenderer lays out console reports in memory and writes them in one operation.
+ *
+ * This class is responsible for:
+ * - Collecting report lines in a reusable per-thread buffer
+ * - Parsing each format string once and caching the parsed template
+ * - Formatting numbers with a fixed-point formatter instead of java.util.Formatter
+ * - Writing the finished report to the console in a single call
+ *
+ * Templates support the conversions used by the reports (%s, %d, %f, %n and %%)
+ * with the '-' and ',' flags, a width and a precision. Output is identical to
+ * String.format; any other format string is passed to String.format unchanged.
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class ReportRenderer {
+    /** Buffers larger than this are released after a flush */
+    private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+
+    /** Renderer for each thread, reused between reports */
+    private static final ThreadLocal<ReportRenderer> CURRENT = ThreadLocal.withInitial(ReportRenderer::new);
+
+    /** Parsed templates keyed by format string */
+    private static final ConcurrentHashMap<String, Template> TEMPLATES = new ConcurrentHashMap<>();
+
+    /** Template marking format strings that must go through String.format */
+    private static final Template UNSUPPORTED = new Template(new ArrayList<>());
+
+    /** Whether the default locale formats numbers with '.', ',' and ASCII digits */
+    private static final boolean PLAIN_NUMBER_SYMBOLS;
+
+    static {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        PLAIN_NUMBER_SYMBOLS = symbols.getDecimalSeparator() == '.'
+            && symbols.getGroupingSeparator() == ','
+            && symbols.getZeroDigit() == '0'
+            && symbols.getMinusSign() == '-';
+    }
+
+    /** Powers of ten for supported precisions */
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L
+    };
+
+    /** The report being laid out */
+    private StringBuilder buffer = new StringBuilder(8192);
+
+    /**
+     * Gets the renderer for the current thread
+     *
+     * @return The thread's renderer
+     */
+    public static ReportRenderer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Appends text to the report
+     *
+     * @param text The text
+     * @return This renderer
+     */
+    public ReportRenderer print(String text) {
+        buffer.append(text);
+        return this;
+    }
+
+    /**
+     * Appends a line of text to the report
+     *
+     * @param text The text
+     * @return This renderer
+     */
+    public ReportRenderer println(String text) {
+        buffer.append(text).append(System.lineSeparator());
+        return this;
+    }
+
+    /**
+     * Appends an empty line to the report
+     *
+     * @return This renderer
+     */
+    public ReportRenderer println() {
+        buffer.append(System.lineSeparator());
+        return this;
+    }
+
+    /**
+     * Appends formatted text to the report, as String.format would produce it
+     *
+     * @param format The format string
+     * @param args The values to format
+     * @return This renderer
+     */
+    public ReportRenderer printf(String format, Object... args) {
+        Template template = TEMPLATES.computeIfAbsent(format, ReportRenderer::compile);
+        int start = buffer.length();
+        if (template == UNSUPPORTED || !template.render(buffer, args)) {
+            buffer.setLength(start);
+            buffer.append(String.format(format, args));
+        }
+        return this;
+    }
+
+    /**
+     * Writes the report to the console in one operation and clears the buffer
+     */
+    public void flush() {
+        flush(System.out);
+    }
+
+    /**
+     * Writes the report to a stream in one operation and clears the buffer
+     *
+     * @param out The stream to write to
+     */
+    public void flush(PrintStream out) {
+        if (buffer.length() > 0) {
+            out.print(takeText());
+            out.flush();
+        }
+    }
+
+    /**
+     * Gets the report laid out so far and clears the buffer
+     *
+     * @return The report text
+     */
+    public String takeText() {
+        String text = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            buffer = new StringBuilder(8192);
+        } else {
+            buffer.setLength(0);
+        }
+        return text;
+    }
+
+    /**
+     * Appends a number with a fixed number of decimal places
+     * Rounds half up on the shortest decimal form of the value, as java.util.Formatter does
+     *
+     * @param sb The buffer to append to
+     * @param value The value
+     * @param precision Number of decimal places (0 to 6)
+     * @param grouping Whether to separate thousands with commas
+     * @return false if the value cannot be formatted by the fast path
+     */
+    static boolean appendFixed(StringBuilder sb, double value, int precision, boolean grouping) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || precision >= POWERS_OF_TEN.length) {
+            return false;
+        }
+        long scale = POWERS_OF_TEN[precision];
+        double magnitude = Math.abs(value);
+        double scaled = magnitude * scale;
+        if (scaled >= 1e15) {
+            return false;
+        }
+
+        long units;
+        double fraction = scaled - Math.floor(scaled);
+        if (Math.abs(fraction - 0.5) > Math.max(1e-7, Math.ulp(scaled) * 4)) {
+            units = Math.round(scaled);
+        } else {
+            // Too close to a tie to trust binary rounding; round the decimal form instead
+            units = new BigDecimal(Double.toString(magnitude)).setScale(precision, RoundingMode.HALF_UP)
+                .unscaledValue().longValue();
+        }
+
+        if (Double.compare(value, 0.0) < 0) {
+            sb.append('-');
+        }
+        appendInteger(sb, units / scale, grouping);
+        if (precision > 0) {
+            sb.append('.');
+            String digits = Long.toString(units % scale);
+            for (int i = digits.length(); i < precision; i++) {
+                sb.append('0');
+            }
+            sb.append(digits);
+        }
+        return true;
+    }
+
+    /**
+     * Appends a non-negative whole number
+     *
+     * @param sb The buffer to append to
+     * @param value The value
+     * @param grouping Whether to separate thousands with commas
+     */
+    private static void appendInteger(StringBuilder sb, long value, boolean grouping) {
+        String digits = Long.toString(value);
+        if (!grouping) {
+            sb.append(digits);
+            return;
+        }
+        int leading = digits.length() % 3;
+        if (leading == 0) {
+            leading = 3;
+        }
+        sb.append(digits, 0, leading);
+        for (int i = leading; i < digits.length(); i += 3) {
+            sb.append(',').append(digits, i, i + 3);
+        }
+    }
+
+    /**
+     * Parses a format string into a template
+     *
+     * @param format The format string
+     * @return The parsed template, or UNSUPPORTED if it uses unsupported features
+     */
+    private static Template compile(String format) {
+        if (!PLAIN_NUMBER_SYMBOLS) {
+            return UNSUPPORTED;
+        }
+
+        List<Object> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < format.length()) {
+            char c = format.charAt(i++);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+
+            boolean leftAlign = false;
+            boolean grouping = false;
+            while (i < format.length() && (format.charAt(i) == '-' || format.charAt(i) == ',')) {
+                if (format.charAt(i) == '-') {
+                    leftAlign = true;
+                } else {
+                    grouping = true;
+                }
+                i++;
+            }
+            int width = 0;
+            while (i < format.length() && Character.isDigit(format.charAt(i))) {
+                width = width * 10 + (format.charAt(i++) - '0');
+            }
+            int precision = -1;
+            if (i < format.length() && format.charAt(i) == '.') {
+                i++;
+                precision = 0;
+                while (i < format.length() && Character.isDigit(format.charAt(i))) {
+                    precision = precision * 10 + (format.charAt(i++) - '0');
+                }
+            }
+            if (i >= format.length()) {
+                return UNSUPPORTED;
+            }
+
+            char conversion = format.charAt(i++);
+            boolean plain = !leftAlign && !grouping && width == 0 && precision < 0;
+            switch (conversion) {
+                case 'n':
+                    if (!plain) {
+                        return UNSUPPORTED;
+                    }
+                    literal.append(System.lineSeparator());
+                    break;
+                case '%':
+                    if (!plain) {
+                        return UNSUPPORTED;
+                    }
+                    literal.append('%');
+                    break;
+                case 's':
+                case 'd':
+                case 'f':
+                    if ((leftAlign && width == 0)
+                        || (conversion == 's' && (grouping || precision >= 0))
+                        || (conversion == 'd' && precision >= 0)
+                        || (conversion == 'f' && precision >= POWERS_OF_TEN.length)) {
+                        return UNSUPPORTED;
+                    }
+                    if (literal.length() > 0) {
+                        parts.add(literal.toString());
+                        literal.setLength(0);
+                    }
+                    parts.add(new Spec(conversion, leftAlign, grouping, width, precision < 0 ? 6 : precision));
+                    break;
+                default:
+                    return UNSUPPORTED;
+            }
+        }
+        if (literal.length() > 0) {
+            parts.add(literal.toString());
+        }
+        return new Template(parts);
+    }
+
+    /**
+     * Inner class holding a parsed format string
+     */
+    private static final class Template {
+        /** Literal strings and conversion specs in order */
+        private final Object[] parts;
+        /** Number of arguments the template consumes */
+        private final int argumentCount;
+
+        Template(List<Object> parts) {
+            this.parts = parts.toArray();
+            int count = 0;
+            for (Object part : parts) {
+                if (part instanceof Spec) {
+                    count++;
+                }
+            }
+            this.argumentCount = count;
+        }
+
+        /**
+         * Renders the template into a buffer
+         *
+         * @param sb The buffer to append to
+         * @param args The values to format
+         * @return false if an argument does not suit its conversion
+         */
+        boolean render(StringBuilder sb, Object[] args) {
+            if (args.length < argumentCount) {
+                return false;
+            }
+            int next = 0;
+            for (Object part : parts) {
+                if (part instanceof String) {
+                    sb.append((String) part);
+                } else if (!((Spec) part).render(sb, args[next++])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Inner class holding one parsed conversion such as %,12.2f
+     */
+    private static final class Spec {
+        private final char conversion;
+        private final boolean leftAlign;
+        private final boolean grouping;
+        private final int width;
+        private final int precision;
+
+        Spec(char conversion, boolean leftAlign, boolean grouping, int width, int precision) {
+            this.conversion = conversion;
+            this.leftAlign = leftAlign;
+            this.grouping = grouping;
+            this.width = width;
+            this.precision = precision;
+        }
+
+        /**
+         * Renders one value, padded to the width
+         *
+         * @param sb The buffer to append to
+         * @param value The value
+         * @return false if the value does not suit the conversion
+         */
+        boolean render(StringBuilder sb, Object value) {
+            int start = sb.length();
+            if (value == null) {
+                sb.append("null");
+            } else if (conversion == 's') {
+                if (value instanceof Formattable) {
+                    return false;
+                }
+                sb.append(value);
+            } else if (conversion == 'd') {
+                if (!(value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte)) {
+                    return false;
+                }
+                long number = ((Number) value).longValue();
+                if (number == Long.MIN_VALUE) {
+                    return false;
+                }
+                if (number < 0) {
+                    sb.append('-');
+                }
+                appendInteger(sb, Math.abs(number), grouping);
+            } else {
+                if (!(value instanceof Double) || !appendFixed(sb, ((Number) value).doubleValue(), precision, grouping)) {
+                    return false;
+                }
+            }
+
+            int padding = width - (sb.length() - start);
+            if (padding > 0) {
+                if (leftAlign) {
+                    for (int i = 0; i < padding; i++) {
+                        sb.append(' ');
+                    }
+                } else {
+                    sb.insert(start, spaces(padding));
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Builds a run of spaces
+         *
+         * @param count Number of spaces
+         * @return The spaces
+         */
+        private static String spaces(int count) {
+            char[] chars = new char[count];
+            Arrays.fill(chars, ' ');
+            return new String(chars);
+        }
+    }
+}
@@ -0,0 +1,350 @@
+import java.io.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SSSContributionTable holds the SSS employee contribution schedules used by payroll.
+ *
+ * This class is responsible for:
+ * - Loading contribution brackets from a versioned CSV file keyed by effective date
+ * - Compiling each schedule into sorted arrays for fast lookups
+ * - Serving single and batch contribution lookups
+ * - Selecting the schedule that was in force for a given pay period
+ *
+ * File format (one bracket per line, an empty ceiling marks the maximum bracket):
+ * Effective Date,Compensation Ceiling,Employee Contribution
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class SSSContributionTable {
+    /** Path to the SSS contribution table CSV file */
+    private static final String FILE_PATH = "C:\\Users\\Johanzen\\Documents\\PROJECTS IT\\MotorPH Payroll System\\SSS Contribution Table.csv";
+
+    /** Shared table instance loaded on first use */
+    private static SSSContributionTable defaultTable;
+
+    /** Source of version numbers for loaded tables */
+    private static long nextVersion = 1;
+
+    /** Version number of this table, unique per load */
+    private final long version;
+
+    /** Compiled schedules keyed by effective date */
+    private final TreeMap<LocalDate, Schedule> schedules;
+
+    /**
+     * Constructs a table from already compiled schedules
+     *
+     * @param schedules Compiled schedules keyed by effective date
+     */
+    private SSSContributionTable(TreeMap<LocalDate, Schedule> schedules) {
+        this.schedules = schedules;
+        synchronized (SSSContributionTable.class) {
+            this.version = nextVersion++;
+        }
+    }
+
+    /**
+     * Gets the shared contribution table, loading it from file on first use
+     * Falls back to the built-in 2023 table if the file cannot be read
+     *
+     * @return The shared contribution table
+     */
+    public static synchronized SSSContributionTable getDefault() {
+        if (defaultTable == null) {
+            defaultTable = load(FILE_PATH);
+        }
+        return defaultTable;
+    }
+
+    /**
+     * Loads contribution schedules from a CSV file
+     *
+     * @param path Path to the contribution table file
+     * @return The loaded table, or the built-in 2023 table if nothing could be loaded
+     */
+    public static SSSContributionTable load(String path) {
+        File file = new File(path);
+        if (!file.exists()) {
+            System.out.println("No SSS contribution table found at: " + path + ". Using built-in 2023 table.");
+            return builtIn();
+        }
+
+        Map<LocalDate, List<double[]>> rowsByDate = new TreeMap<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            boolean firstLine = true;
+            while ((line = br.readLine()) != null) {
+                if (firstLine) {
+                    firstLine = false;
+                    continue; // Skip header row
+                }
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                String[] fields = line.split(",", -1);
+                try {
+                    if (fields.length < 3) {
+                        throw new IllegalArgumentException("Expected 3 fields, got " + fields.length);
+                    }
+                    LocalDate effectiveDate = LocalDate.parse(fields[0].trim());
+                    String ceiling = fields[1].trim();
+                    double upperBound = ceiling.isEmpty() ? Double.POSITIVE_INFINITY : Double.parseDouble(ceiling);
+                    double contribution = Double.parseDouble(fields[2].trim());
+                    rowsByDate.computeIfAbsent(effectiveDate, d -> new ArrayList<>())
+                              .add(new double[] {upperBound, contribution});
+                } catch (DateTimeParseException | IllegalArgumentException e) {
+                    System.out.println("Skipping invalid SSS table entry: " + line);
+                    System.out.println("Error: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading SSS contribution table: " + e.getMessage());
+        }
+
+        TreeMap<LocalDate, Schedule> schedules = new TreeMap<>();
+        for (Map.Entry<LocalDate, List<double[]>> entry : rowsByDate.entrySet()) {
+            try {
+                schedules.put(entry.getKey(), Schedule.compile(entry.getValue()));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Skipping SSS table effective " + entry.getKey() + ": " + e.getMessage());
+            }
+        }
+
+        if (schedules.isEmpty()) {
+            System.out.println("SSS contribution table is empty. Using built-in 2023 table.");
+            return builtIn();
+        }
+        return new SSSContributionTable(schedules);
+    }
+
+    /**
+     * Builds the 2023 SSS table that used to be hard-coded in Employee
+     *
+     * @return Table containing only the 2023 schedule
+     */
+    private static SSSContributionTable builtIn() {
+        List<double[]> rows = new ArrayList<>();
+        for (int i = 0; i < 22; i++) {
+            rows.add(new double[] {3250 + i * 1000, 135.00 + i * 22.50});
+        }
+        rows.add(new double[] {Double.POSITIVE_INFINITY, 630.00});
+
+        TreeMap<LocalDate, Schedule> schedules = new TreeMap<>();
+        schedules.put(LocalDate.of(2023, 1, 1), Schedule.compile(rows));
+        return new SSSContributionTable(schedules);
+    }
+
+    /**
+     * Reloads the shared contribution table from file
+     * Cached payroll results computed with the previous table become stale
+     */
+    public static synchronized void reload() {
+        defaultTable = load(FILE_PATH);
+    }
+
+    /**
+     * Gets the version of this table
+     * Every load produces a table with a new version
+     *
+     * @return The table version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets a hash of the table's schedules
+     * Unlike the version, it is the same for every load of the same brackets,
+     * so it can be compared with one saved by an earlier run
+     *
+     * @return The content hash
+     */
+    public int getContentHash() {
+        int hash = 1;
+        for (Map.Entry<LocalDate, Schedule> entry : schedules.entrySet()) {
+            hash = 31 * hash + entry.getKey().hashCode();
+            hash = 31 * hash + Arrays.hashCode(entry.getValue().ceilings);
+            hash = 31 * hash + Arrays.hashCode(entry.getValue().contributions);
+        }
+        return hash;
+    }
+
+    /**
+     * Looks up the contribution using the schedule currently in force
+     *
+     * @param grossPay The gross pay amount
+     * @return SSS contribution amount
+     */
+    public double lookup(double grossPay) {
+        return lookup(LocalDate.now(), grossPay);
+    }
+
+    /**
+     * Looks up the contribution using the schedule in force on a given date
+     *
+     * @param periodDate A date within the pay period (usually the period end)
+     * @param grossPay The gross pay amount
+     * @return SSS contribution amount
+     */
+    public double lookup(LocalDate periodDate, double grossPay) {
+        return scheduleFor(periodDate).lookup(grossPay);
+    }
+
+    /**
+     * Looks up contributions for a batch of gross pay amounts
+     * All amounts are evaluated against the schedule in force on the given date
+     *
+     * @param periodDate A date within the pay period (usually the period end)
+     * @param grossPay Array of gross pay amounts
+     * @param contributions Output array receiving the SSS contribution for each amount
+     */
+    public void lookupAll(LocalDate periodDate, double[] grossPay, double[] contributions) {
+        Schedule schedule = scheduleFor(periodDate);
+        for (int i = 0; i < grossPay.length; i++) {
+            contributions[i] = schedule.lookup(grossPay[i]);
+        }
+    }
+
+    /**
+     * Gets the effective date of the schedule in force on a given date
+     *
+     * @param periodDate The date to check
+     * @return Effective date of the applicable schedule
+     */
+    public LocalDate getEffectiveDate(LocalDate periodDate) {
+        Map.Entry<LocalDate, Schedule> entry = schedules.floorEntry(periodDate);
+        return entry != null ? entry.getKey() : schedules.firstKey();
+    }
+
+    /**
+     * Finds the schedule in force on a given date
+     * Dates before the earliest schedule use the earliest schedule
+     *
+     * @param periodDate The date to check
+     * @return The applicable schedule
+     */
+    Schedule scheduleFor(LocalDate periodDate) {
+        Map.Entry<LocalDate, Schedule> entry = schedules.floorEntry(periodDate);
+        return entry != null ? entry.getValue() : schedules.firstEntry().getValue();
+    }
+
+    /**
+     * Inner class holding one compiled contribution schedule
+     *
+     * Brackets are stored as parallel arrays of ceilings and contributions.
+     * When the ceilings are evenly spaced the bracket index is computed directly
+     * from the salary step; otherwise a binary search over the ceilings is used.
+     */
+    static class Schedule {
+        /** Upper bound (inclusive) of each bracket, excluding the maximum bracket */
+        private final double[] ceilings;
+        /** Contribution for each bracket; the last entry is the maximum contribution */
+        private final double[] contributions;
+        /** Width of each salary step, or 0 if the ceilings are not evenly spaced */
+        private final double step;
+
+        /**
+         * Constructs a compiled schedule
+         *
+         * @param ceilings Sorted bracket ceilings
+         * @param contributions Contributions, one more than the number of ceilings
+         * @param step Uniform step width, or 0 for binary search lookups
+         */
+        private Schedule(double[] ceilings, double[] contributions, double step) {
+            this.ceilings = ceilings;
+            this.contributions = contributions;
+            this.step = step;
+        }
+
+        /**
+         * Compiles raw bracket rows into a schedule
+         *
+         * @param rows List of {ceiling, contribution} pairs; one row must have an infinite ceiling
+         * @return The compiled schedule
+         * @throws IllegalArgumentException if the rows do not form a valid schedule
+         */
+        static Schedule compile(List<double[]> rows) {
+            List<double[]> sorted = new ArrayList<>(rows);
+            sorted.sort((a, b) -> Double.compare(a[0], b[0]));
+
+            int n = sorted.size();
+            if (n == 0 || !Double.isInfinite(sorted.get(n - 1)[0])) {
+                throw new IllegalArgumentException("Schedule must end with a maximum bracket (empty ceiling)");
+            }
+            if (n > 1 && Double.isInfinite(sorted.get(n - 2)[0])) {
+                throw new IllegalArgumentException("Schedule has more than one maximum bracket");
+            }
+
+            double[] ceilings = new double[n - 1];
+            double[] contributions = new double[n];
+            for (int i = 0; i < n; i++) {
+                if (i < n - 1) {
+                    ceilings[i] = sorted.get(i)[0];
+                    if (i > 0 && ceilings[i] == ceilings[i - 1]) {
+                        throw new IllegalArgumentException("Duplicate bracket ceiling: " + ceilings[i]);
+                    }
+                }
+                contributions[i] = sorted.get(i)[1];
+            }
+
+            // Use direct indexing when every bracket has the same width
+            double step = 0;
+            if (ceilings.length > 1) {
+                step = ceilings[1] - ceilings[0];
+                for (int i = 2; i < ceilings.length; i++) {
+                    if (Math.abs((ceilings[i] - ceilings[i - 1]) - step) > 1e-9) {
+                        step = 0;
+                        break;
+                    }
+                }
+            }
+            return new Schedule(ceilings, contributions, step);
+        }
+
+        /**
+         * Looks up the contribution for a gross pay amount
+         *
+         * @param grossPay The gross pay amount
+         * @return SSS contribution amount
+         */
+        double lookup(double grossPay) {
+            return contributions[bracketIndex(grossPay)];
+        }
+
+        /**
+         * Finds the bracket index for a gross pay amount
+         *
+         * @param grossPay The gross pay amount
+         * @return Index into the contributions array
+         */
+        int bracketIndex(double grossPay) {
+            int last = ceilings.length;
+            if (last == 0 || grossPay <= ceilings[0]) {
+                return 0;
+            }
+
+            if (step > 0) {
+                double steps = Math.ceil((grossPay - ceilings[0]) / step);
+                int index = steps >= last ? last : (int) steps;
+                // Correct for floating point error right at a ceiling
+                if (index > 0 && grossPay <= ceilings[index - 1]) {
+                    index--;
+                } else if (index < last && grossPay > ceilings[index]) {
+                    index++;
+                }
+                return index;
+            }
+
+            int result = Arrays.binarySearch(ceilings, grossPay);
+            return result >= 0 ? result : -(result + 1);
+        }
+    }
+}
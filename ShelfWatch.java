@@ -1,5 +1,6 @@
 import java.util.*;
 import java.io.*;
+import java.util.stream.Stream;
 
 /**
  * ShelfWatch class implements inventory management functionality for MotorPH.
@@ -8,7 +9,8 @@ import java.io.*;
  * - Inventory item tracking and management
  * - Adding and removing inventory items
  * - Sorting and viewing inventory
- * - Persistence of inventory data to CSV files
+ * - Persistence of inventory data to a B+tree file keyed by engine number
+ * - Importing the older inventory CSV file the first time the B+tree is created
  * 
  * @author MotorPH Development Team
  * @version 1.0
@@ -16,17 +18,24 @@ import java.io.*;
 public class ShelfWatch implements FileStorage<InventoryItem> {
     /** List of inventory items */
     private static List<InventoryItem> inventory = new ArrayList<>();
-    /** Path to the inventory data file */
+    /** Path to the older inventory CSV file, imported when the B+tree is first created */
     private static final String FILE_NAME = "C:\\Users\\Johanzen\\Documents\\PROJECTS IT\\MotorPH Payroll System\\inventory.csv";
+    /** Path to the inventory B+tree file, keyed by engine number */
+    private static final String STORE_FILE_NAME = "C:\\Users\\Johanzen\\Documents\\PROJECTS IT\\MotorPH Payroll System\\inventory.db";
+    /** Pages the inventory B+tree keeps in memory */
+    private static final int STORE_BUFFER_PAGES = 32;
     /** Scanner for user input */
     private static Scanner scanner = new Scanner(System.in);
+    
+    /** The inventory B+tree, opened on first use */
+    private BPlusTreeStore<InventoryItem> store;
 
     /**
      * Displays the inventory management menu and handles user interactions
      */
     public static void displayMenu() {
         ShelfWatch shelfWatch = new ShelfWatch();
-        inventory = new ArrayList<>(shelfWatch.load());
+        inventory = shelfWatch.load();
         
         while (true) {
             System.out.println("\nInventory Management System");
@@ -42,12 +51,15 @@ public class ShelfWatch implements FileStorage<InventoryItem> {
             
             switch (choice) {
                 case 1:
-                    addItem();
-                    shelfWatch.save(inventory);
+                    InventoryItem added = addItem();
+                    if (added != null) {
+                        shelfWatch.upsert(added);
+                    }
                     break;
                 case 2:
-                    removeItem();
-                    shelfWatch.save(inventory);
+                    for (InventoryItem removed : removeItem()) {
+                        shelfWatch.delete(removed);
+                    }
                     break;
                 case 3:
                     viewInventory();
@@ -56,7 +68,12 @@ public class ShelfWatch implements FileStorage<InventoryItem> {
                     sortInventory();
                     break;
                 case 5:
-                    shelfWatch.save(inventory);
+                    try {
+                        shelfWatch.close();
+                        System.out.println("Inventory saved successfully.");
+                    } catch (IOException e) {
+                        System.out.println("Error saving inventory: " + e.getMessage());
+                    }
                     System.out.println("Exiting Inventory Management. Goodbye!");
                     return;
                 default:
@@ -66,56 +83,125 @@ public class ShelfWatch implements FileStorage<InventoryItem> {
     }
 
     /**
-     * Loads inventory items from the CSV file
+     * Loads inventory items from the B+tree, in engine number order
      * 
      * @return List of loaded inventory items
      */
     @Override
     public List<InventoryItem> load() {
-        ArrayList<InventoryItem> loadedInventory = new ArrayList<>();
-        File file = new File(FILE_NAME);
-        
-        if (!file.exists()) {
-            System.out.println("No existing inventory file found. Starting with an empty inventory.");
-            return loadedInventory;
-        }
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null && !line.trim().isEmpty()) {
-                try {
-                    loadedInventory.add(InventoryItem.fromCSV(line));
-                } catch (IllegalArgumentException e) {
-                    System.out.println("Skipping invalid inventory entry: " + line);
-                    System.out.println("Error: " + e.getMessage());
-                }
-            }
+        try {
+            List<InventoryItem> loadedInventory = store().load();
             System.out.println("Loaded " + loadedInventory.size() + " items from inventory.");
+            return loadedInventory;
         } catch (IOException e) {
-            System.out.println("Error reading inventory file: " + e.getMessage());
+            System.out.println("Error opening inventory file: " + e.getMessage());
+            return new ArrayList<>();
         }
-        
-        return loadedInventory;
     }
 
     /**
-     * Saves inventory items to the CSV file
+     * Makes the B+tree hold exactly the given inventory items
      * 
      * @param items List of inventory items to save
      */
     @Override
     public void save(List<InventoryItem> items) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_NAME))) {
-            for (InventoryItem item : items) {
-                writer.write(item.toCSVFormat());
-                writer.newLine();
-            }
-            System.out.println("Inventory saved successfully.");
+        saveAll(items, DEFAULT_BATCH_SIZE);
+    }
+    
+    /**
+     * Makes the B+tree hold exactly the given inventory items, flushing after every batch
+     * 
+     * @param items Inventory items to save, read once in order
+     * @param batchSize Number of items written between flushes
+     */
+    @Override
+    public void saveAll(Iterable<InventoryItem> items, int batchSize) {
+        try {
+            store().saveAll(items, batchSize);
+        } catch (IOException e) {
+            System.out.println("Error saving inventory: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Reads inventory items from the B+tree one page at a time, in engine number order
+     * 
+     * @return Stream of inventory items
+     */
+    @Override
+    public Stream<InventoryItem> stream() {
+        try {
+            return store().stream();
+        } catch (IOException e) {
+            System.out.println("Error opening inventory file: " + e.getMessage());
+            return Stream.empty();
+        }
+    }
+    
+    /**
+     * Adds an item, or replaces the item with the same engine number, and commits it to disk
+     * Only the B+tree pages on the item's path are read and written
+     * 
+     * @param item The inventory item to store
+     */
+    @Override
+    public void upsert(InventoryItem item) {
+        try {
+            BPlusTreeStore<InventoryItem> target = store();
+            target.put(item);
+            target.flush();
         } catch (IOException e) {
             System.out.println("Error saving inventory: " + e.getMessage());
         }
     }
     
+    /**
+     * Removes the item with the same engine number and commits the removal to disk
+     * Only the B+tree pages on the item's path are read and written
+     * 
+     * @param item The inventory item to remove
+     * @return true if an item was removed
+     */
+    @Override
+    public boolean delete(InventoryItem item) {
+        try {
+            BPlusTreeStore<InventoryItem> target = store();
+            boolean removed = target.remove(item.getEngineNumber());
+            target.flush();
+            return removed;
+        } catch (IOException e) {
+            System.out.println("Error saving inventory: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Commits any changed inventory pages to disk
+     * 
+     * @throws IOException if the inventory file cannot be written
+     */
+    public void flush() throws IOException {
+        if (store != null) {
+            store.flush();
+        }
+    }
+    
+    /**
+     * Writes changed inventory pages to disk and closes the inventory file
+     * 
+     * @throws IOException if the inventory file cannot be written
+     */
+    public void close() throws IOException {
+        if (store != null) {
+            try {
+                store.close();
+            } finally {
+                store = null;
+            }
+        }
+    }
+    
     /**
      * Gets the file path used for inventory storage
      * 
@@ -123,65 +209,137 @@ public class ShelfWatch implements FileStorage<InventoryItem> {
      */
     @Override
     public String getFilePath() {
-        return FILE_NAME;
+        return STORE_FILE_NAME;
+    }
+    
+    /**
+     * Opens the inventory B+tree, keyed by engine number
+     * 
+     * @return The inventory store, to be closed by the caller
+     * @throws IOException if the store file cannot be opened
+     */
+    public static BPlusTreeStore<InventoryItem> openInventoryStore() throws IOException {
+        return new BPlusTreeStore<>(STORE_FILE_NAME, InventoryItem::getEngineNumber, InventoryItem::toCSVFormat,
+                                    InventoryItem::fromCSV, STORE_BUFFER_PAGES);
+    }
+    
+    /**
+     * Gets the inventory B+tree, opening it on first use
+     * A newly created tree is filled from the older inventory CSV file if there is one
+     * 
+     * @return The inventory store
+     * @throws IOException if the store file cannot be opened
+     */
+    private BPlusTreeStore<InventoryItem> store() throws IOException {
+        if (store == null) {
+            boolean created = !new File(STORE_FILE_NAME).exists();
+            store = openInventoryStore();
+            if (created) {
+                importCsv(store);
+            }
+        }
+        return store;
+    }
+    
+    /**
+     * Copies the items of the older inventory CSV file into the B+tree
+     * The CSV file is left in place but is no longer read or written
+     * 
+     * @param target The newly created inventory store
+     */
+    private static void importCsv(BPlusTreeStore<InventoryItem> target) {
+        File file = new File(FILE_NAME);
+        if (!file.exists()) {
+            System.out.println("No existing inventory file found. Starting with an empty inventory.");
+            return;
+        }
+        
+        int imported = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null && !line.trim().isEmpty()) {
+                try {
+                    target.put(InventoryItem.fromCSV(line));
+                    imported++;
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Skipping invalid inventory entry: " + line);
+                    System.out.println("Error: " + e.getMessage());
+                }
+            }
+            target.flush();
+            System.out.println("Imported " + imported + " items from " + FILE_NAME);
+        } catch (IOException e) {
+            System.out.println("Error importing inventory file: " + e.getMessage());
+        }
     }
 
     /**
      * Adds a new item to the inventory
      * Prompts user for item details and validates input
+     * An item with the same engine number is replaced
+     * 
+     * @return The added item, or null if nothing was added
      */
-    private static void addItem() {
+    private static InventoryItem addItem() {
         try {
             System.out.print("Enter item name: ");
             String name = scanner.nextLine().trim();
             if (name.isEmpty()) {
                 System.out.println("Item name cannot be empty.");
-                return;
+                return null;
             }
             
             System.out.print("Enter brand: ");
             String brand = scanner.nextLine().trim();
             if (brand.isEmpty()) {
                 System.out.println("Brand cannot be empty.");
-                return;
+                return null;
             }
             
             System.out.print("Enter engine number: ");
             String engineNumber = scanner.nextLine().trim();
             if (engineNumber.isEmpty()) {
                 System.out.println("Engine number cannot be empty.");
-                return;
+                return null;
             }
             
             System.out.print("Enter purchase status (Sold/On hand): ");
             String purchaseStatus = scanner.nextLine().trim();
             if (!purchaseStatus.equalsIgnoreCase("Sold") && !purchaseStatus.equalsIgnoreCase("On hand")) {
                 System.out.println("Purchase status must be either 'Sold' or 'On hand'.");
-                return;
+                return null;
             }
             
-            inventory.add(new InventoryItem(name, brand, engineNumber, purchaseStatus, new Date()));
+            InventoryItem item = new InventoryItem(name, brand, engineNumber, purchaseStatus, new Date());
+            inventory.removeIf(existing -> existing.getEngineNumber().equals(engineNumber));
+            inventory.add(item);
             System.out.println(name + " has been added to the inventory.");
+            return item;
         } catch (Exception e) {
             System.out.println("Error adding item: " + e.getMessage());
+            return null;
         }
     }
 
     /**
      * Removes an item from the inventory
      * Prompts user for item name to remove
+     * 
+     * @return The removed items, empty if none matched
      */
-    private static void removeItem() {
+    private static List<InventoryItem> removeItem() {
         System.out.print("Enter item name to remove: ");
         String name = scanner.nextLine();
         
-        boolean removed = inventory.removeIf(item -> item.getName().equalsIgnoreCase(name));
+        List<InventoryItem> removed = new ArrayList<>();
+        inventory.removeIf(item -> item.getName().equalsIgnoreCase(name) && removed.add(item));
         
-        if (removed) {
+        if (!removed.isEmpty()) {
             System.out.println(name + " has been removed from the inventory.");
         } else {
             System.out.println("Item not found in inventory.");
         }
+        return removed;
     }
 
     /**
@@ -0,0 +1,150 @@
+import java.io.*;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ShiftRule describes the expected working hours for a position.
+ *
+ * This class is responsible for:
+ * - Holding the shift start, shift end and full-day hours for a position
+ * - Loading per-position rules from a CSV file
+ * - Falling back to the standard 08:00 to 17:00 shift for unlisted positions
+ *
+ * File format (one rule per line, position "*" sets the default rule):
+ * Position,Shift Start,Shift End,Full Day Hours
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class ShiftRule {
+    /** Path to the shift rules CSV file */
+    private static final String FILE_PATH = "C:\\Users\\Johanzen\\Documents\\PROJECTS IT\\MotorPH Payroll System\\Shift Rules.csv";
+
+    /** Standard shift used when no rule is configured */
+    public static final ShiftRule STANDARD = new ShiftRule(LocalTime.of(8, 0), LocalTime.of(17, 0), 8.0);
+
+    /** Rules keyed by lower-case position, loaded on first use */
+    private static Map<String, ShiftRule> rules;
+
+    /** Rule for positions without their own entry */
+    private static ShiftRule defaultRule = STANDARD;
+
+    /** Time the shift starts; logins after it are late */
+    private final LocalTime shiftStart;
+    /** Time the shift ends; logouts after it are overtime */
+    private final LocalTime shiftEnd;
+    /** Hours that make a complete working day */
+    private final double fullDayHours;
+
+    /**
+     * Constructs a shift rule
+     *
+     * @param shiftStart Time the shift starts
+     * @param shiftEnd Time the shift ends
+     * @param fullDayHours Hours that make a complete working day
+     */
+    public ShiftRule(LocalTime shiftStart, LocalTime shiftEnd, double fullDayHours) {
+        if (!shiftEnd.isAfter(shiftStart)) {
+            throw new IllegalArgumentException("Shift end must be after shift start: " + shiftStart + " - " + shiftEnd);
+        }
+        if (fullDayHours <= 0) {
+            throw new IllegalArgumentException("Full day hours must be positive: " + fullDayHours);
+        }
+        this.shiftStart = shiftStart;
+        this.shiftEnd = shiftEnd;
+        this.fullDayHours = fullDayHours;
+    }
+
+    /**
+     * Gets the shift rule for a position
+     *
+     * @param position The job position
+     * @return The position's rule, or the default rule if none is configured
+     */
+    public static synchronized ShiftRule forPosition(String position) {
+        if (rules == null) {
+            load(FILE_PATH);
+        }
+        ShiftRule rule = position != null ? rules.get(position.trim().toLowerCase()) : null;
+        return rule != null ? rule : defaultRule;
+    }
+
+    /**
+     * Loads shift rules from a CSV file, replacing any rules already loaded
+     *
+     * @param path Path to the shift rules file
+     */
+    public static synchronized void load(String path) {
+        rules = new HashMap<>();
+        defaultRule = STANDARD;
+
+        File file = new File(path);
+        if (!file.exists()) {
+            return;
+        }
+
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            boolean firstLine = true;
+            while ((line = br.readLine()) != null) {
+                if (firstLine) {
+                    firstLine = false;
+                    continue; // Skip header row
+                }
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                String[] fields = line.split(",", -1);
+                try {
+                    if (fields.length < 4) {
+                        throw new IllegalArgumentException("Expected 4 fields, got " + fields.length);
+                    }
+                    ShiftRule rule = new ShiftRule(LocalTime.parse(fields[1].trim()),
+                                                   LocalTime.parse(fields[2].trim()),
+                                                   Double.parseDouble(fields[3].trim()));
+                    String position = fields[0].trim();
+                    if (position.equals("*")) {
+                        defaultRule = rule;
+                    } else {
+                        rules.put(position.toLowerCase(), rule);
+                    }
+                } catch (DateTimeParseException | IllegalArgumentException e) {
+                    System.out.println("Skipping invalid shift rule: " + line);
+                    System.out.println("Error: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading shift rules: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the time the shift starts
+     *
+     * @return The shift start
+     */
+    public LocalTime getShiftStart() {
+        return shiftStart;
+    }
+
+    /**
+     * Gets the time the shift ends
+     *
+     * @return The shift end
+     */
+    public LocalTime getShiftEnd() {
+        return shiftEnd;
+    }
+
+    /**
+     * Gets the hours that make a complete working day
+     *
+     * @return Full day hours
+     */
+    public double getFullDayHours() {
+        return fullDayHours;
+    }
+}
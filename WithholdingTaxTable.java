@@ -0,0 +1,428 @@
+import java.io.*;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WithholdingTaxTable computes BIR withholding tax from compiled bracket tables.
+ *
+ * This class is responsible for:
+ * - Loading tax brackets per pay periodicity from a CSV file
+ * - Using the published base tax of each bracket, or precomputing it when the file has none
+ * - Evaluating tax for a single taxable income or a whole array at once
+ *
+ * File format (one bracket per line):
+ * Periodicity,Lower Bound,Rate,Base Tax
+ *
+ * Income above a bracket's lower bound is taxed at that bracket's rate,
+ * on top of the bracket's base tax. The published BIR base taxes come from
+ * the exact annual bounds, so they can differ by centavos from a sum over the
+ * rounded bounds; when the Base Tax column is empty the sum is used instead.
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class WithholdingTaxTable {
+    /** Path to the withholding tax table CSV file */
+    private static final String FILE_PATH = "C:\\Users\\Johanzen\\Documents\\PROJECTS IT\\MotorPH Payroll System\\Withholding Tax Table.csv";
+
+    /** Shared table instance loaded on first use */
+    private static WithholdingTaxTable defaultTable;
+
+    /** Source of version numbers for loaded tables */
+    private static long nextVersion = 1;
+
+    /** Version number of this table, unique per load */
+    private final long version;
+
+    /** Compiled bracket tables per periodicity */
+    private final Map<Periodicity, Brackets> tables;
+
+    /**
+     * Pay periodicities supported by the BIR withholding tax tables
+     */
+    public enum Periodicity {
+        WEEKLY(52),
+        SEMI_MONTHLY(24),
+        MONTHLY(12),
+        ANNUAL(1);
+
+        /** Number of pay periods in a year */
+        private final int periodsPerYear;
+
+        Periodicity(int periodsPerYear) {
+            this.periodsPerYear = periodsPerYear;
+        }
+
+        /**
+         * Gets the number of pay periods in a year
+         *
+         * @return Periods per year
+         */
+        public int getPeriodsPerYear() {
+            return periodsPerYear;
+        }
+
+        /**
+         * Picks the periodicity that matches the length of a pay period
+         * Periods longer than a month but shorter than a year use the monthly table
+         *
+         * @param startDate Start date of the period
+         * @param endDate End date of the period
+         * @return The matching periodicity
+         */
+        public static Periodicity forPeriod(LocalDate startDate, LocalDate endDate) {
+            long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+            if (days <= 7) return WEEKLY;
+            if (days <= 16) return SEMI_MONTHLY;
+            if (days >= 365) return ANNUAL;
+            return MONTHLY;
+        }
+    }
+
+    /**
+     * Constructs a table from compiled brackets
+     *
+     * @param tables Compiled brackets per periodicity
+     */
+    private WithholdingTaxTable(Map<Periodicity, Brackets> tables) {
+        this.tables = tables;
+        synchronized (WithholdingTaxTable.class) {
+            this.version = nextVersion++;
+        }
+    }
+
+    /**
+     * Gets the shared tax table, loading it from file on first use
+     *
+     * @return The shared tax table
+     */
+    public static synchronized WithholdingTaxTable getDefault() {
+        if (defaultTable == null) {
+            defaultTable = load(FILE_PATH);
+        }
+        return defaultTable;
+    }
+
+    /**
+     * Loads tax brackets from a CSV file
+     * Periodicities missing from the file are derived from the annual table
+     *
+     * @param path Path to the tax table file
+     * @return The loaded tax table
+     */
+    public static WithholdingTaxTable load(String path) {
+        Map<Periodicity, List<double[]>> rows = new EnumMap<>(Periodicity.class);
+        File file = new File(path);
+
+        if (!file.exists()) {
+            System.out.println("No withholding tax table found at: " + path + ". Using built-in table.");
+        } else {
+            try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+                String line;
+                boolean firstLine = true;
+                while ((line = br.readLine()) != null) {
+                    if (firstLine) {
+                        firstLine = false;
+                        continue; // Skip header row
+                    }
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+
+                    String[] fields = line.split(",");
+                    try {
+                        if (fields.length < 3) {
+                            throw new IllegalArgumentException("Expected 3 fields, got " + fields.length);
+                        }
+                        Periodicity periodicity = Periodicity.valueOf(fields[0].trim().toUpperCase());
+                        double lowerBound = Double.parseDouble(fields[1].trim());
+                        double rate = Double.parseDouble(fields[2].trim());
+                        double baseTax = fields.length > 3 && !fields[3].trim().isEmpty()
+                            ? Double.parseDouble(fields[3].trim()) : Double.NaN;
+                        rows.computeIfAbsent(periodicity, p -> new ArrayList<>())
+                            .add(new double[] {lowerBound, rate, baseTax});
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Skipping invalid tax table entry: " + line);
+                        System.out.println("Error: " + e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Error reading withholding tax table: " + e.getMessage());
+            }
+        }
+
+        Map<Periodicity, Brackets> tables = new EnumMap<>(Periodicity.class);
+        for (Map.Entry<Periodicity, List<double[]>> entry : rows.entrySet()) {
+            try {
+                tables.put(entry.getKey(), Brackets.compile(entry.getValue()));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Skipping " + entry.getKey() + " tax table: " + e.getMessage());
+            }
+        }
+
+        // Derive any missing periodicity from the annual table
+        Brackets annual = tables.get(Periodicity.ANNUAL);
+        if (annual == null) {
+            annual = builtInAnnual();
+            tables.put(Periodicity.ANNUAL, annual);
+        }
+        for (Periodicity periodicity : Periodicity.values()) {
+            if (!tables.containsKey(periodicity)) {
+                tables.put(periodicity, annual.scaledTo(periodicity.getPeriodsPerYear()));
+            }
+        }
+        return new WithholdingTaxTable(tables);
+    }
+
+    /**
+     * Builds the annual TRAIN law table (2018-2022 rates)
+     *
+     * @return Compiled annual brackets
+     */
+    private static Brackets builtInAnnual() {
+        List<double[]> rows = new ArrayList<>();
+        rows.add(new double[] {0, 0.00});
+        rows.add(new double[] {250000, 0.20});
+        rows.add(new double[] {400000, 0.25});
+        rows.add(new double[] {800000, 0.30});
+        rows.add(new double[] {2000000, 0.32});
+        rows.add(new double[] {8000000, 0.35});
+        return Brackets.compile(rows);
+    }
+
+    /**
+     * Reloads the shared tax table from file
+     * Cached payroll results computed with the previous table become stale
+     */
+    public static synchronized void reload() {
+        defaultTable = load(FILE_PATH);
+    }
+
+    /**
+     * Gets the version of this table
+     * Every load produces a table with a new version
+     *
+     * @return The table version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets a hash of the table's brackets
+     * Unlike the version, it is the same for every load of the same brackets,
+     * so it can be compared with one saved by an earlier run
+     *
+     * @return The content hash
+     */
+    public int getContentHash() {
+        int hash = 1;
+        for (Map.Entry<Periodicity, Brackets> entry : tables.entrySet()) {
+            Brackets brackets = entry.getValue();
+            hash = 31 * hash + entry.getKey().ordinal();
+            hash = 31 * hash + Arrays.hashCode(brackets.lowerBounds);
+            hash = 31 * hash + Arrays.hashCode(brackets.rates);
+            hash = 31 * hash + Arrays.hashCode(brackets.baseTaxes);
+        }
+        return hash;
+    }
+
+    /**
+     * Calculates withholding tax for a single taxable income
+     *
+     * @param periodicity The pay periodicity of the income
+     * @param taxableIncome The taxable income for the period
+     * @return Withholding tax amount
+     */
+    public double calculate(Periodicity periodicity, double taxableIncome) {
+        return tables.get(periodicity).calculate(taxableIncome);
+    }
+
+    /**
+     * Calculates withholding tax for a whole array of taxable incomes
+     *
+     * @param periodicity The pay periodicity of the incomes
+     * @param taxableIncomes Array of taxable incomes
+     * @param taxes Output array receiving the tax for each income
+     */
+    public void calculateAll(Periodicity periodicity, double[] taxableIncomes, double[] taxes) {
+        tables.get(periodicity).calculateAll(taxableIncomes, taxes);
+    }
+
+    /**
+     * Checks the monthly base taxes against the published BIR monthly table
+     * Both the table loaded from file and the one derived from the built-in
+     * annual table are checked, along with the tax on a few sample incomes
+     *
+     * @param args Optional path to a tax table file
+     */
+    public static void main(String[] args) {
+        double[] publishedBases = {0, 0, 2500, 10833.33, 40833.33, 200833.33};
+        WithholdingTaxTable loaded = args.length > 0 ? load(args[0]) : getDefault();
+        Brackets derived = builtInAnnual().scaledTo(Periodicity.MONTHLY.getPeriodsPerYear());
+
+        int mismatches = 0;
+        for (Brackets brackets : new Brackets[] {loaded.tables.get(Periodicity.MONTHLY), derived}) {
+            String name = brackets == derived ? "Derived" : "Loaded";
+            if (brackets.baseTaxes.length != publishedBases.length) {
+                System.out.println(name + " monthly table has " + brackets.baseTaxes.length
+                    + " brackets, expected " + publishedBases.length);
+                mismatches++;
+                continue;
+            }
+            for (int i = 0; i < publishedBases.length; i++) {
+                if (Math.abs(brackets.baseTaxes[i] - publishedBases[i]) > 0.005) {
+                    System.out.printf("%s monthly bracket %d: base %.2f, expected %.2f%n",
+                        name, i, brackets.baseTaxes[i], publishedBases[i]);
+                    mismatches++;
+                }
+            }
+            for (double income : new double[] {20000, 30000, 50000, 100000, 300000, 700000}) {
+                double expected = publishedMonthlyTax(income);
+                if (Math.abs(brackets.calculate(income) - expected) > 0.005) {
+                    System.out.printf("%s monthly tax on %.2f: %.2f, expected %.2f%n",
+                        name, income, brackets.calculate(income), expected);
+                    mismatches++;
+                }
+            }
+        }
+        System.out.println(mismatches == 0
+            ? "All monthly base taxes match the published table."
+            : mismatches + " values do not match the published table.");
+    }
+
+    /**
+     * Calculates monthly withholding tax from the published BIR table, written out by hand
+     *
+     * @param grossPay The monthly taxable income
+     * @return Tax amount
+     */
+    private static double publishedMonthlyTax(double grossPay) {
+        if (grossPay <= 20833) return 0;
+        if (grossPay <= 33333) return (grossPay - 20833) * 0.20;
+        if (grossPay <= 66667) return 2500 + (grossPay - 33333) * 0.25;
+        if (grossPay <= 166667) return 10833.33 + (grossPay - 66667) * 0.30;
+        if (grossPay <= 666667) return 40833.33 + (grossPay - 166667) * 0.32;
+        return 200833.33 + (grossPay - 666667) * 0.35;
+    }
+
+    /**
+     * Inner class holding one compiled bracket table
+     *
+     * Brackets are stored as parallel arrays of lower bounds, rates and the
+     * cumulative tax owed at each lower bound.
+     */
+    static class Brackets {
+        /** Lower bound of each bracket, ascending, starting at 0 */
+        private final double[] lowerBounds;
+        /** Marginal rate of each bracket */
+        private final double[] rates;
+        /** Cumulative tax owed at each bracket's lower bound */
+        private final double[] baseTaxes;
+
+        /**
+         * Constructs compiled brackets
+         *
+         * @param lowerBounds Lower bound of each bracket
+         * @param rates Marginal rate of each bracket
+         * @param baseTaxes Cumulative tax at each lower bound
+         */
+        private Brackets(double[] lowerBounds, double[] rates, double[] baseTaxes) {
+            this.lowerBounds = lowerBounds;
+            this.rates = rates;
+            this.baseTaxes = baseTaxes;
+        }
+
+        /**
+         * Compiles raw bracket rows, precomputing any base tax the rows do not give
+         * A computed base tax is the unrounded sum of the brackets below it
+         *
+         * @param rows List of {lowerBound, rate} pairs or {lowerBound, rate, baseTax} triples, NaN for no base tax
+         * @return The compiled brackets
+         * @throws IllegalArgumentException if the rows do not form a valid table
+         */
+        static Brackets compile(List<double[]> rows) {
+            List<double[]> sorted = new ArrayList<>(rows);
+            sorted.sort((a, b) -> Double.compare(a[0], b[0]));
+            if (sorted.isEmpty() || sorted.get(0)[0] != 0) {
+                throw new IllegalArgumentException("First bracket must start at 0");
+            }
+
+            int n = sorted.size();
+            double[] lowerBounds = new double[n];
+            double[] rates = new double[n];
+            double[] baseTaxes = new double[n];
+            for (int i = 0; i < n; i++) {
+                lowerBounds[i] = sorted.get(i)[0];
+                rates[i] = sorted.get(i)[1];
+                if (i > 0) {
+                    if (lowerBounds[i] == lowerBounds[i - 1]) {
+                        throw new IllegalArgumentException("Duplicate bracket lower bound: " + lowerBounds[i]);
+                    }
+                    baseTaxes[i] = baseTaxes[i - 1] + (lowerBounds[i] - lowerBounds[i - 1]) * rates[i - 1];
+                }
+                double[] row = sorted.get(i);
+                if (row.length > 2 && !Double.isNaN(row[2])) {
+                    baseTaxes[i] = row[2];
+                }
+            }
+            return new Brackets(lowerBounds, rates, baseTaxes);
+        }
+
+        /**
+         * Derives brackets for another periodicity by dividing the bounds and base taxes
+         * Bounds are rounded to pesos and base taxes to centavos, as in the published tables
+         *
+         * @param periodsPerYear Number of pay periods in a year
+         * @return Scaled brackets
+         */
+        Brackets scaledTo(int periodsPerYear) {
+            List<double[]> rows = new ArrayList<>();
+            for (int i = 0; i < lowerBounds.length; i++) {
+                rows.add(new double[] {Math.round(lowerBounds[i] / periodsPerYear), rates[i],
+                                       Math.round(baseTaxes[i] / periodsPerYear * 100.0) / 100.0});
+            }
+            return compile(rows);
+        }
+
+        /**
+         * Calculates tax for a single taxable income
+         *
+         * @param taxableIncome The taxable income
+         * @return Tax amount
+         */
+        double calculate(double taxableIncome) {
+            int k = lowerBounds.length - 1;
+            while (k > 0 && taxableIncome <= lowerBounds[k]) {
+                k--;
+            }
+            return taxableIncome <= 0 ? 0 : baseTaxes[k] + (taxableIncome - lowerBounds[k]) * rates[k];
+        }
+
+        /**
+         * Calculates tax for every income in an array
+         *
+         * @param taxableIncomes Array of taxable incomes
+         * @param taxes Output array receiving the tax for each income
+         */
+        void calculateAll(double[] taxableIncomes, double[] taxes) {
+            double[] lower = lowerBounds;
+            double[] rate = rates;
+            double[] base = baseTaxes;
+            int top = lower.length - 1;
+            for (int i = 0; i < taxableIncomes.length; i++) {
+                double income = taxableIncomes[i];
+                int k = top;
+                while (k > 0 && income <= lower[k]) {
+                    k--;
+                }
+                taxes[i] = income <= 0 ? 0 : base[k] + (income - lower[k]) * rate[k];
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+import java.io.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WorkingDayCalendar answers working-day questions for payroll.
+ *
+ * This class is responsible for:
+ * - Loading Philippine regular and special holidays from a CSV file
+ * - Marking weekends and holidays as non-working days
+ * - Counting working days between two dates in constant time per year
+ * - Giving the number of working days in a month for allowance proration
+ *
+ * Each year is compiled once into a bitset of working days plus a prefix count
+ * of working days up to each day of the year, so a count is two array lookups.
+ *
+ * File format (one holiday per line):
+ * Date,Holiday,Type
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class WorkingDayCalendar {
+    /** Path to the holiday CSV file */
+    private static final String FILE_PATH = "C:\\Users\\Johanzen\\Documents\\PROJECTS IT\\MotorPH Payroll System\\Philippine Holidays.csv";
+
+    /** Shared calendar instance loaded on first use */
+    private static WorkingDayCalendar defaultCalendar;
+
+    /** Holiday names keyed by date */
+    private final Map<LocalDate, String> holidays;
+
+    /** Compiled years, built on first use */
+    private final ConcurrentHashMap<Integer, CalendarYear> years = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a calendar from a set of holidays
+     *
+     * @param holidays Holiday names keyed by date
+     */
+    public WorkingDayCalendar(Map<LocalDate, String> holidays) {
+        this.holidays = new HashMap<>(holidays);
+    }
+
+    /**
+     * Gets the shared calendar, loading holidays from file on first use
+     * Without a holiday file only weekends are non-working days
+     *
+     * @return The shared calendar
+     */
+    public static synchronized WorkingDayCalendar getDefault() {
+        if (defaultCalendar == null) {
+            defaultCalendar = load(FILE_PATH);
+        }
+        return defaultCalendar;
+    }
+
+    /**
+     * Loads a calendar from a holiday CSV file
+     *
+     * @param path Path to the holiday file
+     * @return The loaded calendar
+     */
+    public static WorkingDayCalendar load(String path) {
+        Map<LocalDate, String> holidays = new HashMap<>();
+        File file = new File(path);
+        if (!file.exists()) {
+            System.out.println("No holiday file found at: " + path + ". Only weekends will be treated as non-working days.");
+            return new WorkingDayCalendar(holidays);
+        }
+
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            boolean firstLine = true;
+            while ((line = br.readLine()) != null) {
+                if (firstLine) {
+                    firstLine = false;
+                    continue; // Skip header row
+                }
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                String[] fields = line.split(",", -1);
+                try {
+                    LocalDate date = LocalDate.parse(fields[0].trim());
+                    holidays.put(date, fields.length > 1 ? fields[1].trim() : "Holiday");
+                } catch (DateTimeParseException e) {
+                    System.out.println("Skipping invalid holiday entry: " + line);
+                    System.out.println("Error: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading holiday file: " + e.getMessage());
+        }
+        return new WorkingDayCalendar(holidays);
+    }
+
+    /**
+     * Checks whether a date is a working day
+     *
+     * @param date The date to check
+     * @return true if the date is neither a weekend nor a holiday
+     */
+    public boolean isWorkingDay(LocalDate date) {
+        return yearOf(date.getYear()).workingDays.get(date.getDayOfYear());
+    }
+
+    /**
+     * Gets the holiday falling on a date
+     *
+     * @param date The date to check
+     * @return The holiday name, or null if the date is not a holiday
+     */
+    public String getHoliday(LocalDate date) {
+        return holidays.get(date);
+    }
+
+    /**
+     * Counts the working days between two dates
+     *
+     * @param startDate First date (inclusive)
+     * @param endDate Last date (inclusive)
+     * @return Number of working days, or 0 if the end is before the start
+     */
+    public int countWorkingDays(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            return 0;
+        }
+
+        CalendarYear first = yearOf(startDate.getYear());
+        if (startDate.getYear() == endDate.getYear()) {
+            return first.countThrough(endDate.getDayOfYear()) - first.countThrough(startDate.getDayOfYear() - 1);
+        }
+
+        int count = first.total() - first.countThrough(startDate.getDayOfYear() - 1);
+        for (int year = startDate.getYear() + 1; year < endDate.getYear(); year++) {
+            count += yearOf(year).total();
+        }
+        return count + yearOf(endDate.getYear()).countThrough(endDate.getDayOfYear());
+    }
+
+    /**
+     * Counts the working days in a month
+     *
+     * @param month The month
+     * @return Number of working days in the month
+     */
+    public int getWorkingDaysInMonth(YearMonth month) {
+        return countWorkingDays(month.atDay(1), month.atEndOfMonth());
+    }
+
+    /**
+     * Gets the compiled data for a year, building it on first use
+     *
+     * @param year The year
+     * @return The compiled year
+     */
+    private CalendarYear yearOf(int year) {
+        return years.computeIfAbsent(year, y -> new CalendarYear(y, holidays));
+    }
+
+    /**
+     * Inner class holding one year's working days
+     *
+     * Bit d of workingDays is set when day-of-year d is a working day, and
+     * prefix[d] holds the number of working days from day 1 through day d.
+     */
+    private static final class CalendarYear {
+        private final BitSet workingDays;
+        private final short[] prefix;
+
+        /**
+         * Compiles a year from its weekends and holidays
+         *
+         * @param year The year
+         * @param holidays Holiday names keyed by date
+         */
+        CalendarYear(int year, Map<LocalDate, String> holidays) {
+            LocalDate date = LocalDate.of(year, 1, 1);
+            int length = date.lengthOfYear();
+            workingDays = new BitSet(length + 1);
+            prefix = new short[length + 1];
+
+            for (int day = 1; day <= length; day++, date = date.plusDays(1)) {
+                DayOfWeek dayOfWeek = date.getDayOfWeek();
+                boolean working = dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY
+                    && !holidays.containsKey(date);
+                if (working) {
+                    workingDays.set(day);
+                }
+                prefix[day] = (short) (prefix[day - 1] + (working ? 1 : 0));
+            }
+        }
+
+        /**
+         * Counts working days from the start of the year through a day
+         *
+         * @param dayOfYear Day of the year, or 0 for none
+         * @return Number of working days
+         */
+        int countThrough(int dayOfYear) {
+            return prefix[dayOfYear];
+        }
+
+        /**
+         * Counts the working days in the whole year
+         *
+         * @return Number of working days
+         */
+        int total() {
+            return prefix[prefix.length - 1];
+        }
+    }
+}
@@ -0,0 +1,644 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * WriteAheadLog records every change to employees and attendance before it can be lost.
+ *
+ * This class is responsible for:
+ * - Writing each punch, hours entry, new employee and removed employee as a compact binary entry
+ * - Numbering entries and protecting each one with a CRC32 checksum
+ * - Flushing entries to disk in batches, forcing each batch once
+ * - Replaying the entries written since the last snapshot when the system starts
+ * - Starting a new log once the data files have been written as a snapshot, replacing
+ *   the old one in one step so the entries carried over are never lost
+ *
+ * File format:
+ * Header: magic (int), sequence number of the last entry in the snapshot (long)
+ * Entry:  payload length (int), sequence number (long), type (byte), payload, CRC32 (int)
+ *
+ * Every entry holds the resulting state rather than a difference (the day's
+ * login and logout, the day's total hours, the whole employee row), so replaying
+ * an entry that the snapshot already holds changes nothing. Replay stops at the
+ * first entry that is cut short or fails its checksum, and the log continues
+ * from there.
+ *
+ * @author MotorPH Development Team
+ * @version 1.0
+ */
+public class WriteAheadLog implements AttendanceListener, Closeable {
+    /** Path to the log file */
+    private static final String FILE_PATH = "C:\\Users\\Johanzen\\Documents\\PROJECTS IT\\MotorPH Payroll System\\MotorPH Payroll.wal";
+
+    /** Marks a log file, "MPWL" in ASCII */
+    private static final int MAGIC = 0x4D50574C;
+    /** Size of the file header in bytes */
+    private static final int HEADER_SIZE = 12;
+    /** Bytes around each payload: length, sequence, type and checksum */
+    private static final int ENTRY_OVERHEAD = 17;
+    /** Largest payload accepted when reading, to reject garbage lengths */
+    private static final int MAX_PAYLOAD = 1 << 20;
+
+    /** Entry holding a day's login and logout */
+    static final byte ATTENDANCE = 1;
+    /** Entry holding a day's total hours worked */
+    static final byte HOURS = 2;
+    /** Entry holding a new employee's details row */
+    static final byte EMPLOYEE = 3;
+    /** Entry holding a removed employee's ID */
+    static final byte EMPLOYEE_REMOVED = 4;
+
+    /** Number of entries that triggers an immediate flush */
+    static final int BATCH_SIZE = 64;
+    /** Longest time an entry waits before it is flushed */
+    static final long FLUSH_INTERVAL_MILLIS = 50;
+    /** Number of entries after which a snapshot is worthwhile */
+    static final int CHECKPOINT_THRESHOLD = 10000;
+
+    /** Path to the log file */
+    private final Path path;
+    /** Channel appending to the log file */
+    private FileChannel channel;
+
+    /** Encoded entries waiting to be flushed */
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(8192);
+    /** Number of entries waiting to be flushed */
+    private int pendingCount;
+    /** Sequence number of the last entry written */
+    private long sequence;
+    /** Number of entries in the log since the last snapshot */
+    private long entriesSinceCheckpoint;
+
+    /** Dates with hours entered by hand, which the snapshot files do not hold */
+    private final Map<Employee, Set<LocalDate>> enteredHours = new HashMap<>();
+
+    /** Background thread flushing entries that have waited long enough */
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "write-ahead-log-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Opens the default log
+     */
+    public WriteAheadLog() {
+        this(FILE_PATH);
+    }
+
+    /**
+     * Opens a log file
+     * Call replay before recording new changes so numbering continues from the log
+     *
+     * @param filePath Path to the log file
+     */
+    public WriteAheadLog(String filePath) {
+        this.path = Paths.get(filePath);
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (IOException e) {
+                System.out.println("Error flushing write-ahead log: " + e.getMessage());
+            }
+        }, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Applies the entries written since the last snapshot
+     * Attendance and hours entries for unknown employees are skipped
+     *
+     * @param employees Employees loaded from the snapshot, receiving new employees in log order
+     * @param parser Turns an employee details row into an employee
+     * @return Number of entries applied
+     * @throws IOException if the log cannot be opened
+     */
+    public synchronized int replay(List<Employee> employees, Function<String, Employee> parser)
+            throws IOException {
+        Map<String, Employee> byId = new HashMap<>();
+        for (Employee employee : employees) {
+            byId.put(employee.getId(), employee);
+        }
+
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long validEnd = HEADER_SIZE;
+        int applied = 0;
+        if (channel.size() < HEADER_SIZE) {
+            writeHeader(0);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a write-ahead log: " + path);
+            }
+            sequence = header.getLong();
+
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(path.toFile()), 65536))) {
+                in.skipBytes(HEADER_SIZE);
+                int[] count = {0};
+                validEnd += readEntries(in, sequence, (type, payload) -> {
+                    apply(type, payload, employees, byId, parser);
+                    count[0]++;
+                });
+                applied = count[0];
+                sequence += applied;
+                entriesSinceCheckpoint += applied;
+            }
+        }
+
+        if (channel.size() > validEnd) {
+            System.out.println("Discarding " + (channel.size() - validEnd) + " unreadable bytes at the end of the write-ahead log.");
+            channel.truncate(validEnd);
+        }
+        channel.position(validEnd);
+        return applied;
+    }
+
+    /**
+     * Applies the logged punches and hours of one employee, leaving the log untouched
+     * Used to bring an employee read on its own from the data files up to date
+     *
+     * @param employee The employee, as held by the data files
+     * @return false if the log adds or removes the employee, so the data files do not describe it
+     * @throws IOException if the log cannot be read
+     */
+    static boolean replayFor(Employee employee) throws IOException {
+        File file = new File(FILE_PATH);
+        if (file.length() <= HEADER_SIZE) {
+            return true;
+        }
+        boolean[] described = {true};
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 65536))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a write-ahead log: " + file.getPath());
+            }
+            readEntries(in, in.readLong(), (type, payload) -> {
+                String id = type == EMPLOYEE ? parseRowId(payload.readUTF()) : payload.readUTF();
+                if (!id.equals(employee.getId())) {
+                    return;
+                }
+                if (type == EMPLOYEE || type == EMPLOYEE_REMOVED) {
+                    described[0] = false;
+                } else {
+                    applyChange(type, payload, employee, LocalDate.ofEpochDay(payload.readLong()));
+                }
+            });
+        }
+        return described[0];
+    }
+
+    /**
+     * Logs a day's punches after a login or logout is recorded
+     * Implementation of AttendanceListener interface
+     *
+     * @param employee The employee whose attendance changed
+     * @param date The date of the changed attendance record
+     */
+    @Override
+    public void attendanceChanged(Employee employee, LocalDate date) {
+        PayloadWriter payload = attendancePayload(employee, date);
+        if (payload != null) {
+            append(ATTENDANCE, payload);
+        }
+    }
+
+    /**
+     * Logs a day's total hours after hours are entered
+     * Implementation of AttendanceListener interface
+     *
+     * @param employee The employee whose hours changed
+     * @param date The date of the changed hours
+     */
+    @Override
+    public void hoursWorkedChanged(Employee employee, LocalDate date) {
+        synchronized (this) {
+            enteredHours.computeIfAbsent(employee, e -> new HashSet<>()).add(date);
+        }
+        logHours(employee, date);
+    }
+
+    /**
+     * Logs a new employee
+     *
+     * @param employee The added employee
+     */
+    public void employeeAdded(Employee employee) {
+        String row = employee.toDetailsCSV();
+        append(EMPLOYEE, out -> out.writeUTF(row));
+    }
+
+    /**
+     * Logs a removed employee
+     *
+     * @param employee The removed employee
+     */
+    public void employeeRemoved(Employee employee) {
+        synchronized (this) {
+            enteredHours.remove(employee);
+        }
+        String id = employee.getId();
+        append(EMPLOYEE_REMOVED, out -> out.writeUTF(id));
+    }
+
+    /**
+     * Writes waiting entries to the log and forces them to disk
+     *
+     * @throws IOException if the log cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        if (pendingCount == 0 || channel == null) {
+            return;
+        }
+        ByteBuffer batch = ByteBuffer.wrap(pending.toByteArray());
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        channel.force(false);
+        pending.reset();
+        pendingCount = 0;
+    }
+
+    /**
+     * Checks whether enough entries have built up to make a snapshot worthwhile
+     *
+     * @return true if a snapshot is due
+     */
+    public synchronized boolean needsCheckpoint() {
+        return entriesSinceCheckpoint >= CHECKPOINT_THRESHOLD;
+    }
+
+    /**
+     * Starts a new log after the data files have been written as a snapshot
+     * Entered hours and days still missing a punch are not held by the snapshot
+     * files, so they are carried into the new log. The new log is written to a
+     * temporary file and moved over the old one, so a crash leaves one log or
+     * the other, never an empty log without the carried entries.
+     *
+     * @param employees All employees, as written to the snapshot
+     * @throws IOException if the log cannot be rewritten; the old log is then kept
+     */
+    public synchronized void checkpoint(List<Employee> employees) throws IOException {
+        flush();
+        long snapshotSequence = sequence;
+        ByteArrayOutputStream carried = new ByteArrayOutputStream(8192);
+        int carriedCount = 0;
+        for (Employee employee : employees) {
+            Set<LocalDate> dates = enteredHours.get(employee);
+            if (dates != null) {
+                for (LocalDate date : dates) {
+                    encode(HOURS, hoursPayload(employee, date), carried);
+                    carriedCount++;
+                }
+            }
+            for (Map.Entry<LocalDate, Employee.AttendanceRecord> entry
+                    : employee.getAttendanceRecords(LocalDate.MIN, LocalDate.MAX).entrySet()) {
+                if (entry.getValue().getLogoutTime() == null) {
+                    encode(ATTENDANCE, attendancePayload(employee, entry.getKey()), carried);
+                    carriedCount++;
+                }
+            }
+        }
+
+        // The log must be closed before it can be replaced on Windows
+        channel.close();
+        try {
+            AtomicFileWriter.writeAtomically(path, out -> {
+                ByteBuffer contents = ByteBuffer.allocate(HEADER_SIZE + carried.size());
+                contents.put(header(snapshotSequence)).put(carried.toByteArray()).flip();
+                while (contents.hasRemaining()) {
+                    out.write(contents);
+                }
+            });
+            entriesSinceCheckpoint = carriedCount;
+        } catch (IOException | RuntimeException e) {
+            sequence = snapshotSequence; // The carried entries were never written
+            throw e;
+        } finally {
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+    }
+
+    /**
+     * Gets the sequence number of the last entry logged
+     *
+     * @return The sequence number
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Flushes waiting entries and closes the log
+     *
+     * @throws IOException if the remaining entries cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flusher.shutdownNow();
+        try {
+            flush();
+        } finally {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Queues an entry holding a day's total hours
+     *
+     * @param employee The employee
+     * @param date The date
+     */
+    private void logHours(Employee employee, LocalDate date) {
+        append(HOURS, hoursPayload(employee, date));
+    }
+
+    /**
+     * Gets the payload of an entry holding a day's login and logout
+     *
+     * @param employee The employee
+     * @param date The date
+     * @return The payload, or null if the employee has no record for the date
+     */
+    private static PayloadWriter attendancePayload(Employee employee, LocalDate date) {
+        Employee.AttendanceRecord record = employee.getAttendanceRecords(date, date).get(date);
+        if (record == null) {
+            return null;
+        }
+        return out -> {
+            out.writeUTF(employee.getId());
+            out.writeLong(date.toEpochDay());
+            out.writeInt(record.getLoginTime() != null ? record.getLoginTime().toSecondOfDay() : -1);
+            out.writeInt(record.getLogoutTime() != null ? record.getLogoutTime().toSecondOfDay() : -1);
+        };
+    }
+
+    /**
+     * Gets the payload of an entry holding a day's total hours
+     *
+     * @param employee The employee
+     * @param date The date
+     * @return The payload
+     */
+    private static PayloadWriter hoursPayload(Employee employee, LocalDate date) {
+        double hours = employee.getHoursWorked(date);
+        return out -> {
+            out.writeUTF(employee.getId());
+            out.writeLong(date.toEpochDay());
+            out.writeDouble(hours);
+        };
+    }
+
+    /**
+     * Encodes an entry with the next sequence number
+     *
+     * @param type Entry type
+     * @param payload Writes the entry's payload
+     * @param target Stream receiving the encoded entry
+     * @throws IOException if the payload cannot be written
+     */
+    private void encode(byte type, PayloadWriter payload, OutputStream target) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64);
+        payload.write(new DataOutputStream(payloadBytes));
+
+        ByteBuffer body = ByteBuffer.allocate(9 + payloadBytes.size());
+        body.putLong(++sequence).put(type).put(payloadBytes.toByteArray());
+        CRC32 crc = new CRC32();
+        crc.update(body.array(), 0, body.capacity());
+
+        DataOutputStream out = new DataOutputStream(target);
+        out.writeInt(payloadBytes.size());
+        out.write(body.array());
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Encodes an entry and queues it, flushing when a full batch is waiting
+     *
+     * @param type Entry type
+     * @param payload Writes the entry's payload
+     */
+    private synchronized void append(byte type, PayloadWriter payload) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            encode(type, payload, pending);
+            pendingCount++;
+            entriesSinceCheckpoint++;
+
+            if (pendingCount >= BATCH_SIZE) {
+                flush();
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing write-ahead log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Applies one logged change
+     *
+     * @param type Entry type
+     * @param in The entry's payload
+     * @param employees Employees receiving new employees and losing removed ones
+     * @param byId Employees keyed by ID
+     * @param parser Turns an employee details row into an employee
+     * @throws IOException if the payload cannot be read
+     */
+    private void apply(byte type, DataInputStream in, List<Employee> employees, Map<String, Employee> byId,
+                              Function<String, Employee> parser) throws IOException {
+        if (type == EMPLOYEE) {
+            String row = in.readUTF();
+            try {
+                Employee employee = parser.apply(row);
+                if (!byId.containsKey(employee.getId())) {
+                    byId.put(employee.getId(), employee);
+                    employees.add(employee);
+                }
+            } catch (IllegalArgumentException e) {
+                System.out.println("Skipping invalid write-ahead log employee: " + row);
+            }
+            return;
+        }
+        if (type == EMPLOYEE_REMOVED) {
+            Employee employee = byId.remove(in.readUTF());
+            if (employee != null) {
+                employees.remove(employee);
+                enteredHours.remove(employee);
+            }
+            return;
+        }
+
+        Employee employee = byId.get(in.readUTF());
+        LocalDate date = LocalDate.ofEpochDay(in.readLong());
+        if (employee == null) {
+            return;
+        }
+        applyChange(type, in, employee, date);
+        if (type == HOURS) {
+            enteredHours.computeIfAbsent(employee, e -> new HashSet<>()).add(date);
+        }
+    }
+
+    /**
+     * Applies a logged punch or hours entry to an employee
+     *
+     * @param type Entry type, ATTENDANCE or HOURS
+     * @param in The rest of the entry's payload, after the employee ID and date
+     * @param employee The employee
+     * @param date The date of the entry
+     * @throws IOException if the payload cannot be read
+     */
+    private static void applyChange(byte type, DataInputStream in, Employee employee, LocalDate date)
+            throws IOException {
+        if (type == ATTENDANCE) {
+            int login = in.readInt();
+            int logout = in.readInt();
+            if (login >= 0) {
+                employee.recordLogin(date, LocalTime.ofSecondOfDay(login));
+            }
+            if (logout >= 0) {
+                employee.recordLogout(date, LocalTime.ofSecondOfDay(logout));
+            }
+        } else if (type == HOURS) {
+            employee.setHoursWorked(date, in.readDouble());
+        }
+    }
+
+    /**
+     * Reads entries in order, passing each one to a handler
+     * Stops at the first entry that is cut short, fails its checksum or is out of sequence
+     *
+     * @param in Stream positioned at the first entry
+     * @param sequence Sequence number of the entry before the first one
+     * @param handler Handler receiving each entry's type and payload
+     * @return Number of bytes taken by the entries read
+     * @throws IOException if the log cannot be read or a handler fails
+     */
+    private static long readEntries(DataInputStream in, long sequence, EntryHandler handler) throws IOException {
+        long bytesRead = 0;
+        CRC32 crc = new CRC32();
+        while (true) {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return bytesRead;
+            }
+            if (length < 0 || length > MAX_PAYLOAD) {
+                return bytesRead;
+            }
+            byte[] body = new byte[9 + length];
+            int checksum;
+            try {
+                in.readFully(body);
+                checksum = in.readInt();
+            } catch (EOFException e) {
+                return bytesRead;
+            }
+            crc.reset();
+            crc.update(body, 0, body.length);
+            if ((int) crc.getValue() != checksum) {
+                return bytesRead;
+            }
+
+            ByteBuffer entry = ByteBuffer.wrap(body);
+            long entrySequence = entry.getLong();
+            byte type = entry.get();
+            if (entrySequence != sequence + 1) {
+                return bytesRead;
+            }
+            handler.handle(type, new DataInputStream(new ByteArrayInputStream(body, 9, length)));
+            sequence = entrySequence;
+            bytesRead += ENTRY_OVERHEAD + length;
+        }
+    }
+
+    /**
+     * Gets the employee ID at the start of an employee details row
+     *
+     * @param row The details row
+     * @return The employee ID
+     */
+    private static String parseRowId(String row) {
+        int comma = row.indexOf(',');
+        return (comma >= 0 ? row.substring(0, comma) : row).replace("\"", "").trim();
+    }
+
+    /**
+     * Writes the file header at the start of the log
+     *
+     * @param snapshotSequence Sequence number of the last entry in the snapshot
+     * @throws IOException if the header cannot be written
+     */
+    private void writeHeader(long snapshotSequence) throws IOException {
+        ByteBuffer header = header(snapshotSequence);
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Lays out the file header
+     *
+     * @param snapshotSequence Sequence number of the last entry in the snapshot
+     * @return Buffer holding the header, ready to write
+     */
+    private static ByteBuffer header(long snapshotSequence) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putLong(snapshotSequence).flip();
+        return header;
+    }
+
+    /**
+     * Reads bytes from the log at a position until the buffer is full
+     *
+     * @param buffer Buffer to fill
+     * @param position File position to read from
+     * @throws IOException if the log ends first
+     */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Write-ahead log ends early");
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Writes an entry's payload
+     */
+    private interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Interface for code receiving the entries read from the log
+     */
+    private interface EntryHandler {
+        void handle(byte type, DataInputStream payload) throws IOException;
+    }
+}